@@ -0,0 +1,76 @@
+package experiment;
+
+import com.google.common.base.Function;
+
+import setting.Setting;
+
+/**
+ * The Class AGVSystems.
+ * It contains the six AGV systems as functions from a setting to the result
+ * of a simulation without visualization, so that an {@link ExperimentEngine}
+ * can run any of them.
+ *
+ * @author Tung
+ */
+public final class AGVSystems {
+
+  /** The context aware system of the single stage model. */
+  public static final Function<Setting, singlestage.result.Result> SINGLE_STAGE_CA =
+      new Function<Setting, singlestage.result.Result>() {
+        @Override
+        public singlestage.result.Result apply(Setting setting) {
+          return new singlestage.contextaware.AGVSystem(setting, false).run();
+        }
+      };
+
+  /** The delegate MAS system of the single stage model. */
+  public static final Function<Setting, singlestage.result.Result> SINGLE_STAGE_DMAS =
+      new Function<Setting, singlestage.result.Result>() {
+        @Override
+        public singlestage.result.Result apply(Setting setting) {
+          return new singlestage.delegatemas.AGVSystem(setting, false).run();
+        }
+      };
+
+  /** The context aware system of the garage model. */
+  public static final Function<Setting, multistage.result.Result> GARAGE_CA =
+      new Function<Setting, multistage.result.Result>() {
+        @Override
+        public multistage.result.Result apply(Setting setting) {
+          return new multistage.garagemodel.contextaware.AGVSystem(setting,
+              false).run();
+        }
+      };
+
+  /** The delegate MAS system of the garage model. */
+  public static final Function<Setting, multistage.result.Result> GARAGE_DMAS =
+      new Function<Setting, multistage.result.Result>() {
+        @Override
+        public multistage.result.Result apply(Setting setting) {
+          return new multistage.garagemodel.delegatemas.AGVSystem(setting,
+              false).run();
+        }
+      };
+
+  /** The context aware system of the central station model. */
+  public static final Function<Setting, multistage.result.Result> CENTRAL_STATION_CA =
+      new Function<Setting, multistage.result.Result>() {
+        @Override
+        public multistage.result.Result apply(Setting setting) {
+          return new multistage.centralstationmodel.contextaware.AGVSystem(
+              setting, false).run();
+        }
+      };
+
+  /** The delegate MAS system of the central station model. */
+  public static final Function<Setting, multistage.result.Result> CENTRAL_STATION_DMAS =
+      new Function<Setting, multistage.result.Result>() {
+        @Override
+        public multistage.result.Result apply(Setting setting) {
+          return new multistage.centralstationmodel.delegatemas.AGVSystem(
+              setting, false).run();
+        }
+      };
+
+  private AGVSystems() {}
+}
@@ -2,19 +2,10 @@ package experiment;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 
 import multistage.result.Result;
 import setting.Setting;
@@ -22,14 +13,8 @@ import setting.Setting;
 public class Experiment {
 
   public static void main(String[] args) {
-    ListeningExecutorService executor = MoreExecutors
-        .listeningDecorator(Executors
-            .newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
-
-    List<ListenableFuture<Result>> futures = new ArrayList<>();
-    
     try {
-      LinkedList<Long> seeds = new LinkedList<>();
+      List<Long> seeds = new ArrayList<>();
       
       InputStream inputStream = Experiment.class
           .getResourceAsStream("seeds.txt");
@@ -46,18 +31,23 @@ public class Experiment {
       
       bufferedReader.close();
 
+      final List<Integer> numsOfAGVs = new ArrayList<>();
       for (int numAGV = 1; numAGV <= 12; numAGV++) {
-        for (int i = 0; i < 10; i++) {
-          final long seed = seeds.removeFirst();
-          final Setting setting = new Setting.SettingBuilder()
-              .setNumOfAGVs(numAGV * 10).setSeed(seed).build();
-          futures.add(executor.submit(new ExperimentRunner(setting)));
-        }
+        numsOfAGVs.add(numAGV * 10);
       }
       
-      executor.shutdown();
-      
-      print(futures);
+      try (ExperimentJournal<Result> journal = new ExperimentJournal<>(
+          new File("journal.txt"), "GARAGE_DMAS", ResultCodecs.MULTI_STAGE);
+          ResultSink<Result> sink = new ResultSink<>(
+              new File("ResultsMultiDMAS.txt"), ResultCodecs.MULTI_STAGE)) {
+        final List<Setting> settings = ExperimentEngine.createSettings(seeds,
+            numsOfAGVs, 10);
+        final int numOfJournaledRuns = journal.getNumOfRuns(settings);
+        System.out.println(numOfJournaledRuns + " runs are in the journal, "
+            + (settings.size() - numOfJournaledRuns) + " to go");
+        new ExperimentEngine<>(AGVSystems.GARAGE_DMAS).run(settings,
+            journal, sink);
+      }
 
     } catch (Exception e) {
       e.printStackTrace();
@@ -65,26 +55,4 @@ public class Experiment {
     
     System.out.println("DONE!");
   }
-  
-  public static void print(List<ListenableFuture<Result>> futures) {
-    try {
-      PrintWriter printWriterMS = new PrintWriter(
-          new File("ResultsMultiDMAS.txt"));
-      printWriterMS.println("numAGVs\tFinishedTask");
-      for (ListenableFuture<Result> result : futures) {
-        try {
-          printWriterMS.println(result.get().getSetting().getNumOfAGVs() + "\t"
-              + result.get().getNumOfReachedDestinations());
-        } catch (InterruptedException e) {
-          e.printStackTrace();
-        } catch (ExecutionException e) {
-          e.printStackTrace();
-        }
-      }
-      printWriterMS.close();
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-    }
-  }
-
 }
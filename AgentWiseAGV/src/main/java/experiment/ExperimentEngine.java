@@ -0,0 +1,296 @@
+package experiment;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import setting.Setting;
+
+/**
+ * The Class ExperimentEngine.
+ * It runs an AGV system (see {@link AGVSystems}) for a list of settings, for
+ * example every seed of a sample for every number of AGVs, on a work stealing
+ * pool. The runs are independent, so they use all cores; the runs with the
+ * most AGVs take longest, so they are started first. The results are reported
+ * to a {@link ResultListener} as the runs finish; the engine keeps none of
+ * them then, so a sweep of many runs does not hold their results. Without a
+ * listener, the results are returned in the order of the settings when all
+ * runs have finished. With an {@link ExperimentJournal}, an interrupted
+ * experiment continues where it stopped.
+ *
+ * @param <R> the type of the results
+ * @author Tung
+ */
+public class ExperimentEngine<R> {
+
+  /** The AGV system. */
+  private final Function<Setting, R> system;
+
+  /** The number of runs at the same time. */
+  private final int parallelism;
+
+  /**
+   * Instantiates a new experiment engine that uses all cores.
+   *
+   * @param system the AGV system
+   */
+  public ExperimentEngine(Function<Setting, R> system) {
+    this(system, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Instantiates a new experiment engine.
+   *
+   * @param system the AGV system
+   * @param parallelism the number of runs at the same time
+   */
+  public ExperimentEngine(Function<Setting, R> system, int parallelism) {
+    Preconditions.checkArgument(parallelism > 0,
+        "The parallelism must be positive: %s", parallelism);
+    this.system = system;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Runs the AGV system for all settings.
+   *
+   * @param settings the settings
+   * @return the results, in the order of the settings
+   */
+  public List<R> run(List<Setting> settings) {
+    final List<R> results = new ArrayList<>(
+        Collections.<R> nCopies(settings.size(), null));
+    run(settings, new ResultListener<R>() {
+      @Override
+      public void resultReady(Setting setting, R result) {}
+    }, results);
+    return results;
+  }
+
+  /**
+   * Runs the AGV system for all settings. The results are only reported to
+   * the listener, none of them is kept, so the memory of the experiment does
+   * not grow with the number of runs. If a run fails (or the listener fails
+   * for it), the other runs are cancelled and its exception is thrown.
+   *
+   * @param settings the settings
+   * @param listener the listener that gets the result of every run
+   */
+  public void run(List<Setting> settings, ResultListener<R> listener) {
+    run(settings, listener, null);
+  }
+
+  /**
+   * Runs the AGV system for the settings whose runs are not in the journal
+   * yet and appends their results to it.
+   *
+   * @param settings the settings
+   * @param journal the journal
+   * @return the results of all settings, from the journal or from the new
+   *         runs, in the order of the settings
+   */
+  public List<R> run(List<Setting> settings, ExperimentJournal<R> journal) {
+    final List<R> results = new ArrayList<>(settings.size());
+    final List<Setting> remainingSettings = new ArrayList<>();
+    for (Setting setting : settings) {
+      final Optional<R> result = journal.getResult(setting);
+      results.add(result.orNull());
+      if (!result.isPresent()) {
+        remainingSettings.add(setting);
+      }
+    }
+
+    final List<R> newResults = new ArrayList<>(
+        Collections.<R> nCopies(remainingSettings.size(), null));
+    run(remainingSettings, journaling(journal, new ResultListener<R>() {
+      @Override
+      public void resultReady(Setting setting, R result) {}
+    }), newResults);
+    final Iterator<R> newResultIterator = newResults.iterator();
+    for (int index = 0; index < results.size(); index++) {
+      if (results.get(index) == null) {
+        results.set(index, newResultIterator.next());
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Runs the AGV system for the settings whose runs are not in the journal
+   * yet and appends their results to it. The listener gets the results in
+   * the journal first and then the results of the new runs as they finish.
+   * None of the results is kept.
+   *
+   * @param settings the settings
+   * @param journal the journal
+   * @param listener the listener that gets the result of every setting
+   */
+  public void run(List<Setting> settings, ExperimentJournal<R> journal,
+      ResultListener<R> listener) {
+    final List<Setting> remainingSettings = new ArrayList<>();
+    for (Setting setting : settings) {
+      final Optional<R> result = journal.getResult(setting);
+      if (result.isPresent()) {
+        listener.resultReady(setting, result.get());
+      } else {
+        remainingSettings.add(setting);
+      }
+    }
+    run(remainingSettings, journaling(journal, listener), null);
+  }
+
+  /**
+   * Creates a listener that appends every result to the journal before it
+   * reports it to the listener.
+   *
+   * @param journal the journal
+   * @param listener the listener
+   * @return the journaling listener
+   */
+  private ResultListener<R> journaling(final ExperimentJournal<R> journal,
+      final ResultListener<R> listener) {
+    return new ResultListener<R>() {
+      @Override
+      public void resultReady(Setting setting, R result) {
+        try {
+          journal.append(setting, result);
+        } catch (IOException e) {
+          throw Throwables.propagate(e);
+        }
+        listener.resultReady(setting, result);
+      }
+    };
+  }
+
+  /**
+   * Runs the AGV system for all settings and reports every result to the
+   * listener. A future only completes with null, so a result is not kept
+   * after the listener got it, unless it is stored in the list of results.
+   *
+   * @param settings the settings
+   * @param listener the listener that gets the result of every run
+   * @param results the list in which the result of the i-th setting is set
+   *          at index i, or null if the results are not kept
+   */
+  private void run(List<Setting> settings, final ResultListener<R> listener,
+      @Nullable final List<R> results) {
+    final ListeningExecutorService executor = MoreExecutors
+        .listeningDecorator(new ForkJoinPool(parallelism));
+    final Object listenerLock = new Object();
+    try {
+      final List<ListenableFuture<Void>> futures = new ArrayList<>(
+          settings.size());
+      for (final int index : getStartOrder(settings)) {
+        final ExperimentRunner<R> runner = new ExperimentRunner<>(
+            settings.get(index), system);
+        // the listener is called by the task, so that its failure is the
+        // failure of the run
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            final R result = runner.call();
+            synchronized (listenerLock) {
+              listener.resultReady(runner.getSetting(), result);
+              if (results != null) {
+                results.set(index, result);
+              }
+            }
+            return null;
+          }
+        }));
+      }
+      Futures.allAsList(futures).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("The experiment was interrupted", e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets the order in which the runs are started: the settings with the most
+   * AGVs first, the others in their order.
+   *
+   * @param settings the settings
+   * @return the indexes of the settings
+   */
+  private static List<Integer> getStartOrder(final List<Setting> settings) {
+    final List<Integer> indexes = new ArrayList<>(settings.size());
+    for (int index = 0; index < settings.size(); index++) {
+      indexes.add(index);
+    }
+    Collections.sort(indexes, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer index1, Integer index2) {
+        return Integer.compare(settings.get(index2).getNumOfAGVs(),
+            settings.get(index1).getNumOfAGVs());
+      }
+    });
+    return indexes;
+  }
+
+  /**
+   * Creates the settings of a grid of numbers of AGVs and samples. The seeds
+   * are taken in order, the samples of the first number of AGVs first.
+   *
+   * @param seeds the seeds
+   * @param numsOfAGVs the numbers of AGVs
+   * @param numOfSamples the number of samples of each number of AGVs
+   * @return the settings, grouped by number of AGVs
+   */
+  public static List<Setting> createSettings(List<Long> seeds,
+      List<Integer> numsOfAGVs, int numOfSamples) {
+    Preconditions.checkArgument(
+        seeds.size() >= numsOfAGVs.size() * numOfSamples,
+        "Not enough seeds: %s", seeds.size());
+    final List<Setting> settings = new ArrayList<>();
+    int seed = 0;
+    for (int numOfAGVs : numsOfAGVs) {
+      for (int i = 0; i < numOfSamples; i++) {
+        settings.add(new Setting.SettingBuilder().setNumOfAGVs(numOfAGVs)
+            .setSeed(seeds.get(seed++)).build());
+      }
+    }
+    return settings;
+  }
+
+  /**
+   * Reads the seeds, one on each line.
+   *
+   * @param file the file
+   * @return the seeds
+   * @throws FileNotFoundException if the file is not found
+   */
+  public static List<Long> readSeeds(File file) throws FileNotFoundException {
+    final List<Long> seeds = new ArrayList<>();
+    final Scanner fileScanner = new Scanner(file);
+    while (fileScanner.hasNextLong()) {
+      seeds.add(fileScanner.nextLong());
+    }
+    fileScanner.close();
+    return seeds;
+  }
+}
@@ -0,0 +1,167 @@
+package experiment;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Optional;
+
+import setting.Setting;
+
+/**
+ * The Class ExperimentJournal.
+ * It is a file to which the result of every finished run of an experiment is
+ * appended, one line per run: the name of the AGV system, the number of AGVs,
+ * the seed, the fingerprint of the setting (see
+ * {@link Setting#getFingerprint()}) and the encoded result, separated by
+ * tabs. A run is only taken from the journal if all values of its setting are
+ * the same, so changing the setting does not reuse stale results. Every line
+ * is written to the disk before the next run is journaled, so when an
+ * experiment is interrupted, only the unfinished runs are lost. When the
+ * experiment is started again with the same journal, the runs in it are not
+ * run again (see
+ * {@link ExperimentEngine#run(java.util.List, ExperimentJournal)}). Several
+ * AGV systems can share a journal.
+ *
+ * @param <R> the type of the results
+ * @author Tung
+ */
+public class ExperimentJournal<R> implements Closeable {
+
+  /** The name of the AGV system. */
+  private final String system;
+
+  /** The codec of the results. */
+  private final ResultCodec<R> codec;
+
+  /** The encoded results of the runs in the journal, by run. */
+  private final Map<String, String> journaledResults;
+
+  /** The output stream of the journal. */
+  private final FileOutputStream outputStream;
+
+  /**
+   * Opens a journal and reads the runs in it. A line that was cut off when
+   * the previous experiment was interrupted is removed.
+   *
+   * @param file the file, which is created if it does not exist
+   * @param system the name of the AGV system
+   * @param codec the codec of the results
+   * @throws IOException if the file cannot be read or written
+   */
+  public ExperimentJournal(File file, String system, ResultCodec<R> codec)
+      throws IOException {
+    this.system = system;
+    this.codec = codec;
+    journaledResults = new HashMap<>();
+
+    if (file.exists()) {
+      removeIncompleteLine(file);
+      final BufferedReader reader = new BufferedReader(new InputStreamReader(
+          new FileInputStream(file), StandardCharsets.UTF_8));
+      try {
+        String line = reader.readLine();
+        while (line != null) {
+          final String[] values = line.split("\t", 5);
+          if (values.length == 5 && values[0].equals(system)) {
+            journaledResults.put(
+                values[1] + "\t" + values[2] + "\t" + values[3], values[4]);
+          }
+          line = reader.readLine();
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    outputStream = new FileOutputStream(file, true);
+  }
+
+  /**
+   * Removes the last line of the file if it does not end with a line break.
+   *
+   * @param file the file
+   * @throws IOException if the file cannot be read or written
+   */
+  private static void removeIncompleteLine(File file) throws IOException {
+    final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      long length = randomAccessFile.length();
+      while (length > 0) {
+        randomAccessFile.seek(length - 1);
+        if (randomAccessFile.read() == '\n') {
+          break;
+        }
+        length--;
+      }
+      randomAccessFile.setLength(length);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  private static String getKey(Setting setting) {
+    return setting.getNumOfAGVs() + "\t" + setting.getSeed() + "\t"
+        + setting.getFingerprint();
+  }
+
+  /**
+   * Gets the result of a run in the journal.
+   *
+   * @param setting the setting of the run
+   * @return the result, absent if the run is not in the journal
+   */
+  public synchronized Optional<R> getResult(Setting setting) {
+    final String text = journaledResults.get(getKey(setting));
+    if (text == null) {
+      return Optional.absent();
+    }
+    return Optional.of(codec.decode(setting, text));
+  }
+
+  /**
+   * Gets the number of settings whose runs are in the journal.
+   *
+   * @param settings the settings
+   * @return the number of runs in the journal
+   */
+  public synchronized int getNumOfRuns(List<Setting> settings) {
+    int numOfRuns = 0;
+    for (Setting setting : settings) {
+      if (journaledResults.containsKey(getKey(setting))) {
+        numOfRuns++;
+      }
+    }
+    return numOfRuns;
+  }
+
+  /**
+   * Appends the result of a finished run and writes it to the disk.
+   *
+   * @param setting the setting of the run
+   * @param result the result
+   * @throws IOException if the journal cannot be written
+   */
+  public synchronized void append(Setting setting, R result)
+      throws IOException {
+    final String key = getKey(setting);
+    final String text = codec.encode(result);
+    outputStream.write((system + "\t" + key + "\t" + text + "\n")
+        .getBytes(StandardCharsets.UTF_8));
+    outputStream.getFD().sync();
+    journaledResults.put(key, text);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    outputStream.close();
+  }
+}
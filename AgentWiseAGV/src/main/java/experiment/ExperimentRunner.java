@@ -2,25 +2,30 @@ package experiment;
 
 import java.util.concurrent.Callable;
 
-import multistage.garagemodel.delegatemas.AGVSystem;
-import multistage.result.Result;
+import com.google.common.base.Function;
+
 import setting.Setting;
 
-public class ExperimentRunner implements Callable<Result> {
+public class ExperimentRunner<R> implements Callable<R> {
   
   private final Setting setting;
   
-  public ExperimentRunner(Setting setting) {
+  private final Function<Setting, R> system;
+  
+  public ExperimentRunner(Setting setting, Function<Setting, R> system) {
     this.setting = setting;
+    this.system = system;
+  }
+
+  public Setting getSetting() {
+    return setting;
   }
 
   @Override
-  public Result call() throws Exception {
+  public R call() throws Exception {
     System.out.println("num of AGVs: " + (setting.getNumOfAGVs()) + "\tSeed: "
         + setting.getSeed());
-    final multistage.garagemodel.delegatemas.AGVSystem agvSystem = new AGVSystem(setting,
-        false);
-    final Result result = agvSystem.run();
+    final R result = system.apply(setting);
     System.out.println("num of AGVs: " + (setting.getNumOfAGVs()) + "\tSeed: "
         + setting.getSeed() + "\tDONE");
     return result;
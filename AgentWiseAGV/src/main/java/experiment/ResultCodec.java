@@ -0,0 +1,37 @@
+package experiment;
+
+import setting.Setting;
+
+/**
+ * The interface ResultCodec. It converts the results of an AGV system to a
+ * line of text for an {@link ExperimentJournal} and back.
+ *
+ * @param <R> the type of the results
+ * @author Tung
+ */
+public interface ResultCodec<R> {
+
+  /**
+   * Gets the names of the values of the encoded results, separated by tabs.
+   *
+   * @return the names
+   */
+  String getHeader();
+
+  /**
+   * Encodes the result. The text must not contain line breaks.
+   *
+   * @param result the result
+   * @return the text
+   */
+  String encode(R result);
+
+  /**
+   * Decodes the result.
+   *
+   * @param setting the setting of the run
+   * @param text the text made by {@link #encode(Object)}
+   * @return the result
+   */
+  R decode(Setting setting, String text);
+}
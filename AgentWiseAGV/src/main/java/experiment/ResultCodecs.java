@@ -0,0 +1,56 @@
+package experiment;
+
+import setting.Setting;
+
+/**
+ * The Class ResultCodecs.
+ * It contains the codecs of the results of the single stage and the multi
+ * stage AGV systems. The values are separated by tabs.
+ *
+ * @author Tung
+ */
+public final class ResultCodecs {
+
+  /** The codec of the single stage results: joint plan cost and make span. */
+  public static final ResultCodec<singlestage.result.Result> SINGLE_STAGE =
+      new ResultCodec<singlestage.result.Result>() {
+        @Override
+        public String getHeader() {
+          return "PlanCost\tmakespan";
+        }
+
+        @Override
+        public String encode(singlestage.result.Result result) {
+          return result.getJointPlanCost() + "\t" + result.getMakeSpan();
+        }
+
+        @Override
+        public singlestage.result.Result decode(Setting setting, String text) {
+          final String[] values = text.split("\t");
+          return new singlestage.result.Result(setting,
+              Long.parseLong(values[0]), Long.parseLong(values[1]));
+        }
+      };
+
+  /** The codec of the multi stage results: number of reached destinations. */
+  public static final ResultCodec<multistage.result.Result> MULTI_STAGE =
+      new ResultCodec<multistage.result.Result>() {
+        @Override
+        public String getHeader() {
+          return "FinishedTask";
+        }
+
+        @Override
+        public String encode(multistage.result.Result result) {
+          return Long.toString(result.getNumOfReachedDestinations());
+        }
+
+        @Override
+        public multistage.result.Result decode(Setting setting, String text) {
+          return new multistage.result.Result(setting,
+              Integer.parseInt(text));
+        }
+      };
+
+  private ResultCodecs() {}
+}
@@ -0,0 +1,22 @@
+package experiment;
+
+import setting.Setting;
+
+/**
+ * The listener interface for receiving the results of an experiment as the
+ * runs finish. The results are reported one at a time, but not in the order
+ * of the settings.
+ *
+ * @param <R> the type of the results
+ * @author Tung
+ */
+public interface ResultListener<R> {
+
+  /**
+   * Called when a run has finished.
+   *
+   * @param setting the setting of the run
+   * @param result the result of the run
+   */
+  void resultReady(Setting setting, R result);
+}
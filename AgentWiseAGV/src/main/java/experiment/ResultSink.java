@@ -0,0 +1,69 @@
+package experiment;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.base.Throwables;
+
+import setting.Setting;
+
+/**
+ * The Class ResultSink.
+ * It writes the results of an experiment to a table with a column for the
+ * number of AGVs, a column for the seed and a column for every value of the
+ * results, separated by tabs, as the runs finish. Every row is flushed, so
+ * the file can be read while the experiment is running. The sink keeps no
+ * result, and neither does the engine when it reports the results to a
+ * listener (see {@link ExperimentEngine#run(java.util.List, ResultListener)}),
+ * so the memory of an experiment does not grow with its number of runs. The
+ * rows are in the order in which the runs finish, so the runs
+ * of different AGV systems are matched by the number of AGVs and the seed.
+ *
+ * @param <R> the type of the results
+ * @author Tung
+ */
+public class ResultSink<R> implements ResultListener<R>, Closeable {
+
+  /** The codec of the results. */
+  private final ResultCodec<R> codec;
+
+  /** The writer of the file. */
+  private final Writer writer;
+
+  /**
+   * Creates the file and writes the header.
+   *
+   * @param file the file, which is replaced if it exists
+   * @param codec the codec of the results
+   * @throws IOException if the file cannot be written
+   */
+  public ResultSink(File file, ResultCodec<R> codec) throws IOException {
+    this.codec = codec;
+    writer = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(file), StandardCharsets.UTF_8));
+    writer.write("numAGVs\tseed\t" + codec.getHeader() + "\n");
+    writer.flush();
+  }
+
+  @Override
+  public synchronized void resultReady(Setting setting, R result) {
+    try {
+      writer.write(setting.getNumOfAGVs() + "\t" + setting.getSeed() + "\t"
+          + codec.encode(result) + "\n");
+      writer.flush();
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    writer.close();
+  }
+}
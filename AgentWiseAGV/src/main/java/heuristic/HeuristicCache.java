@@ -0,0 +1,90 @@
+package heuristic;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+
+import resourceagents.ResourceGraph;
+
+/**
+ * The Class HeuristicCache.
+ * It holds the shortest path lengths to the destinations that have been
+ * planned for, shared by all virtual environments of the JVM. The tables are
+ * keyed by the fingerprint of the resource graph, so simulations on the same
+ * map (for example the seeds of an experiment that run in parallel) compute
+ * every table only once. A table is computed the first time it is asked for;
+ * when several threads ask for the same table at the same time, one of them
+ * computes it and the others wait for it.
+ *
+ * @author Tung
+ */
+public final class HeuristicCache {
+
+  /** The maximum number of tables in the cache. */
+  private static final int MAX_NUM_OF_TABLES = 1024;
+
+  /** The tables. */
+  private static final Cache<Key, ShortestPathLengths> TABLES = CacheBuilder
+      .newBuilder().maximumSize(MAX_NUM_OF_TABLES).build();
+
+  private HeuristicCache() {}
+
+  /**
+   * Gets the shortest path lengths from all nodes to the destination.
+   *
+   * @param resourceGraph the resource graph
+   * @param destination the id of the destination
+   * @return the shortest path lengths
+   */
+  public static ShortestPathLengths getShortestPathLengths(
+      final ResourceGraph resourceGraph, final int destination) {
+    try {
+      return TABLES.get(new Key(resourceGraph.getFingerprint(), destination),
+          new Callable<ShortestPathLengths>() {
+            @Override
+            public ShortestPathLengths call() {
+              return new ShortestPathLengths(resourceGraph, destination);
+            }
+          });
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * The key of a table: the fingerprint of the graph and the destination.
+   */
+  private static final class Key {
+
+    /** The fingerprint of the graph. */
+    private final HashCode fingerprint;
+
+    /** The id of the destination. */
+    private final int destination;
+
+    Key(HashCode fingerprint, int destination) {
+      this.fingerprint = fingerprint;
+      this.destination = destination;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) other;
+      return destination == key.destination
+          && fingerprint.equals(key.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(fingerprint, destination);
+    }
+  }
+}
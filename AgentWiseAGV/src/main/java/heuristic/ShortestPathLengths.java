@@ -1,33 +1,116 @@
 package heuristic;
 
-import java.util.Map;
+import java.util.Arrays;
 
-import com.github.rinde.rinsim.geom.Point;
+import resourceagents.ResourceGraph;
 
 /**
  * The Class ShortestPathLengths.
+ * It contains the lengths of the shortest paths from all nodes to a
+ * destination, indexed by the node ids of the resource graph. The lengths are
+ * computed by a Dijkstra search from the destination over the incoming
+ * connections, with a binary heap as priority queue.
  */
 public class ShortestPathLengths {
 
-  /** The shortest path lengths. */
-  private Map<Point, Double> shortestPathLengths;
-  
+  /** The shortest path lengths, indexed by node id. */
+  private final double[] shortestPathLengths;
+
   /**
    * Instantiates a new shortest path lengths.
    *
-   * @param shortestPathLengths the shortest path lengths
+   * @param resourceGraph the resource graph
+   * @param destination the id of the destination
    */
-  public ShortestPathLengths(Map<Point, Double> shortestPathLengths) {
-    this.shortestPathLengths = shortestPathLengths;
+  public ShortestPathLengths(ResourceGraph resourceGraph, int destination) {
+    final int numOfNodes = resourceGraph.getNumOfNodes();
+    shortestPathLengths = new double[numOfNodes];
+    Arrays.fill(shortestPathLengths, Double.MAX_VALUE);
+    shortestPathLengths[destination] = 0d;
+
+    // binary heap of nodes, a node can be in the heap several times with
+    // different lengths, the outdated entries are skipped
+    double[] heapLengths = new double[numOfNodes];
+    int[] heapNodes = new int[numOfNodes];
+    int heapSize = 0;
+    final boolean[] settled = new boolean[numOfNodes];
+
+    heapLengths[0] = 0d;
+    heapNodes[0] = destination;
+    heapSize++;
+
+    while (heapSize > 0) {
+      final double length = heapLengths[0];
+      final int node = heapNodes[0];
+
+      // move the last entry to the root and sift it down
+      heapSize--;
+      final double lastLength = heapLengths[heapSize];
+      final int lastNode = heapNodes[heapSize];
+      int hole = 0;
+      while (true) {
+        int child = 2 * hole + 1;
+        if (child >= heapSize) {
+          break;
+        }
+        if (child + 1 < heapSize
+            && heapLengths[child + 1] < heapLengths[child]) {
+          child++;
+        }
+        if (heapLengths[child] >= lastLength) {
+          break;
+        }
+        heapLengths[hole] = heapLengths[child];
+        heapNodes[hole] = heapNodes[child];
+        hole = child;
+      }
+      heapLengths[hole] = lastLength;
+      heapNodes[hole] = lastNode;
+
+      if (settled[node]) {
+        continue;
+      }
+      settled[node] = true;
+
+      for (int slot = resourceGraph.getFirstIncomingSlot(node);
+          slot < resourceGraph.getLastIncomingSlot(node); slot++) {
+        final int neighbor = resourceGraph.getIncomingNode(slot);
+        final double alt = length + resourceGraph.getIncomingLength(slot);
+        if (settled[neighbor] || alt >= shortestPathLengths[neighbor]) {
+          continue;
+        }
+        shortestPathLengths[neighbor] = alt;
+
+        if (heapSize == heapNodes.length) {
+          heapLengths = Arrays.copyOf(heapLengths, 2 * heapSize);
+          heapNodes = Arrays.copyOf(heapNodes, 2 * heapSize);
+        }
+        // add the entry at the end and sift it up
+        hole = heapSize;
+        heapSize++;
+        while (hole > 0) {
+          final int parent = (hole - 1) / 2;
+          if (heapLengths[parent] <= alt) {
+            break;
+          }
+          heapLengths[hole] = heapLengths[parent];
+          heapNodes[hole] = heapNodes[parent];
+          hole = parent;
+        }
+        heapLengths[hole] = alt;
+        heapNodes[hole] = neighbor;
+      }
+    }
   }
-  
+
   /**
    * Gets the length.
    *
-   * @param node the node
-   * @return the length
+   * @param node the node id
+   * @return the length, {@link Double#MAX_VALUE} if the destination cannot be
+   *         reached from the node
    */
-  public double getLength(Point node) {
-    return shortestPathLengths.get(node);
+  public double getLength(int node) {
+    return shortestPathLengths[node];
   }
 }
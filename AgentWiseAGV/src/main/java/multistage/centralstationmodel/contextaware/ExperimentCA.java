@@ -1,67 +1,52 @@
 package multistage.centralstationmodel.contextaware;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Scanner;
 
+import experiment.AGVSystems;
+import experiment.ExperimentEngine;
+import experiment.ExperimentJournal;
+import experiment.ResultCodecs;
+import experiment.ResultSink;
 import multistage.result.Result;
-import multistage.result.Sample;
 import setting.Setting;
 
 public class ExperimentCA {
 
   public static void main(String[] args) {
-    LinkedList<Long> seeds = new LinkedList<>();
-    
     try {
-      Scanner fileScanner = new Scanner(new File("src/main/resources/seeds.txt"));
-      while (fileScanner.hasNextLine()) {
-        seeds.add(fileScanner.nextLong());
-      }
-      fileScanner.close();
-      
-      List<Sample> samples = new ArrayList<>();
+      final List<Long> seeds = ExperimentEngine
+          .readSeeds(new File("src/main/resources/seeds.txt"));
       
+      final List<Integer> numsOfAGVs = new ArrayList<>();
       for (int numAGV = 1; numAGV <= 10; numAGV++) {
-        final Sample sample = new Sample(numAGV*10);
-        for (int i = 0; i < 5; i++) {
-          final long seed = seeds.removeFirst();
-          System.out.println("num of AGVs: " + (numAGV*10) + "\tSample: " + i + "\tSeed: " + seed);
-          final Setting setting = new Setting.SettingBuilder()
-              .setNumOfAGVs(numAGV * 10).setSeed(seed).build();
-          final multistage.centralstationmodel.contextaware.AGVSystem agvSystem = new AGVSystem(setting, false);
-          final Result result = agvSystem.run();
-          sample.addResult(result);
-        }
-        samples.add(sample);
+        numsOfAGVs.add(numAGV * 10);
       }
+      final int numOfSamples = 5;
       
-      print(samples);
-    } catch (FileNotFoundException e) {
+      // the runs are independent, so they run in parallel on all cores; the
+      // finished runs are journaled, so an interrupted sweep can be resumed,
+      // and written to the result file right away
+      try (ExperimentJournal<Result> journal = new ExperimentJournal<>(
+          new File("src/main/resources/journal.txt"), "CENTRAL_STATION_CA",
+          ResultCodecs.MULTI_STAGE);
+          ResultSink<Result> sink = new ResultSink<>(
+              new File("src/main/resources/ResultsMultiCA.txt"),
+              ResultCodecs.MULTI_STAGE)) {
+        final List<Setting> settings = ExperimentEngine.createSettings(seeds,
+            numsOfAGVs, numOfSamples);
+        final int numOfJournaledRuns = journal.getNumOfRuns(settings);
+        System.out.println(numOfJournaledRuns + " runs are in the journal, "
+            + (settings.size() - numOfJournaledRuns) + " to go");
+        new ExperimentEngine<>(AGVSystems.CENTRAL_STATION_CA).run(settings,
+            journal, sink);
+      }
+    } catch (IOException e) {
       e.printStackTrace();
     }
     
     System.out.println("DONE!");
   }
-  
-  public static void print(List<Sample> samples) {
-    try {
-      PrintWriter printWriterMS = new PrintWriter(new File("src/main/resources/ResultsMultiCA.txt"));
-      printWriterMS.println("numAGVs\tFinishedTask");
-      for (Sample sample : samples) {
-        List<Result> results = sample.getResults();
-        for (Result result : results) {
-          printWriterMS.println(sample.getNumOfAGVs() + "\t" + result.getNumOfReachedDestinations());
-        }
-      }
-      printWriterMS.close();
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-    }
-  }
-
 }
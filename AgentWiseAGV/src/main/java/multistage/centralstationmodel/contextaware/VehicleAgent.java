@@ -8,7 +8,6 @@ import java.util.Queue;
 import com.github.rinde.rinsim.core.model.road.CollisionGraphRoadModel;
 import com.github.rinde.rinsim.core.model.road.MovingRoadUser;
 import com.github.rinde.rinsim.core.model.road.RoadModel;
-import com.github.rinde.rinsim.core.model.time.TickListener;
 import com.github.rinde.rinsim.core.model.time.TimeLapse;
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.base.Optional;
@@ -19,9 +18,10 @@ import multistage.result.Result;
 import routeplan.CheckPoint;
 import routeplan.ExecutablePlan;
 import routeplan.Plan;
+import scheduler.ScheduledVehicle;
 import setting.Setting;
 
-public class VehicleAgent implements TickListener, MovingRoadUser {
+public class VehicleAgent implements ScheduledVehicle, MovingRoadUser {
   
   /** The road model. */
   private Optional<CollisionGraphRoadModel> roadModel;
@@ -59,6 +59,12 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
   /** The setting. */
   private Setting setting;
   
+  /**
+   * The start time of the first tick in which the state of this AGV can
+   * change. The ticks before it are skipped.
+   */
+  private long wakeUpTime;
+  
   private LinkedList<Point> destinations;
   
   private Result result;
@@ -117,6 +123,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
   @Override
   public void tick(TimeLapse timeLapse) {
     
+    if (timeLapse.getStartTime() < wakeUpTime) {
+      // the AGV is waiting and nothing happens to it in this tick
+      return;
+    }
+    
     if (state == State.ACTIVE
         && roadModel.get().getPosition(this).equals(stationEntrance)
         && path.size() == 1) {
@@ -150,6 +161,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
           } else {
             // time difference is larger than time left
             timeLapse.consumeAll();
+            // the AGV waits at the check point until the tick in which the
+            // time difference is not larger than the tick length, or the
+            // last tick
+            wakeUpTime = Math.min(checkPoints.getFirst().getExpectedTime(),
+                setting.getEndTime()) - timeLapse.getTickLength();
           }
         } else {
           checkPoints.removeFirst();
@@ -167,6 +183,8 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     if (destinations.size() > 1 && roadModel.get().getPosition(this).equals(destinations.getFirst())) {
       reachedDestinations++;
       destinations.removeFirst();
+      // the next destination can be at the same position
+      wakeUpTime = timeLapse.getEndTime();
     }
     
     if (timeLapse.getEndTime() == setting.getEndTime()) {
@@ -178,6 +196,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     return (Math.round(input * 10) / 10d);
   }
   
+  @Override
+  public long getWakeUpTime() {
+    return wakeUpTime;
+  }
+  
   @Override
   public void afterTick(TimeLapse timeLapse) {}
 
@@ -17,6 +17,8 @@ import multistage.Destinations;
 import multistage.centralstationmodel.GraphCreator;
 import multistage.centralstationmodel.destinationgenerator.DestinationGenerator;
 import multistage.result.Result;
+import resourceagents.OccupancyMonitor;
+import scheduler.VehicleScheduler;
 import setting.Setting;
 
 public final class AGVSystem {
@@ -97,6 +99,14 @@ public final class AGVSystem {
         sim.getRandomGenerator(), setting);
     sim.addTickListener(virtualEnvironment);
     
+    // the occupancy of the resources is only sampled if the setting asks
+    OccupancyMonitor occupancyMonitor = null;
+    if (setting.getOccupancySamplingPeriod() > 0) {
+      occupancyMonitor = virtualEnvironment
+          .createOccupancyMonitor(setting.getOccupancySamplingPeriod());
+      sim.addTickListener(occupancyMonitor);
+    }
+    
     List<Point> centralStation = graph.getCentralStation();
     
     // generate destinations for all AGVs
@@ -108,14 +118,24 @@ public final class AGVSystem {
     
     Result result = new Result(setting, sim);
 
+    // the AGVs are only ticked when their state can change
+    final VehicleScheduler scheduler = new VehicleScheduler(sim);
+    sim.addTickListener(scheduler);
+
     for (int i = 0; i < setting.getNumOfAGVs(); i++) {
       final VehicleAgent vehicleAgent = new VehicleAgent(destinations, virtualEnvironment, i,
           centralStation, setting, result);
-      sim.register(vehicleAgent);
+      scheduler.register(vehicleAgent);
     }
 
     sim.start();
     
+    result.setPlannerStatistics(
+        virtualEnvironment.getPlannerStatistics());
+    result.setOccupancyMonitor(occupancyMonitor);
+    // the result does not keep the simulator alive after the run
+    result.releaseSimulator();
+    
     return result;
   }
 }
\ No newline at end of file
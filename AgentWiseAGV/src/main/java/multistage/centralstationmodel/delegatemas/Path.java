@@ -15,13 +15,26 @@ public class Path {
   /** The path. */
   private List<Point> path;
   
+  /** The ids of the nodes of the path in the resource graph. */
+  private int[] nodeIDs;
+  
+  /** The length of the path from each of its nodes to its end. */
+  private double[] remainingLengths;
+  
   /**
    * Instantiates a new path.
    *
    * @param path the path
+   * @param nodeIDs the ids of the nodes of the path
    */
-  public Path(List<Point> path) {
+  public Path(List<Point> path, int[] nodeIDs) {
     this.path = path;
+    this.nodeIDs = nodeIDs;
+    remainingLengths = new double[path.size()];
+    for (int i = path.size() - 2; i >= 0; i--) {
+      remainingLengths[i] = remainingLengths[i + 1]
+          + Point.distance(path.get(i), path.get(i + 1));
+    }
   }
   
   /**
@@ -29,6 +42,8 @@ public class Path {
    */
   public Path() {
     path = new ArrayList<>();
+    nodeIDs = new int[0];
+    remainingLengths = new double[0];
   }
   
   /**
@@ -39,4 +54,23 @@ public class Path {
   public List<Point> getPath() {
     return path;
   }
+  
+  /**
+   * Gets the ids of the nodes of the path.
+   *
+   * @return the node ids
+   */
+  public int[] getNodeIDs() {
+    return nodeIDs;
+  }
+  
+  /**
+   * Gets the length of the path from the node at the index to its end.
+   *
+   * @param index the index of the node
+   * @return the remaining length
+   */
+  public double getRemainingLength(int index) {
+    return remainingLengths[index];
+  }
 }
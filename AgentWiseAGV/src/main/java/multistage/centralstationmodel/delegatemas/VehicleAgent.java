@@ -8,7 +8,6 @@ import java.util.Queue;
 import com.github.rinde.rinsim.core.model.road.CollisionGraphRoadModel;
 import com.github.rinde.rinsim.core.model.road.MovingRoadUser;
 import com.github.rinde.rinsim.core.model.road.RoadModel;
-import com.github.rinde.rinsim.core.model.time.TickListener;
 import com.github.rinde.rinsim.core.model.time.TimeLapse;
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.base.Optional;
@@ -17,13 +16,15 @@ import com.google.common.collect.Range;
 import multistage.Destinations;
 import multistage.State;
 import multistage.result.Result;
+import resourceagents.FreeTimeWindow;
 import routeplan.CheckPoint;
 import routeplan.ExecutablePlan;
 import routeplan.Plan;
+import scheduler.ScheduledVehicle;
 import setting.Setting;
 
 
-public class VehicleAgent implements TickListener, MovingRoadUser {
+public class VehicleAgent implements ScheduledVehicle, MovingRoadUser {
   
   /** The road model. */
   private Optional<CollisionGraphRoadModel> roadModel;
@@ -61,6 +62,12 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
   /** The next exploration time. */
   private long nextExplorationTime;
   
+  /**
+   * The start time of the first tick in which the state of this AGV can
+   * change. The ticks before it are skipped.
+   */
+  private long wakeUpTime;
+  
   /** The initial pos. */
   private Point initialPos;
   
@@ -124,7 +131,8 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     
     Plan plan = virtualEnvironment.exploreRoute(agvID, startTime,
         roadModel.get().getPosition(this), destinations,
-        setting.getNumOfAlterRoutes(), centralStation);
+        setting.getNumOfAlterRoutes(), centralStation,
+        FreeTimeWindow.UNBOUNDED);
     
     executablePlan = new ExecutablePlan(plan, setting);
     currentPlan = plan;
@@ -141,6 +149,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     
     final long currentTime = timeLapse.getStartTime();
     
+    if (currentTime < wakeUpTime) {
+      // the AGV is waiting and nothing happens to it in this tick
+      return;
+    }
+    
     if (state == State.ACTIVE
         && roadModel.get().getPosition(this).equals(stationEntrance)
         && path.size() == 1) {
@@ -224,6 +237,13 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
           } else {
             // time difference is larger than time left
             timeLapse.consumeAll();
+            // the AGV waits at the check point until the tick in which the
+            // time difference is not larger than the tick length, or the
+            // last tick
+            wakeUpTime = getNextEventTime(
+                Math.min(checkPoints.getFirst().getExpectedTime(),
+                    setting.getEndTime()) - timeLapse.getTickLength(),
+                currentTime, timeLapse.getTickLength());
           }
         } else {
           checkPoints.removeFirst();
@@ -240,6 +260,8 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     if (destinations.size() > 1 && roadModel.get().getPosition(this).equals(destinations.getFirst())) {
       reachedDestinations++;
       destinations.removeFirst();
+      // the next destination can be at the same position
+      wakeUpTime = timeLapse.getEndTime();
     }
     
     if (timeLapse.getEndTime() == setting.getEndTime()) {
@@ -247,6 +269,37 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     }
   }
   
+  /**
+   * Gets the start time of the first tick in which the AGV explores, refreshes
+   * its reservations or removes the first step of its plan, if it is earlier
+   * than the given time.
+   *
+   * @param time the given time
+   * @param currentTime the start time of the current tick
+   * @param tickLength the tick length
+   * @return the wake up time
+   */
+  private long getNextEventTime(long time, long currentTime, long tickLength) {
+    long nextEventTime = time;
+    if (nextExplorationTime > currentTime) {
+      nextEventTime = Math.min(nextEventTime, nextExplorationTime);
+    }
+    if (nextRefreshTime > currentTime) {
+      nextEventTime = Math.min(nextEventTime, nextRefreshTime);
+    }
+    if (currentPlan != null && currentPlan.getIntervals().size() > 1) {
+      // the first step is removed in the first tick that starts after the
+      // end of the second interval
+      final long endOfStep = currentPlan.getIntervals().get(1)
+          .upperEndpoint();
+      if (endOfStep < time) {
+        nextEventTime = Math.min(nextEventTime, currentTime
+            + ((endOfStep - currentTime) / tickLength + 1) * tickLength);
+      }
+    }
+    return nextEventTime;
+  }
+  
   public double round(double input) {
     return (Math.round(input * 10) / 10d);
   }
@@ -261,7 +314,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
    */
   public boolean explore(long startTime, Point startNode, int numberOfRoutes) {
     nextExplorationTime = startTime + setting.getExplorationDuration();
-    Plan plan = virtualEnvironment.exploreRoute(agvID, startTime, startNode, destinations, numberOfRoutes, centralStation);
+    // only the plans that beat the current plan by the switching threshold
+    // are of interest
+    Plan plan = virtualEnvironment.exploreRoute(agvID, startTime, startNode,
+        destinations, numberOfRoutes, centralStation,
+        expectedArrivalTime - setting.getSwitchingThreshold());
     
     if (plan == null) {
       return false;
@@ -292,6 +349,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     nextRefreshTime = currentTime + setting.getRefreshDuration();
   }
 
+  @Override
+  public long getWakeUpTime() {
+    return wakeUpTime;
+  }
+  
   @Override
   public void afterTick(TimeLapse timeLapse) {}
 
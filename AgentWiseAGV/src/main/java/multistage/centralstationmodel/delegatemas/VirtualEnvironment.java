@@ -1,6 +1,6 @@
 package multistage.centralstationmodel.delegatemas;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
@@ -18,9 +18,13 @@ import resourceagents.EdgeAgentList;
 import resourceagents.FreeTimeWindow;
 import resourceagents.NodeAgent;
 import resourceagents.NodeAgentList;
+import resourceagents.OccupancyMonitor;
+import resourceagents.ResourceGraph;
 import routeplan.Plan;
+import routeplan.delegatemas.PathTrie;
 import routeplan.delegatemas.PlanFTW;
 import setting.Setting;
+import statistics.PlannerStatistics;
 
 /**
  * The Class VirtualEnvironment.
@@ -29,12 +33,18 @@ import setting.Setting;
  */
 public class VirtualEnvironment implements TickListener {
   
+  /** The resource graph. */
+  private ResourceGraph resourceGraph;
+  
   /** The node agent list. */
   private NodeAgentList nodeAgentList;
   
   /** The edge agent list. */
   private EdgeAgentList edgeAgentList;
   
+  /** The statistics of the explorations. */
+  private final PlannerStatistics plannerStatistics;
+  
   /** The setting. */
   private Setting setting;
   
@@ -51,13 +61,17 @@ public class VirtualEnvironment implements TickListener {
   public VirtualEnvironment(CollisionGraphRoadModel roadModel,
       RandomGenerator randomGenerator, Setting setting) {
     this.setting = setting;
-    nodeAgentList = new NodeAgentList(roadModel, setting);
-    edgeAgentList = new EdgeAgentList(roadModel, setting);
-    this.pathSampling = new PathSampling(setting);
+    resourceGraph = new ResourceGraph(roadModel.getGraph());
+    nodeAgentList = new NodeAgentList(resourceGraph, setting);
+    edgeAgentList = new EdgeAgentList(resourceGraph, setting);
+    plannerStatistics = new PlannerStatistics(setting.isAGVStatistics());
+    this.pathSampling = new PathSampling(resourceGraph);
   }
   
   /**
-   * Explore route.
+   * Explore route. The work of the exploration is added to the
+   * planner statistics. The plans that cannot arrive before the arrival time
+   * bound or the best plan found so far are pruned.
    *
    * @param agvID the agv id
    * @param startTime the start time
@@ -65,100 +79,142 @@ public class VirtualEnvironment implements TickListener {
    * @param destinations the destinations
    * @param numOfPaths the num of paths
    * @param centralStation the central station
-   * @return the plan
+   * @param arrivalTimeBound the arrival time that the plan must beat, or
+   *          {@link FreeTimeWindow#UNBOUNDED}
+   * @return the plan that arrives the earliest, or null if no plan arrives
+   *         before the arrival time bound
    */
   public Plan exploreRoute(int agvID, long startTime, Point origin,
-      List<Point> destinations, int numOfPaths, List<Point> centralStation) {
+      List<Point> destinations, int numOfPaths, List<Point> centralStation,
+      long arrivalTimeBound) {
+    plannerStatistics.startExploration();
+    final Plan plan = searchRoute(agvID, startTime, origin, destinations,
+        numOfPaths, centralStation, arrivalTimeBound);
+    plannerStatistics.finishExploration(agvID);
+    return plan;
+  }
+  
+  /**
+   * Searches the route.
+   *
+   * @param agvID the agv id
+   * @param startTime the start time
+   * @param origin the origin
+   * @param destinations the destinations
+   * @param numOfPaths the num of paths
+   * @param centralStation the central station
+   * @param arrivalTimeBound the arrival time that the plan must beat, or
+   *          {@link FreeTimeWindow#UNBOUNDED}
+   * @return the plan that arrives the earliest, or null if no plan arrives
+   *         before the arrival time bound
+   */
+  private Plan searchRoute(int agvID, long startTime, Point origin,
+      List<Point> destinations, int numOfPaths, List<Point> centralStation,
+      long arrivalTimeBound) {
     
     // sampling the environment to get several feasible paths
     final List<Path> feasiblePaths = pathSampling.getFeasiblePaths(origin,
         destinations, numOfPaths, centralStation);
     
-    final List<PlanFTW> feasiblePlans = new ArrayList<>();
-    
+    // the candidate paths usually share their first hops, so they are merged
+    // into a trie and every shared prefix is searched once
+    final PathTrie pathTrie = new PathTrie();
     for (Path path : feasiblePaths) {
-      final List<Point> candPath = path.getPath();
-
-      // free time window of the start node
-      final List<FreeTimeWindow> firstFreeTimeWindows = nodeAgentList
-          .getNodeAgent(candPath.get(0))
-          .getFreeTimeWindows(Range.atLeast(startTime), agvID);
-      
-      FreeTimeWindow startFTW = null;
+      pathTrie.add(path.getNodeIDs(), path.getRemainingLength(0));
+    }
+    
+    if (pathTrie.isEmpty()) {
+      return null;
+    }
+    
+    // the plan that arrives the earliest so far
+    PlanFTW bestPlan = null;
+    // the arrival time that a plan must beat to be kept
+    long bound = arrivalTimeBound;
+    
+    // free time window of the start node
+    plannerStatistics.countNodeQuery();
+    final List<FreeTimeWindow> firstFreeTimeWindows = nodeAgentList
+        .getNodeAgent(pathTrie.getNodeID(PathTrie.ROOT))
+        .getFreeTimeWindows(startTime, FreeTimeWindow.UNBOUNDED, agvID);
+    
+    Stack<PlanFTW> planStack = new Stack<>();
 
-      // there should be only one free time window that contains the startTime
-      final long realStartTime = startTime - ((long) (setting.getVehicleLength()
-          * 1000 / setting.getVehicleSpeed()));
-      for (FreeTimeWindow ftw : firstFreeTimeWindows) {
-        if (ftw.getEntryWindow().contains(realStartTime)
-            || ftw.getEntryWindow().lowerEndpoint() == realStartTime) {
-          startFTW = ftw;
-          break;
+    // there should be only one free time window that contains the startTime
+    final long realStartTime = startTime - ((long) (setting.getVehicleLength()
+        * 1000 / setting.getVehicleSpeed()));
+    for (FreeTimeWindow startFTW : firstFreeTimeWindows) {
+      if (startFTW.entryWindowContains(realStartTime)) {
+        final PlanFTW startPlanFTW = new PlanFTW(startFTW);
+        if (getEarliestArrivalTime(computeCost(startPlanFTW, feasiblePaths
+            .get(pathTrie.getShortestCandidate(PathTrie.ROOT)))) < bound) {
+          planStack.push(startPlanFTW);
         }
+        break;
       }
-
-      // if no possible free time window then next candidate path
-      if (startFTW == null) {
-        continue;
+    }
+    
+    while (!planStack.isEmpty()) {
+      plannerStatistics.countExpansion(planStack.size());
+      final PlanFTW plan = planStack.pop();
+      final int trieNode = plan.getTrieNode();
+      final FreeTimeWindow lastFTW = plan.getLastFreeTimeWindow();
+      final int planLength = plan.getNumOfFreeTimeWindows();
+      final boolean atNode = planLength % 2 == 1;
+      
+      // if all the resources of a candidate path have been planned
+      if (atNode && pathTrie.getEndingCandidate(trieNode) != PathTrie.NONE
+          && plan.getArrivalTime() < bound) {
+        bestPlan = plan;
+        bound = plan.getArrivalTime();
       }
 
-      LinkedList<FreeTimeWindow> firstFTW = new LinkedList<>();
-      firstFTW.addLast(startFTW);
-
-      Stack<PlanFTW> planStack = new Stack<>();
-      planStack.push(new PlanFTW(firstFTW, candPath));
-      
-      while (!planStack.isEmpty()) {
-        final PlanFTW plan = planStack.pop();
-        final LinkedList<FreeTimeWindow> currentFTWs = plan.getFreeTimeWindows();
-        final int planLength = currentFTWs.size();
+      // the last plan step is for a node: we plan for the edges to the
+      // children of its trie node. The last plan step is for an edge: we plan
+      // for the node that it leads to, which has the same trie node
+      final int numOfPlans = planStack.size();
+      int nextTrieNode = atNode ? pathTrie.getFirstChild(trieNode) : trieNode;
+      while (nextTrieNode != PathTrie.NONE) {
+        final int nextNode = pathTrie.getNodeID(nextTrieNode);
         
-        // if all the resources have been planned
-        if (planLength == (2*candPath.size() - 1)) {
-          feasiblePlans.add(plan);
-          continue;
-        }
-
         // list of next feasible free time windows
-        List<FreeTimeWindow> nextFTWs;
-        // check whether the last plan step is for a node or for an edge
-        if (planLength % 2 == 1) {
-          // the last plan step is for a node. Now we plan for the next edge
-          final int index = planLength / 2;
-          final EdgeAgent edgeAgent = edgeAgentList
-              .getEdgeAgent(candPath.get(index), candPath.get(index + 1));
-          nextFTWs = edgeAgent.getFreeTimeWindows(candPath.get(index),
-              candPath.get(index + 1), currentFTWs.getLast().getExitWindow(),
-              agvID);
+        final List<FreeTimeWindow> nextFTWs;
+        if (atNode) {
+          final int node = pathTrie.getNodeID(trieNode);
+          final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(node,
+              nextNode);
+          plannerStatistics.countEdgeQuery();
+          nextFTWs = edgeAgent.getFreeTimeWindows(node, nextNode,
+              lastFTW.getExitLowerEndpoint(),
+              lastFTW.getExitUpperEndpoint(), agvID);
         } else {
-          // the last plan step is for an edge. Now we plan for the next node
-          final int index = planLength / 2;
-          final NodeAgent nodeAgent = nodeAgentList
-              .getNodeAgent(candPath.get(index));
+          final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(nextNode);
+          plannerStatistics.countNodeQuery();
           nextFTWs = nodeAgent
-              .getFreeTimeWindows(currentFTWs.getLast().getExitWindow(), agvID);
+              .getFreeTimeWindows(lastFTW.getExitLowerEndpoint(),
+                  lastFTW.getExitUpperEndpoint(), agvID);
         }
         
-        if (nextFTWs == null) {
-          continue;
-        }
-
-        for (FreeTimeWindow ftw : nextFTWs) {
-          final LinkedList<FreeTimeWindow> newFtwList = new LinkedList<>(
-              currentFTWs);
-          newFtwList.addLast(ftw);
-          planStack.push(new PlanFTW(newFtwList, candPath));
+        if (nextFTWs != null) {
+          final Path nextShortestPath = feasiblePaths
+              .get(pathTrie.getShortestCandidate(nextTrieNode));
+          for (FreeTimeWindow ftw : nextFTWs) {
+            final PlanFTW newPlanFTW = new PlanFTW(plan, ftw, nextTrieNode);
+            if (getEarliestArrivalTime(
+                computeCost(newPlanFTW, nextShortestPath)) >= bound) {
+              // the plan cannot beat the bound
+              continue;
+            }
+            planStack.push(newPlanFTW);
+          }
         }
+        
+        nextTrieNode = atNode ? pathTrie.getNextSibling(nextTrieNode)
+            : PathTrie.NONE;
       }
-    }
-    
-    // find the best plan (the one that the AGV arrives at destination earliest)
-    PlanFTW bestPlan = null;
-    for (PlanFTW planFTW : feasiblePlans) {
-      if (bestPlan == null
-          || bestPlan.getArrivalTime() > planFTW.getArrivalTime()) {
-        bestPlan = planFTW;
-      }
+      // the earliest window of the first candidate path is searched first, so
+      // that the bound drops early
+      Collections.reverse(planStack.subList(numOfPlans, planStack.size()));
     }
     
     if (bestPlan == null) {
@@ -172,18 +228,20 @@ public class VirtualEnvironment implements TickListener {
         .get(freeTimeWindows.size() - 1);
     
     intervals.addFirst(
-        Range.closed(lastFreeTimeWindow.getEntryWindow().lowerEndpoint(),
-            lastFreeTimeWindow.getExitWindow().lowerEndpoint()));
+        Range.closed(lastFreeTimeWindow.getEntryLowerEndpoint(),
+            lastFreeTimeWindow.getExitLowerEndpoint()));
  
     for (int i = freeTimeWindows.size() - 2; i >= 0; i--) {
       intervals.addFirst(
-          Range.closed(freeTimeWindows.get(i).getEntryWindow().lowerEndpoint(),
+          Range.closed(freeTimeWindows.get(i).getEntryLowerEndpoint(),
               intervals.getFirst().lowerEndpoint()
                   + ((long) (setting.getVehicleLength() * 1000
                       / setting.getVehicleSpeed()))));
     }
     
-    Plan plan = new Plan(bestPlan.getPath(), intervals);
+    Plan plan = new Plan(feasiblePaths
+        .get(pathTrie.getEndingCandidate(bestPlan.getTrieNode())).getPath(),
+        intervals);
     
     return plan;
   }
@@ -196,27 +254,94 @@ public class VirtualEnvironment implements TickListener {
    * @param lifeTime the life time
    */
   public void makeReservation(int agvID, Plan plan, long currentTime, long lifeTime) {
-    List<Point> path = plan.getPath();
+    final int[] path = resourceGraph.getNodeIDs(plan.getPath());
     List<Range<Long>> intervals = plan.getIntervals();
-    for (int i = 0; i < path.size() - 1; i++) {
+    for (int i = 0; i < path.length - 1; i++) {
       if (intervals.get(i * 2 + 1).upperEndpoint() < currentTime) {
         continue;
       }
       
-      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(path.get(i));
+      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(path[i]);
       nodeAgent.addReservation(agvID, lifeTime, intervals.get(i * 2));
-      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(path.get(i),
-          path.get(i + 1));
-      edgeAgent.addReservation(path.get(i), intervals.get(i * 2 + 1), lifeTime,
+      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(path[i],
+          path[i + 1]);
+      edgeAgent.addReservation(path[i], intervals.get(i * 2 + 1), lifeTime,
           agvID);
     }
     
     final NodeAgent lastNodeAgent = nodeAgentList
-        .getNodeAgent(path.get(path.size() - 1));
+        .getNodeAgent(path[path.length - 1]);
     lastNodeAgent.addReservation(agvID, lifeTime,
         intervals.get(intervals.size() - 1));
   }
   
+  /**
+   * Computes the cost of the plan, a lower bound of the costs of the complete
+   * plans that extend it.
+   *
+   * @param plan the plan
+   * @param shortestPath the shortest candidate path through the trie node of
+   *          the plan
+   * @return the cost
+   */
+  public long computeCost(PlanFTW plan, Path shortestPath) {
+    final int planLength = plan.getNumOfFreeTimeWindows();
+    final long earliestExitTime = plan.getEarliestExitTime();
+    final int index = planLength / 2;
+    final double remainingPathLength = shortestPath.getRemainingLength(index);
+    
+    if (planLength % 2 == 1) {
+      // the last plan step is for a node. The exit time is the time when the
+      // vehicle is completely out of the node
+      return earliestExitTime
+          + ((long) (remainingPathLength * 1000 / setting.getVehicleSpeed()))
+          - ((long) (setting.getVehicleLength() * 1000
+              / setting.getVehicleSpeed()));
+    } else {
+      // the last plan step is for an edge. The exit time is the time when the
+      // vehicle is exactly at the central of the next node
+      return earliestExitTime
+          + ((long) (remainingPathLength * 1000 / setting.getVehicleSpeed()));
+    }
+  }
+  
+  /**
+   * Gets the earliest time at which the AGV can arrive at the destination
+   * with a complete plan that extends a plan of the given cost. The cost of a
+   * complete plan is the time at which the AGV is half a node past its
+   * arrival, and the cost of a plan is at most the cost of its extensions.
+   *
+   * @param cost the cost of the plan
+   * @return the earliest arrival time
+   */
+  private long getEarliestArrivalTime(long cost) {
+    return cost + ((long) (setting.getVehicleLength() * 1000
+        / setting.getVehicleSpeed()))
+        - ((long) (setting.getVehicleLength() * 2 * 1000
+            / setting.getVehicleSpeed()));
+  }
+  
+  /**
+   * Creates a monitor of the occupancy of the resources. It samples only
+   * when it is added to the simulator as a tick listener.
+   *
+   * @param samplingPeriod the sampling period, in milliseconds
+   * @return the occupancy monitor
+   */
+  public OccupancyMonitor createOccupancyMonitor(long samplingPeriod) {
+    return new OccupancyMonitor(resourceGraph, nodeAgentList, edgeAgentList,
+        samplingPeriod);
+  }
+  
+  /**
+   * Gets the statistics of the explorations.
+   *
+   * @return the planner statistics
+   */
+  public PlannerStatistics getPlannerStatistics() {
+    return plannerStatistics;
+  }
+  
   @Override
   public void tick(TimeLapse timeLapse) {
     
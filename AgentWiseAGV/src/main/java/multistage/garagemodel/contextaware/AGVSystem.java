@@ -17,6 +17,8 @@ import multistage.Destinations;
 import multistage.garagemodel.GraphCreator;
 import multistage.garagemodel.destinationgenerator.DestinationGenerator;
 import multistage.result.Result;
+import resourceagents.OccupancyMonitor;
+import scheduler.VehicleScheduler;
 import setting.Setting;
 
 public final class AGVSystem {
@@ -100,6 +102,14 @@ public final class AGVSystem {
         sim.getRandomGenerator(), setting);
     sim.addTickListener(virtualEnvironment);
     
+    // the occupancy of the resources is only sampled if the setting asks
+    OccupancyMonitor occupancyMonitor = null;
+    if (setting.getOccupancySamplingPeriod() > 0) {
+      occupancyMonitor = virtualEnvironment
+          .createOccupancyMonitor(setting.getOccupancySamplingPeriod());
+      sim.addTickListener(occupancyMonitor);
+    }
+    
     List<Point> garageList = graph.getGarages();
     
     if (setting.getNumOfAGVs() > garageList.size()) {
@@ -115,13 +125,23 @@ public final class AGVSystem {
     
     Result result = new Result(setting, sim);
 
+    // the AGVs are only ticked when their state can change
+    final VehicleScheduler scheduler = new VehicleScheduler(sim);
+    sim.addTickListener(scheduler);
+
     for (int i = 0; i < setting.getNumOfAGVs(); i++) {
-      sim.register(new VehicleAgent(destinations, virtualEnvironment, i,
+      scheduler.register(new VehicleAgent(destinations, virtualEnvironment, i,
           garageList, setting, result));
     }
 
     sim.start();
     
+    result.setPlannerStatistics(
+        virtualEnvironment.getPlannerStatistics());
+    result.setOccupancyMonitor(occupancyMonitor);
+    // the result does not keep the simulator alive after the run
+    result.releaseSimulator();
+    
     return result;
   }
 }
@@ -1,15 +1,8 @@
 package multistage.garagemodel.contextaware;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import org.apache.commons.math3.random.RandomGenerator;
 
@@ -20,16 +13,21 @@ import com.github.rinde.rinsim.geom.Graphs;
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.collect.Range;
 
+import heuristic.HeuristicCache;
 import heuristic.ShortestPathLengths;
 import resourceagents.EdgeAgent;
 import resourceagents.EdgeAgentList;
 import resourceagents.FreeTimeWindow;
 import resourceagents.NodeAgent;
 import resourceagents.NodeAgentList;
+import resourceagents.OccupancyMonitor;
+import resourceagents.ResourceGraph;
+import routeplan.ClosedTable;
+import routeplan.OpenList;
 import routeplan.Plan;
 import routeplan.contextaware.PlanFTW;
-import routeplan.contextaware.PlanStep;
 import setting.Setting;
+import statistics.PlannerStatistics;
 
 /**
  * The Class VirtualEnvironment.
@@ -38,24 +36,24 @@ import setting.Setting;
  */
 public class VirtualEnvironment implements TickListener {
   
+  /** The resource graph. */
+  private ResourceGraph resourceGraph;
+  
   /** The node agent list. */
   private NodeAgentList nodeAgentList;
   
   /** The edge agent list. */
   private EdgeAgentList edgeAgentList;
   
+  /** The statistics of the explorations. */
+  private final PlannerStatistics plannerStatistics;
+  
   /** The road model. */
   private CollisionGraphRoadModel roadModel;
   
   /** The setting. */
   private Setting setting;
   
-  /**
-   * shortest path lengths from all nodes to a destination the keys are
-   * destinations, the values are the map of points and shortest path lengths
-   */
-  final Map<Point, ShortestPathLengths> shortestLengthToDest;
-  
   /**
    * Instantiates a new virtual environment.
    *
@@ -66,39 +64,63 @@ public class VirtualEnvironment implements TickListener {
   public VirtualEnvironment(CollisionGraphRoadModel roadModel,
       RandomGenerator randomGenerator, Setting setting) {
     this.setting = setting;
-    nodeAgentList = new NodeAgentList(roadModel, setting);
-    edgeAgentList = new EdgeAgentList(roadModel, setting);
+    resourceGraph = new ResourceGraph(roadModel.getGraph());
+    nodeAgentList = new NodeAgentList(resourceGraph, setting);
+    edgeAgentList = new EdgeAgentList(resourceGraph, setting);
+    plannerStatistics = new PlannerStatistics(setting.isAGVStatistics());
     this.roadModel = roadModel;
-    this.shortestLengthToDest = new HashMap<>();
   }
   
   /**
-   * Explore route.
+   * Explore route. The work of the exploration is added to the
+   * planner statistics.
    *
    * @param agvID the agv id
    * @param startTime the start time
    * @param origin the origin
    * @param destinations the destinations
-   * @param stationExits the station exits
+   * @param garageList the garages
    * @return the plan
    */
   public Plan exploreRoute(int agvID, long startTime, Point origin,
       List<Point> destinations, List<Point> garageList) {
+    plannerStatistics.startExploration();
+    final Plan plan = searchRoute(agvID, startTime, origin, destinations,
+        garageList);
+    plannerStatistics.finishExploration(agvID);
+    return plan;
+  }
+  
+  /**
+   * Searches the route.
+   *
+   * @param agvID the agv id
+   * @param startTime the start time
+   * @param origin the origin
+   * @param destinations the destinations
+   * @param garageList the garages
+   * @return the plan
+   */
+  private Plan searchRoute(int agvID, long startTime, Point origin,
+      List<Point> destinations, List<Point> garageList) {
     // TODO remove startTime, all start at 0 
     
-    // shortest path lengths from all nodes to a destination
-    // the keys are destinations, the values are the map of points and shortest path lengths
-    for (Point node : destinations) {
-      if (!shortestLengthToDest.containsKey(node)) {
-        shortestLengthToDest.put(node,
-            new ShortestPathLengths(shortestPathLengthsTo(node)));
-      }
+    // ids of the destinations in the resource graph
+    final int[] destinationIDs = resourceGraph.getNodeIDs(destinations);
+
+    // shortest path lengths from all nodes to each destination
+    final ShortestPathLengths[] shortestLengthToDest =
+        new ShortestPathLengths[destinationIDs.length];
+    for (int i = 0; i < destinationIDs.length; i++) {
+      shortestLengthToDest[i] = HeuristicCache
+          .getShortestPathLengths(resourceGraph, destinationIDs[i]);
     }
 
  // free time window of the start node
+    plannerStatistics.countNodeQuery();
     final List<FreeTimeWindow> firstFreeTimeWindows = nodeAgentList
         .getNodeAgent(origin)
-        .getFreeTimeWindows(Range.atLeast(startTime), agvID);
+        .getFreeTimeWindows(startTime, FreeTimeWindow.UNBOUNDED, agvID);
 
     FreeTimeWindow startFTW = null;
 
@@ -106,8 +128,7 @@ public class VirtualEnvironment implements TickListener {
     final long realStartTime = startTime - ((long) (setting.getVehicleLength()
         * 1000 / setting.getVehicleSpeed()));
     for (FreeTimeWindow ftw : firstFreeTimeWindows) {
-      if (ftw.getEntryWindow().contains(realStartTime)
-          || ftw.getEntryWindow().lowerEndpoint() == realStartTime) {
+      if (ftw.entryWindowContains(realStartTime)) {
         startFTW = ftw;
         break;
       }
@@ -118,37 +139,40 @@ public class VirtualEnvironment implements TickListener {
       throw new Error("No free time window for the first node!");
     }
 
-    List<Point> firstPath = new ArrayList<>();
-    firstPath.add(origin);
-    LinkedList<FreeTimeWindow> firstFTW = new LinkedList<>();
-    firstFTW.addLast(startFTW);
+    final int originID = resourceGraph.getNodeID(origin);
+    final BitSet garageNodes = new BitSet(resourceGraph.getNumOfNodes());
+    for (int garage : resourceGraph.getNodeIDs(garageList)) {
+      garageNodes.set(garage);
+    }
 
-    PlanFTW firstPlanFTW = new PlanFTW(firstFTW, firstPath, 0, destinations);
+    PlanFTW firstPlanFTW = new PlanFTW(startFTW, originID,
+        resourceGraph.getNumOfNodes(), 0, destinationIDs);
 
-    final SortedMap<Long, PlanFTW> planQueue = new TreeMap<>();
-    planQueue.put(computeCost(firstPlanFTW, shortestLengthToDest, destinations),
+    final OpenList<PlanFTW> planQueue = new OpenList<>();
+    planQueue.add(computeCost(firstPlanFTW, shortestLengthToDest, destinationIDs),
         firstPlanFTW);
 
     PlanFTW finalPlan = null;
 
-    final Set<PlanStep> closedSet = new LinkedHashSet<>();
+    final ClosedTable closedTable = new ClosedTable();
 
     while (!planQueue.isEmpty()) {
 //      if (planQueue.size() % 10000 == 0) {
 //        System.out.println(planQueue.size());
 //      }
       // select and remove the first plan in the queue
-      final PlanFTW planFTW = planQueue.remove(planQueue.firstKey());
+      plannerStatistics.countExpansion(planQueue.size());
+      final PlanFTW planFTW = planQueue.poll();
       
-      final List<Point> path = planFTW.getPath();
-      final List<FreeTimeWindow> ftwList = planFTW.getFreeTimeWindows();
+      final int lastNode = planFTW.getLastNode();
+      final FreeTimeWindow lastFTW = planFTW.getLastFreeTimeWindow();
+      final int planLength = planFTW.getNumOfFreeTimeWindows();
       
 //      System.out.println(planQueue.size());
       
       if ((planFTW.getStage() == destinations.size())
-          && path.get(path.size() - 1)
-              .equals(destinations.get(destinations.size() - 1))
-          && ftwList.size() % 2 == 1) {
+          && lastNode == destinationIDs[destinationIDs.length - 1]
+          && planLength % 2 == 1) {
         // if it is a complete plan then break
         // The first condition says that the AGV is at the last stage (only one
         // more destination to reach). The second condition says that the AGV
@@ -158,23 +182,23 @@ public class VirtualEnvironment implements TickListener {
         break;
       }
       
-      if (ftwList.size() % 2 == 1) {
+      if (planLength % 2 == 1) {
         // if the last plan step is for a node
         // get all possible next node
-        final List<Point> nextNodes = new ArrayList<>();
-        nextNodes.addAll(roadModel.getGraph()
-            .getOutgoingConnections(path.get(path.size() - 1)));
-        for (Point nextNode : nextNodes) {
+        for (int slot = resourceGraph.getFirstOutgoingSlot(
+            lastNode); slot < resourceGraph.getLastOutgoingSlot(
+                lastNode); slot++) {
           // for each possible next node
-          if (!planFTW.isValid(nextNode) || (garageList.contains(nextNode)
-              && !nextNode.equals(destinations.get(destinations.size() - 1)))) {
+          final int nextNode = resourceGraph.getOutgoingNode(slot);
+          if (!planFTW.isValid(nextNode) || (garageNodes.get(nextNode)
+              && nextNode != destinationIDs[destinationIDs.length - 1])) {
             // we do not allow cyclic plans and plans contain the garages of other agv
             continue;
           }
           
           // check the new stage
           int newStage = -1;
-          if (nextNode.equals(destinations.get(planFTW.getStage()))) {
+          if (nextNode == destinationIDs[planFTW.getStage()]) {
             newStage = planFTW.getStage() + 1;
           } else {
             newStage = planFTW.getStage();
@@ -183,65 +207,55 @@ public class VirtualEnvironment implements TickListener {
           // now we get the free time window of the edge
           // call the edge agent
           final EdgeAgent edgeAgent = edgeAgentList
-              .getEdgeAgent(path.get(path.size() - 1), nextNode);
+              .getEdgeAgent(resourceGraph.getOutgoingEdge(slot));
+          plannerStatistics.countEdgeQuery();
           List<FreeTimeWindow> nextFTWs = edgeAgent.getFreeTimeWindows(
-              path.get(path.size() - 1), nextNode,
-              ftwList.get(ftwList.size() - 1).getExitWindow(), agvID);
-          final List<Point> newPath = new ArrayList<>(path);
-          newPath.add(nextNode);
+              lastNode, nextNode, lastFTW.getExitLowerEndpoint(),
+              lastFTW.getExitUpperEndpoint(), agvID);
           if (nextFTWs == null) {
             continue;
           }
           for (FreeTimeWindow newFTW : nextFTWs) {
             // add investigated plan step to the closedSet
-            final PlanStep planStep = new PlanStep(newStage, edgeAgent, newFTW);
-            if (closedSet.contains(planStep)) {
+            // the connections are numbered after the nodes, an edge has one
+            // connection in each direction
+            if (!closedTable.add(newStage, resourceGraph.getNumOfNodes() + slot,
+                0, newFTW)) {
+              // the window or a window that dominates it is closed
               continue;
-            } else {
-              closedSet.add(planStep);
             }
             
-            LinkedList<FreeTimeWindow> newListOfFTWs = new LinkedList<>(
-                ftwList);
-            newListOfFTWs.addLast(newFTW);
-            PlanFTW newPlanFTW = new PlanFTW(newListOfFTWs, newPath, newStage, destinations);
+            PlanFTW newPlanFTW = new PlanFTW(planFTW, newFTW, nextNode,
+                newStage);
             // add next plan step to the queue
-            // solve problem when have the same cost
-            long estimatedCost = computeCost(newPlanFTW, shortestLengthToDest, destinations);
-            while (planQueue.containsKey(estimatedCost)) {
-              estimatedCost++;
-            }
-            planQueue.put(estimatedCost, newPlanFTW);
+            final long estimatedCost = computeCost(newPlanFTW, shortestLengthToDest, destinationIDs);
+            planQueue.add(estimatedCost, newPlanFTW);
           }
         }
       } else {
         // if the last plan step is for an edge
         // call the node agent
-        final NodeAgent nodeAgent = nodeAgentList
-            .getNodeAgent(path.get(path.size() - 1));
+        final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(lastNode);
+        plannerStatistics.countNodeQuery();
         List<FreeTimeWindow> nextFTWs = nodeAgent.getFreeTimeWindows(
-            ftwList.get(ftwList.size() - 1).getExitWindow(), agvID);
+            lastFTW.getExitLowerEndpoint(), lastFTW.getExitUpperEndpoint(),
+            agvID);
         for (FreeTimeWindow newFTW : nextFTWs) {
-          final PlanStep planStep = new PlanStep(planFTW.getStage(), nodeAgent, newFTW);
-          if (closedSet.contains(planStep)) {
+          if (!closedTable.add(planFTW.getStage(), nodeAgent.getID(), 0,
+              newFTW)) {
+            // the window or a window that dominates it is closed
             continue;
-          } else {
-            closedSet.add(planStep);
           }
           
-          LinkedList<FreeTimeWindow> newListOfFTWs = new LinkedList<>(ftwList);
-          newListOfFTWs.addLast(newFTW);
-          getClass();
-          PlanFTW newPlanFTW = new PlanFTW(newListOfFTWs, path, planFTW.getStage(), destinations);
-          long estimatedCost = computeCost(newPlanFTW, shortestLengthToDest, destinations);
-          while (planQueue.containsKey(estimatedCost)) {
-            estimatedCost++;
-          }
-          planQueue.put(estimatedCost, newPlanFTW);
+          PlanFTW newPlanFTW = new PlanFTW(planFTW, newFTW);
+          final long estimatedCost = computeCost(newPlanFTW, shortestLengthToDest, destinationIDs);
+          planQueue.add(estimatedCost, newPlanFTW);
         }
       }
     }
 
+    plannerStatistics.setClosedSetSize(closedTable.size());
+    
     // generate actual plan from the time window plan
     final LinkedList<Range<Long>> intervals = new LinkedList<>();
     final List<FreeTimeWindow> freeTimeWindows = finalPlan.getFreeTimeWindows();
@@ -249,18 +263,19 @@ public class VirtualEnvironment implements TickListener {
         .get(freeTimeWindows.size() - 1);
 
     intervals.addFirst(
-        Range.closed(lastFreeTimeWindow.getEntryWindow().lowerEndpoint(),
-            lastFreeTimeWindow.getExitWindow().lowerEndpoint()));
+        Range.closed(lastFreeTimeWindow.getEntryLowerEndpoint(),
+            lastFreeTimeWindow.getExitLowerEndpoint()));
 
     for (int i = freeTimeWindows.size() - 2; i >= 0; i--) {
       intervals.addFirst(
-          Range.closed(freeTimeWindows.get(i).getEntryWindow().lowerEndpoint(),
+          Range.closed(freeTimeWindows.get(i).getEntryLowerEndpoint(),
               intervals.getFirst().lowerEndpoint()
                   + ((long) (setting.getVehicleLength() * 1000
                       / setting.getVehicleSpeed()))));
     }
 
-    Plan plan = new Plan(finalPlan.getPath(), intervals);
+    Plan plan = new Plan(resourceGraph.getNodes(finalPlan.getPath()),
+        intervals);
     
     return plan;
   }
@@ -269,33 +284,31 @@ public class VirtualEnvironment implements TickListener {
    * Compute cost.
    *
    * @param planFTW the plan
-   * @param shortestLengths the shortest lengths
-   * @param destinations the destinations
+   * @param shortestLengths the shortest lengths to each destination
+   * @param destinations the ids of the destinations
    * @return the cost
    */
   public long computeCost(PlanFTW planFTW,
-      Map<Point, ShortestPathLengths> shortestLengths, List<Point> destinations) {
+      ShortestPathLengths[] shortestLengths, int[] destinations) {
     
-    final List<Point> path = planFTW.getPath();
-    final List<FreeTimeWindow> ftwList = planFTW.getFreeTimeWindows();
     
     long estimatedCost = -1;
     
     // calculate the length of the shortest path
     double lengthShortestPath = 0;
-    for (int i = planFTW.getStage(); i < destinations.size(); i++) {
+    for (int i = planFTW.getStage(); i < destinations.length; i++) {
       if (i == planFTW.getStage()) {
-        lengthShortestPath += shortestLengths.get(destinations.get(i))
-            .getLength(path.get(path.size() - 1));
+        lengthShortestPath += shortestLengths[i]
+            .getLength(planFTW.getLastNode());
       } else {
-        lengthShortestPath += shortestLengths.get(destinations.get(i))
-            .getLength(destinations.get(i - 1));
+        lengthShortestPath += shortestLengths[i]
+            .getLength(destinations[i - 1]);
       }
     }
     
     final long earliestExitTime = planFTW.getEarliestExitTime();
     
-    if (ftwList.size() % 2 == 1) {
+    if (planFTW.getNumOfFreeTimeWindows() % 2 == 1) {
       // if the plan stop at a node (note that the exit time is the time when
       // the vehicle is completely out of the node
       estimatedCost = earliestExitTime
@@ -325,87 +338,46 @@ public class VirtualEnvironment implements TickListener {
    * @param lifeTime the life time
    */
   public void makeReservation(int agvID, Plan plan, long currentTime, long lifeTime) {
-    List<Point> path = plan.getPath();
+    final int[] path = resourceGraph.getNodeIDs(plan.getPath());
     List<Range<Long>> intervals = plan.getIntervals();
-    for (int i = 0; i < path.size() - 1; i++) {
+    for (int i = 0; i < path.length - 1; i++) {
       if (intervals.get(i * 2 + 1).upperEndpoint() < currentTime) {
         continue;
       }
       
-      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(path.get(i));
+      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(path[i]);
       nodeAgent.addReservation(agvID, lifeTime, intervals.get(i * 2));
-      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(path.get(i),
-          path.get(i + 1));
-      edgeAgent.addReservation(path.get(i), intervals.get(i * 2 + 1), lifeTime,
+      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(path[i],
+          path[i + 1]);
+      edgeAgent.addReservation(path[i], intervals.get(i * 2 + 1), lifeTime,
           agvID);
     }
     
     final NodeAgent lastNodeAgent = nodeAgentList
-        .getNodeAgent(path.get(path.size() - 1));
+        .getNodeAgent(path[path.length - 1]);
     lastNodeAgent.addReservation(agvID, lifeTime,
         intervals.get(intervals.size() - 1));
   }
   
   /**
-   * Find the lengths of the shortest paths from all nodes to dest
+   * Creates a monitor of the occupancy of the resources. It samples only
+   * when it is added to the simulator as a tick listener.
    *
-   * @param dest the dest
-   * @return the map
+   * @param samplingPeriod the sampling period, in milliseconds
+   * @return the occupancy monitor
    */
-  public Map<Point, Double> shortestPathLengthsTo(Point dest) {
-    final Map<Point, Double> initialDist = new HashMap<>();
-    final Map<Point, Double> resultDist = new HashMap<>();
-
-    // node set
-    final Set<Point> nodeSet = roadModel.getGraph().getNodes();
-    for (Point node : nodeSet) {
-      if (node.equals(dest)) {
-        initialDist.put(node, 0d);
-      } else {
-        initialDist.put(node, Double.MAX_VALUE);
-      }
-    }
-
-    while (!initialDist.isEmpty()) {
-      final Point node = getKeyOfMinValue(initialDist);
-      final double dist = initialDist.remove(node);
-      resultDist.put(node, dist);
-
-      final List<Point> neighboringNodes = new ArrayList<>();
-      neighboringNodes
-          .addAll(roadModel.getGraph().getIncomingConnections(node));
-
-      for (Point neighbor : neighboringNodes) {
-        final double alt = dist
-            + roadModel.getGraph().getConnection(neighbor, node).getLength();
-        if (initialDist.containsKey(neighbor)
-            && alt < initialDist.get(neighbor)) {
-          initialDist.put(neighbor, alt);
-        }
-      }
-    }
-
-    return resultDist;
+  public OccupancyMonitor createOccupancyMonitor(long samplingPeriod) {
+    return new OccupancyMonitor(resourceGraph, nodeAgentList, edgeAgentList,
+        samplingPeriod);
   }
   
   /**
-   * Gets the key with minimum value.
+   * Gets the statistics of the explorations.
    *
-   * @param map the map
-   * @return the key with minimum value
+   * @return the planner statistics
    */
-  public Point getKeyOfMinValue(Map<Point, Double> map) {
-    double minVal = Double.MAX_VALUE;
-    Point key = null;
-    
-    for (Entry<Point, Double> entry : map.entrySet()) {
-      if (minVal > entry.getValue()) {
-        minVal = entry.getValue();
-        key = entry.getKey();
-      }
-    }
-    
-    return key;
+  public PlannerStatistics getPlannerStatistics() {
+    return plannerStatistics;
   }
   
   @Override
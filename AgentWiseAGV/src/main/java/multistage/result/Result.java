@@ -1,8 +1,13 @@
 package multistage.result;
 
+import javax.annotation.Nullable;
+
 import com.github.rinde.rinsim.core.Simulator;
+import com.google.common.base.Optional;
 
+import resourceagents.OccupancyMonitor;
 import setting.Setting;
+import statistics.PlannerStatistics;
 
 public class Result {
   
@@ -14,13 +19,26 @@ public class Result {
   
   private Simulator sim;
   
+  private PlannerStatistics plannerStatistics;
+  
+  @Nullable
+  private OccupancyMonitor occupancyMonitor;
+  
   public Result(Setting setting, Simulator sim) {
     numOfAGVs = 0;
     this.setting = setting;
+    plannerStatistics = new PlannerStatistics(false);
     this.sim = sim;
     this.numOfReachedDestinations = 0;
   }
   
+  public Result(Setting setting, int numOfReachedDestinations) {
+    numOfAGVs = setting.getNumOfAGVs();
+    this.setting = setting;
+    plannerStatistics = new PlannerStatistics(false);
+    this.numOfReachedDestinations = numOfReachedDestinations;
+  }
+  
   public void updateResult(int numOfReachedDestinations) {
     numOfAGVs++;
     
@@ -31,6 +49,18 @@ public class Result {
     }
   }
   
+  public void releaseSimulator() {
+    sim = null;
+  }
+  
+  public void setPlannerStatistics(PlannerStatistics plannerStatistics) {
+    this.plannerStatistics = plannerStatistics;
+  }
+  
+  public void setOccupancyMonitor(@Nullable OccupancyMonitor occupancyMonitor) {
+    this.occupancyMonitor = occupancyMonitor;
+  }
+  
   public Setting getSetting() {
     return setting;
   }
@@ -38,4 +68,26 @@ public class Result {
   public long getNumOfReachedDestinations() {
     return numOfReachedDestinations;
   }
+
+  /**
+   * Gets the statistics of the explorations of the run, for the whole run and,
+   * if the setting asks for it, for every AGV. They are empty for a result
+   * that is restored from a journal.
+   *
+   * @return the planner statistics
+   */
+  public PlannerStatistics getPlannerStatistics() {
+    return plannerStatistics;
+  }
+
+  /**
+   * Gets the monitor of the occupancy of the resources during the run. It is
+   * absent if the setting did not ask for it or the result is restored from a
+   * journal.
+   *
+   * @return the occupancy monitor
+   */
+  public Optional<OccupancyMonitor> getOccupancyMonitor() {
+    return Optional.fromNullable(occupancyMonitor);
+  }
 }
@@ -1,19 +1,12 @@
 package resourceagents;
 
-import static com.google.common.base.Preconditions.checkNotNull;
-
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import javax.annotation.Nullable;
 
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.collect.Range;
-import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
 
 import setting.Setting;
 
@@ -24,15 +17,21 @@ import setting.Setting;
  */
 public class EdgeAgent implements ResourceAgent {
   
-  /**
-   * The reservation map. There are always two reservation lists in the map,
-   * corresponding to two entrances.
-   */
-  private Map<Point, List<Reservation>> reservationMap;
+  /** The reservations of AGVs coming from the first node. */
+  private ReservationIndex reservationsFromNode1;
+  
+  /** The reservations of AGVs coming from the second node. */
+  private ReservationIndex reservationsFromNode2;
   
-  /** Two nodes of the edge that the agent associated. */
-  private Point node1;
-  private Point node2;
+  /** The id of the edge, from 0 to the number of edges - 1. */
+  private int id;
+  
+  /** The ids of two nodes of the edge that the agent associated. */
+  private int node1;
+  private int node2;
+  
+  /** The resource graph. */
+  private ResourceGraph resourceGraph;
   
   /** The length of the associated edge. */
   private double length;
@@ -42,34 +41,47 @@ public class EdgeAgent implements ResourceAgent {
   
   private Setting setting;
   
+  /** The number of free time window queries. */
+  private int numOfQueries;
+  
+  /** The number of free time windows that the queries found. */
+  private int numOfFreeTimeWindows;
+  
   /**
    * Instantiates a new edge agent.
-   * The point p1 and p2 can be at any order
    *
-   * @param p1 the first point of the edge
-   * @param p2 the second point of the edge
-   * @param length the length of the edge
+   * @param id the id of the edge in the resource graph
+   * @param resourceGraph the resource graph
    * @param setting the setting
+   * @param evaporationQueue the evaporation queue of the reservations
    */
-  public EdgeAgent(Point p1, Point p2, double length, Setting setting) {
+  public EdgeAgent(int id, ResourceGraph resourceGraph, Setting setting,
+      EvaporationQueue evaporationQueue) {
     this.setting = setting;
+    this.id = id;
+    this.resourceGraph = resourceGraph;
+    final double length = resourceGraph.getEdgeLength(id);
     this.length = length - setting.getVehicleLength();
-    node1 = p1;
-    node2 = p2;
+    node1 = resourceGraph.getEdgeNode1(id);
+    node2 = resourceGraph.getEdgeNode2(id);
 
-    reservationMap = new HashMap<>();
-
-    // reservation list of AGVs coming from point 1
-    List<Reservation> reservationFromP1 = new ArrayList<>();
-    reservationMap.put(p1, reservationFromP1);
-    // reservation list of AGVs coming from point 2
-    List<Reservation> reservationFromP2 = new ArrayList<>();
-    reservationMap.put(p2, reservationFromP2);
+    reservationsFromNode1 = new ReservationIndex(evaporationQueue);
+    reservationsFromNode2 = new ReservationIndex(evaporationQueue);
 
     capacity = (int) ((length - setting.getVehicleLength() - 0.2)
         / setting.getVehicleLength());
   }
   
+  /**
+   * Gets the reservations of AGVs coming from a node of the edge.
+   *
+   * @param startNode the id of the node
+   * @return the reservations
+   */
+  private ReservationIndex getReservationsFrom(int startNode) {
+    return startNode == node1 ? reservationsFromNode1 : reservationsFromNode2;
+  }
+  
   /**
    * Gets the length.
    *
@@ -80,58 +92,50 @@ public class EdgeAgent implements ResourceAgent {
   }
   
   /**
-   * Gets the free time windows if the AGV wants to move to the endPoint from the startTime.
+   * Gets the free time windows if the AGV wants to move to the end node from the startTime.
    *
-   * @param startPoint the start point
-   * @param endPoint the end point of the edge
-   * @param possibleEntryWindow the possible entry window
+   * @param startNode the id of the start node
+   * @param endNode the id of the end node of the edge
+   * @param entryLowerEndpoint the lower end point of the possible entry window
+   * @param entryUpperEndpoint the upper end point of the possible entry window,
+   *          or {@link FreeTimeWindow#UNBOUNDED}
    * @param agvID the agv id
    * @return the free time windows
    */
   @Nullable
-  public List<FreeTimeWindow> getFreeTimeWindows(Point startPoint,
-      Point endPoint, Range<Long> possibleEntryWindow, int agvID) {
+  public List<FreeTimeWindow> getFreeTimeWindows(int startNode,
+      int endNode, long entryLowerEndpoint, long entryUpperEndpoint,
+      int agvID) {
+    numOfQueries++;
     
     // actual entry window (take into account the length of vehicles)
-    Range<Long> realPossibleEntryWindow;
-    final long lowerEndPoint = possibleEntryWindow.lowerEndpoint()
+    final long lowerEndWindow = entryLowerEndpoint
         - ((long) (setting.getVehicleLength()*1000 / setting.getVehicleSpeed()));
-    if (possibleEntryWindow.hasUpperBound()) {
-      final long upperEndPoint = possibleEntryWindow.upperEndpoint()
+    final long upperEndWindow;
+    if (entryUpperEndpoint != FreeTimeWindow.UNBOUNDED) {
+      upperEndWindow = entryUpperEndpoint
           - ((long) (setting.getVehicleLength()*1000 / setting.getVehicleSpeed()));
-      realPossibleEntryWindow = Range.closed(lowerEndPoint, upperEndPoint);
     } else {
-      realPossibleEntryWindow = Range.atLeast(lowerEndPoint);
+      upperEndWindow = FreeTimeWindow.UNBOUNDED;
     }
     
-    // get all reservations from other direction
-    RangeSet<Long> reservationsFromOtherDirection = TreeRangeSet.create();
-    List<Reservation> resvList = reservationMap.get(endPoint);
-    for (Reservation reservation : resvList) {
-      // the AGV can understand that a reservation is still valid if two
-      // conditions are satisfied
-      // 1. the reservation is of another AGV
-      // 2. the reservation does not totally lie in the possible entry window,
-      // so the entry window is not separated into two ranges
-      // if the 2nd condition is not satisfied, it means that an AGV removed its
-      // reservation at node, but not at the edge
-      if (reservation.getAgvID() != agvID
-          && !realPossibleEntryWindow.encloses(reservation.getInterval())) {
-        reservationsFromOtherDirection.add(reservation.getInterval());
-      }
-    }
+    // get all possible free ranges that do not conflict with AGVs from other
+    // direction. The AGV can understand that a reservation is still valid if
+    // two conditions are satisfied
+    // 1. the reservation is of another AGV
+    // 2. the reservation does not totally lie in the possible entry window,
+    // so the entry window is not separated into two ranges
+    // if the 2nd condition is not satisfied, it means that an AGV removed its
+    // reservation at node, but not at the edge
+    final ReservationIndex reservationsFromOtherDirection = getReservationsFrom(
+        endNode);
+    final int numOfFreeRanges = reservationsFromOtherDirection
+        .findFreeRanges(lowerEndWindow, upperEndWindow, agvID, true);
     
-    // get all possible free ranges that do not conflict with AGVs from other direction
-    RangeSet<Long> freeRanges = reservationsFromOtherDirection.complement()
-        .subRangeSet(Range.atLeast(realPossibleEntryWindow.lowerEndpoint()));
-    
-    // get all entryWindows based on the reservations of opposite direction AGVs
-    RangeSet<Long> entryWindows = freeRanges.subRangeSet(realPossibleEntryWindow);
-    
-    if (entryWindows.isEmpty()) {
+    if (numOfFreeRanges == 0) {
       // no possible time window
       return null;
-    } else if (entryWindows.asRanges().size() > 1) {
+    } else if (numOfFreeRanges > 1) {
       // The case that there are more than one entry window only happens if
       // another AGV come from the opposite direction on the edge, then it
       // leaves the edge and enter the node that the current AGV is staying. It
@@ -140,49 +144,49 @@ public class EdgeAgent implements ResourceAgent {
       throw new Error("More than one entry window for edge!");
     }
     
-    Range<Long> optimisticEntryWindow = entryWindows.span();
+    // the free range that is connected to the possible entry window
+    final long upperEndFreeRange = reservationsFromOtherDirection
+        .getFreeRangeUpper(0);
     
-    // list of reservations from the same direction
-    List<Reservation> reservationsFromSameDirection = reservationMap.get(startPoint);
+    // the entry window based on the reservations of opposite direction AGVs
+    long lowerEndEntryWindow = reservationsFromOtherDirection
+        .getFreeRangeLower(0);
+    long upperEndEntryWindow = Math.min(upperEndFreeRange, upperEndWindow);
+    
+    // reservations from the same direction
+    final ReservationIndex reservationsFromSameDirection = getReservationsFrom(
+        startNode);
     
     // compute the capacity at the start time
-    long startTime = optimisticEntryWindow.lowerEndpoint();
-    List<Reservation> overlappingReservations = new ArrayList<>();
-    for (Reservation resv : reservationsFromSameDirection) {
-      if (resv.getInterval().contains(startTime) && resv.getAgvID() != agvID) {
-        overlappingReservations.add(resv);
-      }
-    }
+    final int numOfOverlappingReservations = reservationsFromSameDirection
+        .findOverlapping(lowerEndEntryWindow, lowerEndEntryWindow, agvID);
     
     // if the edge is already full, we have to calculate the start time
     // note that, because the capacity of the node is only 1, it means that
     // during the possible entry window, the capacity can only decrease. It
     // cannot increase because no vehicle can enter the edge while the current
     // AGV is occupying the start node.
-    if (overlappingReservations.size() > capacity) {
+    if (numOfOverlappingReservations > capacity) {
       throw new Error("It cannot happen");
     }
     
-    if (overlappingReservations.size() == capacity) {
+    if (numOfOverlappingReservations == capacity) {
       long newStartTime = Long.MAX_VALUE;
       
-      for (Reservation resv : overlappingReservations) {
-        if (resv.getInterval().upperEndpoint() < newStartTime) {
-          newStartTime = resv.getInterval().upperEndpoint();
+      for (int i = 0; i < numOfOverlappingReservations; i++) {
+        final long upperEndReservation = reservationsFromSameDirection
+            .getUpper(reservationsFromSameDirection.getResultSlot(i));
+        if (upperEndReservation < newStartTime) {
+          newStartTime = upperEndReservation;
         }
       }
       
       // update the optimistic entry window
-      if (optimisticEntryWindow.hasUpperBound()
-          && newStartTime > optimisticEntryWindow.upperEndpoint()) {
+      if (upperEndEntryWindow != FreeTimeWindow.UNBOUNDED
+          && newStartTime > upperEndEntryWindow) {
         return null;
       } else {
-        if (optimisticEntryWindow.hasUpperBound()) {
-          final long upperBound = optimisticEntryWindow.upperEndpoint();
-          optimisticEntryWindow = Range.closed(newStartTime, upperBound);
-        } else {
-          optimisticEntryWindow = Range.atLeast(newStartTime);
-        }
+        lowerEndEntryWindow = newStartTime;
       }
     }
     
@@ -194,45 +198,36 @@ public class EdgeAgent implements ResourceAgent {
     long upperEndExitWindow = Long.MAX_VALUE;
     
     // compute the exit window
-    final long optimisticStartTime = optimisticEntryWindow.lowerEndpoint();
+    final long optimisticStartTime = lowerEndEntryWindow;
     final long minDifferentTime = (long) (setting.getVehicleLength() * 1000
         / setting.getVehicleSpeed());
-    for (Reservation reservation : reservationsFromSameDirection) {
-      if (reservation.getAgvID() == agvID) {
-        continue;
-      }
-      final long reservedEntryTime = reservation.getInterval().lowerEndpoint();
-      final long reservedExitTime = reservation.getInterval().upperEndpoint();
-      if (reservedEntryTime < optimisticStartTime && reservedExitTime + minDifferentTime > lowerEndExitWindow) {
-        // if there is  an AGV that enters the edge before but exit the edge after the current AGV, then update the lower bound exit time
-        lowerEndExitWindow = reservedExitTime + minDifferentTime;
-      } else if (reservedEntryTime > optimisticStartTime && reservedExitTime - minDifferentTime < upperEndExitWindow) {
-        // if there is an AGV that enters the edge after but exit the edge before the current AGV, then update the upper bound of exit time
-        upperEndExitWindow = reservedExitTime - minDifferentTime;
-      }
+    // if there is  an AGV that enters the edge before but exit the edge after the current AGV, then update the lower bound exit time
+    final long latestExitOfEarlierAGVs = reservationsFromSameDirection
+        .maxUpperStartingBefore(optimisticStartTime, agvID);
+    if (latestExitOfEarlierAGVs != Long.MIN_VALUE
+        && latestExitOfEarlierAGVs + minDifferentTime > lowerEndExitWindow) {
+      lowerEndExitWindow = latestExitOfEarlierAGVs + minDifferentTime;
+    }
+    // if there is an AGV that enters the edge after but exit the edge before the current AGV, then update the upper bound of exit time
+    final long earliestExitOfLaterAGVs = reservationsFromSameDirection
+        .minUpperStartingAfter(optimisticStartTime, agvID);
+    if (earliestExitOfLaterAGVs != Long.MAX_VALUE) {
+      upperEndExitWindow = earliestExitOfLaterAGVs - minDifferentTime;
     }
     
     // example: (728300‥756300) (744300‥758300)
-    if (lowerEndExitWindow > upperEndExitWindow) {
+    // a later AGV may also have to exit before the AGV can enter. Then there
+    // is no feasible window either, instead of an invalid one
+    if (lowerEndExitWindow > upperEndExitWindow
+        || upperEndExitWindow < lowerEndEntryWindow) {
       return null;
     }
     
-    long lowerEndEntryWindow = optimisticEntryWindow.lowerEndpoint();
-    
-    long upperEndEntryWindow;
-    if (optimisticEntryWindow.hasUpperBound()) {
-      upperEndEntryWindow = optimisticEntryWindow.upperEndpoint();
-    } else {
-      upperEndEntryWindow = Long.MAX_VALUE;
+    // the feasible time window cannot leave the free range
+    if (upperEndFreeRange < upperEndExitWindow) {
+      upperEndExitWindow = upperEndFreeRange;
     }
     
-    Range<Long> optimisticTimeWindow = Range.closed(lowerEndEntryWindow, upperEndExitWindow);
-    RangeSet<Long> allNonConflictTimeWindow = freeRanges.subRangeSet(optimisticTimeWindow);
-    Range<Long> feasibleTimeWindow = allNonConflictTimeWindow.rangeContaining(lowerEndEntryWindow);
-    checkNotNull(feasibleTimeWindow, "cannot be null %s", feasibleTimeWindow);
-    
-    upperEndExitWindow = feasibleTimeWindow.upperEndpoint();
-    
     // calculate the capacity of the edge at upperEndExitWindow
     // if the capacity is overloaded, mean that another AGV will come to the
     // edge after the entry time of the current AGV, then we have to decrease
@@ -241,20 +236,18 @@ public class EdgeAgent implements ResourceAgent {
     // we     ----------------------|---
     //               ---------------|-------------
     //                              |--------------------     
-    List<Reservation> overlappingAtUpperEndPoint = new ArrayList<>();
-    for (Reservation resv : reservationsFromSameDirection) {
-      if (resv.getInterval().contains(upperEndExitWindow) && resv.getAgvID() != agvID) {
-        overlappingAtUpperEndPoint.add(resv);
-      }
-    }
+    final int numOfOverlappingAtUpperEndPoint = reservationsFromSameDirection
+        .findOverlapping(upperEndExitWindow, upperEndExitWindow, agvID);
     
     // check first case
-    if (overlappingAtUpperEndPoint.size() == capacity) {
+    if (numOfOverlappingAtUpperEndPoint == capacity) {
       long newExitTime = 0;
 
-      for (Reservation resv : overlappingAtUpperEndPoint) {
-        if (resv.getInterval().lowerEndpoint() > newExitTime) {
-          newExitTime = resv.getInterval().lowerEndpoint();
+      for (int i = 0; i < numOfOverlappingAtUpperEndPoint; i++) {
+        final long lowerEndReservation = reservationsFromSameDirection
+            .getLower(reservationsFromSameDirection.getResultSlot(i));
+        if (lowerEndReservation > newExitTime) {
+          newExitTime = lowerEndReservation;
         }
       }
       
@@ -269,23 +262,22 @@ public class EdgeAgent implements ResourceAgent {
     //                               |--------------------     
     // we check the latest reservation after us that overlap with the updated end point t
     long latestEntryTimeOfOtherAGVs = -1;
-    for (Reservation resv : reservationsFromSameDirection) {
-      if (resv.getInterval().contains(upperEndExitWindow) && resv.getAgvID() != agvID) {
-        if (resv.getInterval().lowerEndpoint() > latestEntryTimeOfOtherAGVs) {
-          latestEntryTimeOfOtherAGVs = resv.getInterval().lowerEndpoint();
-        }
+    final int numOfOverlappingAtUpdatedEndPoint = reservationsFromSameDirection
+        .findOverlapping(upperEndExitWindow, upperEndExitWindow, agvID);
+    for (int i = 0; i < numOfOverlappingAtUpdatedEndPoint; i++) {
+      final long lowerEndReservation = reservationsFromSameDirection
+          .getLower(reservationsFromSameDirection.getResultSlot(i));
+      if (lowerEndReservation > latestEntryTimeOfOtherAGVs) {
+        latestEntryTimeOfOtherAGVs = lowerEndReservation;
       }
     }
     
     // check capacity at the entry time of the latest AGV
-    List<Reservation> overlappingAtLatestEntryTime = new ArrayList<>();
-    for (Reservation resv : reservationsFromSameDirection) {
-      if (resv.getInterval().contains(latestEntryTimeOfOtherAGVs) && resv.getAgvID() != agvID) {
-        overlappingAtLatestEntryTime.add(resv);
-      }
-    }
+    final int numOfOverlappingAtLatestEntryTime = reservationsFromSameDirection
+        .findOverlapping(latestEntryTimeOfOtherAGVs, latestEntryTimeOfOtherAGVs,
+            agvID);
     
-    if (overlappingAtLatestEntryTime.size() == capacity - 1) {
+    if (numOfOverlappingAtLatestEntryTime == capacity - 1) {
       upperEndExitWindow = latestEntryTimeOfOtherAGVs;
     }
     
@@ -302,42 +294,29 @@ public class EdgeAgent implements ResourceAgent {
       upperEndEntryWindow = upperEndExitWindow - minTravelTime;
     }
     
-    Range<Long> entryWindow = Range.closed(lowerEndEntryWindow, upperEndEntryWindow);
-    Range<Long> exitWindow = Range.closed(lowerEndExitWindow, upperEndExitWindow);
-    Range<Long> timeWindow = Range.closed(lowerEndEntryWindow, upperEndExitWindow);
-    
     List<FreeTimeWindow> freeTimeWindows = new ArrayList<>();
-    freeTimeWindows.add(new FreeTimeWindow(timeWindow, entryWindow, exitWindow));
+    freeTimeWindows.add(new FreeTimeWindow(lowerEndEntryWindow,
+        upperEndEntryWindow, lowerEndExitWindow, upperEndExitWindow));
     
+    numOfFreeTimeWindows++;
     return freeTimeWindows;
   }
   
   /**
    * Adds the reservation.
    *
-   * @param startPoint the start point
+   * @param startNode the id of the start node
    * @param interval the interval
    * @param lifeTime the life time
    * @param agvID the agv id
    */
-  public void addReservation(Point startPoint, Range<Long> interval,
+  public void addReservation(int startNode, Range<Long> interval,
       long lifeTime, int agvID) {
     // remove all old reservations
-    for (Map.Entry<Point, List<Reservation>> entry : reservationMap.entrySet()) {
-      List<Reservation> reservationList = entry.getValue();
-      Iterator<Reservation> iter = reservationList.iterator();
-      while (iter.hasNext()) {
-        Reservation reservation = iter.next();
-        if (reservation.getAgvID() == agvID
-            && reservation.getLifeTime() != lifeTime) {
-          iter.remove();
-        }
-      }
-    }
-    final long lowerEndPoint = interval.lowerEndpoint();
-    final long upperEndPoint = interval.upperEndpoint();
-    reservationMap.get(startPoint)
-        .add(new Reservation(agvID, lifeTime, Range.open(lowerEndPoint, upperEndPoint)));
+    reservationsFromNode1.removeOldReservations(agvID, lifeTime);
+    reservationsFromNode2.removeOldReservations(agvID, lifeTime);
+    getReservationsFrom(startNode).add(agvID, lifeTime,
+        interval.lowerEndpoint(), interval.upperEndpoint());
   }
   
   /**
@@ -346,24 +325,57 @@ public class EdgeAgent implements ResourceAgent {
    * @param currentTime the current time
    */
   public void removeOutdatedReservations(long currentTime) {
-    for (Map.Entry<Point, List<Reservation>> entry : reservationMap.entrySet()) {
-      List<Reservation> reservationList = entry.getValue();
-      Iterator<Reservation> iter = reservationList.iterator();
-      while (iter.hasNext()) {
-        Reservation reservation = iter.next();
-        if (reservation.getLifeTime() < currentTime) {
-          iter.remove();
-        }
-      }
+    if (!reservationsFromNode1.isEmpty()) {
+      reservationsFromNode1.removeOutdatedReservations(currentTime);
+    }
+    if (!reservationsFromNode2.isEmpty()) {
+      reservationsFromNode2.removeOutdatedReservations(currentTime);
     }
   }
 
   public Point getNode1() {
-    return node1;
+    return resourceGraph.getNode(node1);
   }
 
   public Point getNode2() {
-    return node2;
+    return resourceGraph.getNode(node2);
+  }
+
+  /**
+   * Gets the id of the edge.
+   *
+   * @return the id
+   */
+  public int getID() {
+    return id;
+  }
+
+  /**
+   * Gets the number of reservations in both directions.
+   *
+   * @return the number of reservations
+   */
+  public int getNumOfReservations() {
+    return reservationsFromNode1.size() + reservationsFromNode2.size();
+  }
+
+  /**
+   * Gets the number of free time window queries since the agent was created.
+   *
+   * @return the number of queries
+   */
+  public int getNumOfQueries() {
+    return numOfQueries;
+  }
+
+  /**
+   * Gets the number of free time windows that the queries found since the
+   * agent was created.
+   *
+   * @return the number of free time windows
+   */
+  public int getNumOfFreeTimeWindows() {
+    return numOfFreeTimeWindows;
   }
   
   
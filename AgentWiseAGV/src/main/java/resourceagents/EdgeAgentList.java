@@ -1,14 +1,6 @@
 package resourceagents;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
-
-import com.github.rinde.rinsim.core.model.road.CollisionGraphRoadModel;
 import com.github.rinde.rinsim.geom.Point;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 
 import setting.Setting;
 
@@ -19,35 +11,29 @@ import setting.Setting;
  */
 public class EdgeAgentList {
   
-  /** The table containing edge agents. */
-  private Table<Point, Point, EdgeAgent> edgeAgentTable;
+  /** The resource graph. */
+  private ResourceGraph resourceGraph;
+  
+  /** The edge agents, indexed by edge id. */
+  private EdgeAgent[] edgeAgents;
   
-  private List<EdgeAgent> edgeAgentList;
+  /** The evaporation queue of the reservations of all edge agents. */
+  private EvaporationQueue evaporationQueue;
   
   /**
    * Instantiates a new edge agent list.
    *
-   * @param roadModel the road model
+   * @param resourceGraph the resource graph
    * @param setting the setting
    */
-  public EdgeAgentList(CollisionGraphRoadModel roadModel, Setting setting) {
-    edgeAgentTable = HashBasedTable.create();
-    edgeAgentList = new ArrayList<>();
+  public EdgeAgentList(ResourceGraph resourceGraph, Setting setting) {
+    this.resourceGraph = resourceGraph;
+    edgeAgents = new EdgeAgent[resourceGraph.getNumOfEdges()];
+    evaporationQueue = new EvaporationQueue();
 
-    Set<Point> allNodes = roadModel.getGraph().getNodes();
-    for (Point node : allNodes) {
-      Collection<Point> connectedNodes = roadModel.getGraph()
-          .getOutgoingConnections(node);
-      for (Point outgoingNode : connectedNodes) {
-        if (!edgeAgentTable.contains(node, outgoingNode)) {
-          EdgeAgent edgeAgent = new EdgeAgent(node, outgoingNode, roadModel
-              .getGraph().getConnection(node, outgoingNode).getLength(),
-              setting);
-          edgeAgentTable.put(node, outgoingNode, edgeAgent);
-          edgeAgentTable.put(outgoingNode, node, edgeAgent);
-          edgeAgentList.add(edgeAgent);
-        }
-      }
+    for (int edge = 0; edge < edgeAgents.length; edge++) {
+      edgeAgents[edge] = new EdgeAgent(edge, resourceGraph, setting,
+          evaporationQueue);
     }
   }
   
@@ -59,17 +45,43 @@ public class EdgeAgentList {
    * @return the edge agent
    */
   public EdgeAgent getEdgeAgent(Point p1, Point p2) {
-    return edgeAgentTable.get(p1, p2);
+    return getEdgeAgent(resourceGraph.getNodeID(p1),
+        resourceGraph.getNodeID(p2));
+  }
+  
+  /**
+   * Gets the edge agent.
+   *
+   * @param node1 the id of the first node
+   * @param node2 the id of the second node
+   * @return the edge agent
+   */
+  public EdgeAgent getEdgeAgent(int node1, int node2) {
+    final int edge = resourceGraph.getEdgeID(node1, node2);
+    if (edge == -1) {
+      // the edge agent is shared by both directions
+      return edgeAgents[resourceGraph.getEdgeID(node2, node1)];
+    }
+    return edgeAgents[edge];
   }
   
   /**
-   * Removes the outdated reservations.
+   * Gets the edge agent.
+   *
+   * @param edgeID the edge id
+   * @return the edge agent
+   */
+  public EdgeAgent getEdgeAgent(int edgeID) {
+    return edgeAgents[edgeID];
+  }
+  
+  /**
+   * Removes the outdated reservations. Only the expired reservations are
+   * visited.
    *
    * @param currentTime the current time
    */
   public void removeOutdatedReservations(long currentTime) {
-    for (EdgeAgent edgeAgent : edgeAgentList) {
-      edgeAgent.removeOutdatedReservations(currentTime);
-    }
+    evaporationQueue.removeOutdatedReservations(currentTime);
   }
 }
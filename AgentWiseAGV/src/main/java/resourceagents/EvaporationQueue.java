@@ -0,0 +1,140 @@
+package resourceagents;
+
+import java.util.Arrays;
+
+/**
+ * The Class EvaporationQueue. A min-heap of the reservations of many resources
+ * ordered by their life times. The resource agents of a virtual environment
+ * share one queue, so that removing the out-dated reservations only touches
+ * the reservations that actually expired instead of visiting every resource.
+ * <p>
+ * Reservations that are removed before they expire (e.g., because the AGV
+ * refreshed its plan) stay in the queue and are skipped when they are polled.
+ */
+public class EvaporationQueue {
+
+  /** The initial capacity of the heap. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** The life times of the queued reservations. */
+  private long[] lifeTimes;
+
+  /** The ids of the queued reservations. */
+  private long[] reservationIDs;
+
+  /** The slots of the queued reservations. */
+  private int[] slots;
+
+  /** The indexes that hold the queued reservations. */
+  private ReservationIndex[] indexes;
+
+  /** The number of queued reservations. */
+  private int size;
+
+  /**
+   * Instantiates a new empty evaporation queue.
+   */
+  public EvaporationQueue() {
+    lifeTimes = new long[INITIAL_CAPACITY];
+    reservationIDs = new long[INITIAL_CAPACITY];
+    slots = new int[INITIAL_CAPACITY];
+    indexes = new ReservationIndex[INITIAL_CAPACITY];
+    size = 0;
+  }
+
+  /**
+   * Adds a reservation to the queue.
+   *
+   * @param index the index that holds the reservation
+   * @param slot the slot of the reservation
+   * @param reservationID the id of the reservation
+   * @param lifeTime the life time of the reservation
+   */
+  void add(ReservationIndex index, int slot, long reservationID,
+      long lifeTime) {
+    if (size == lifeTimes.length) {
+      final int capacity = size * 2;
+      lifeTimes = Arrays.copyOf(lifeTimes, capacity);
+      reservationIDs = Arrays.copyOf(reservationIDs, capacity);
+      slots = Arrays.copyOf(slots, capacity);
+      indexes = Arrays.copyOf(indexes, capacity);
+    }
+    int i = size++;
+    // sift up
+    while (i > 0) {
+      final int parent = (i - 1) / 2;
+      if (lifeTimes[parent] <= lifeTime) {
+        break;
+      }
+      move(parent, i);
+      i = parent;
+    }
+    set(i, index, slot, reservationID, lifeTime);
+  }
+
+  /**
+   * Removes the reservations whose life time is before the current time.
+   *
+   * @param currentTime the current time
+   */
+  public void removeOutdatedReservations(long currentTime) {
+    while (size > 0 && lifeTimes[0] < currentTime) {
+      final ReservationIndex index = indexes[0];
+      final int slot = slots[0];
+      final long reservationID = reservationIDs[0];
+      poll();
+      index.removeIfPresent(slot, reservationID);
+    }
+  }
+
+  /**
+   * Gets the number of queued reservations, including the ones that were
+   * already removed from their resources.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  private void poll() {
+    size--;
+    final ReservationIndex lastIndex = indexes[size];
+    final int lastSlot = slots[size];
+    final long lastID = reservationIDs[size];
+    final long lastLifeTime = lifeTimes[size];
+    indexes[size] = null;
+    if (size == 0) {
+      return;
+    }
+    int i = 0;
+    // sift down
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && lifeTimes[child + 1] < lifeTimes[child]) {
+        child++;
+      }
+      if (lastLifeTime <= lifeTimes[child]) {
+        break;
+      }
+      move(child, i);
+      i = child;
+    }
+    set(i, lastIndex, lastSlot, lastID, lastLifeTime);
+  }
+
+  private void move(int from, int to) {
+    set(to, indexes[from], slots[from], reservationIDs[from], lifeTimes[from]);
+  }
+
+  private void set(int i, ReservationIndex index, int slot, long reservationID,
+      long lifeTime) {
+    indexes[i] = index;
+    slots[i] = slot;
+    reservationIDs[i] = reservationID;
+    lifeTimes[i] = lifeTime;
+  }
+}
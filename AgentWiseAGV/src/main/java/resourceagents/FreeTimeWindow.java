@@ -1,72 +1,124 @@
 package resourceagents;
 
-import com.google.common.base.Objects;
-import com.google.common.collect.Range;
-
 /**
- * The Class FreeTimeWindow.
+ * The Class FreeTimeWindow. All windows are closed ranges of time; an upper
+ * end point equal to {@link #UNBOUNDED} means that the window has no upper
+ * bound. The interval of the free time window spans from the lower end point
+ * of the entry window to the upper end point of the exit window.
  *
  * @author Tung
  */
 public class FreeTimeWindow {
-  
-  /** The free time window. */
-  private Range<Long> interval;
-  
-  /** The entry window. */
-  private Range<Long> entryWindow;
-  
-  /** The exit window. */
-  private Range<Long> exitWindow;
+
+  /** The upper end point of a window that has no upper bound. */
+  public static final long UNBOUNDED = Long.MAX_VALUE;
+
+  /** The lower end point of the entry window. */
+  private final long entryLowerEndpoint;
+
+  /** The upper end point of the entry window. */
+  private final long entryUpperEndpoint;
+
+  /** The lower end point of the exit window. */
+  private final long exitLowerEndpoint;
+
+  /** The upper end point of the exit window. */
+  private final long exitUpperEndpoint;
 
   /**
    * Instantiates a new free time window.
    *
-   * @param interval the interval
-   * @param entryWindow the entry window
-   * @param exitWindow the exit window
+   * @param entryLowerEndpoint the lower end point of the entry window
+   * @param entryUpperEndpoint the upper end point of the entry window
+   * @param exitLowerEndpoint the lower end point of the exit window
+   * @param exitUpperEndpoint the upper end point of the exit window
+   */
+  public FreeTimeWindow(long entryLowerEndpoint, long entryUpperEndpoint,
+      long exitLowerEndpoint, long exitUpperEndpoint) {
+    this.entryLowerEndpoint = entryLowerEndpoint;
+    this.entryUpperEndpoint = entryUpperEndpoint;
+    this.exitLowerEndpoint = exitLowerEndpoint;
+    this.exitUpperEndpoint = exitUpperEndpoint;
+  }
+
+  /**
+   * Gets the lower end point of the interval.
+   *
+   * @return the lower end point of the interval
+   */
+  public long getIntervalLowerEndpoint() {
+    return entryLowerEndpoint;
+  }
+
+  /**
+   * Gets the upper end point of the interval.
+   *
+   * @return the upper end point of the interval
    */
-  public FreeTimeWindow(Range<Long> interval, Range<Long> entryWindow,
-      Range<Long> exitWindow) {
-    this.interval = interval;
-    this.entryWindow = entryWindow;
-    this.exitWindow = exitWindow;
+  public long getIntervalUpperEndpoint() {
+    return exitUpperEndpoint;
   }
 
   /**
-   * Gets the interval.
+   * Gets the lower end point of the entry window.
    *
-   * @return the interval
+   * @return the lower end point of the entry window
    */
-  public Range<Long> getInterval() {
-    return interval;
+  public long getEntryLowerEndpoint() {
+    return entryLowerEndpoint;
   }
 
   /**
-   * Gets the entry window.
+   * Gets the upper end point of the entry window.
    *
-   * @return the entry window
+   * @return the upper end point of the entry window
    */
-  public Range<Long> getEntryWindow() {
-    return entryWindow;
+  public long getEntryUpperEndpoint() {
+    return entryUpperEndpoint;
   }
 
   /**
-   * Gets the exit window.
+   * Gets the lower end point of the exit window.
    *
-   * @return the exit window
+   * @return the lower end point of the exit window
    */
-  public Range<Long> getExitWindow() {
-    return exitWindow;
+  public long getExitLowerEndpoint() {
+    return exitLowerEndpoint;
   }
- 
+
+  /**
+   * Gets the upper end point of the exit window.
+   *
+   * @return the upper end point of the exit window
+   */
+  public long getExitUpperEndpoint() {
+    return exitUpperEndpoint;
+  }
+
+  /**
+   * Checks if the entry window contains the time.
+   *
+   * @param time the time
+   * @return true, if the AGV can enter the resource at the time
+   */
+  public boolean entryWindowContains(long time) {
+    return entryLowerEndpoint <= time && time <= entryUpperEndpoint;
+  }
+
   /* (non-Javadoc)
    * @see java.lang.Object#toString()
    */
   @Override
   public String toString() {
-    return ("\nInterval: " + interval + "\nEntry window: " + entryWindow
-        + "\nExit window: " + exitWindow + "\n");
+    return ("\nInterval: " + toString(entryLowerEndpoint, exitUpperEndpoint)
+        + "\nEntry window: "
+        + toString(entryLowerEndpoint, entryUpperEndpoint) + "\nExit window: "
+        + toString(exitLowerEndpoint, exitUpperEndpoint) + "\n");
+  }
+
+  private static String toString(long lowerEndpoint, long upperEndpoint) {
+    return "[" + lowerEndpoint + "‥"
+        + (upperEndpoint == UNBOUNDED ? "+∞)" : upperEndpoint + "]");
   }
 
   @Override
@@ -83,13 +135,23 @@ public class FreeTimeWindow {
     }
 
     final FreeTimeWindow ftw = (FreeTimeWindow) other;
-    return this.interval.equals(ftw.getInterval())
-        && this.entryWindow.equals(ftw.getEntryWindow())
-        && this.exitWindow.equals(ftw.exitWindow);
+    return this.entryLowerEndpoint == ftw.entryLowerEndpoint
+        && this.entryUpperEndpoint == ftw.entryUpperEndpoint
+        && this.exitLowerEndpoint == ftw.exitLowerEndpoint
+        && this.exitUpperEndpoint == ftw.exitUpperEndpoint;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(interval, entryWindow, exitWindow);
+    int result = 1;
+    result = 31 * result + hash(entryLowerEndpoint);
+    result = 31 * result + hash(entryUpperEndpoint);
+    result = 31 * result + hash(exitLowerEndpoint);
+    result = 31 * result + hash(exitUpperEndpoint);
+    return result;
+  }
+
+  private static int hash(long value) {
+    return (int) (value ^ (value >>> 32));
   }
 }
@@ -2,14 +2,11 @@ package resourceagents;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.collect.Range;
-import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
 
 import setting.Setting;
 
@@ -20,12 +17,15 @@ import setting.Setting;
  */
 public class NodeAgent implements ResourceAgent {
   
- /** The reservations. */
- private List<Reservation> reservations;
+ /** The reservations, indexed by time. */
+ private ReservationIndex reservations;
  
  /** The node that the agent associated. */
  private Point node;
 
+  /** The id of the node, from 0 to the number of nodes - 1. */
+  private int id;
+
   /**
    * The shortest path length. It stores the shortest path length between the
    * associated node and other nodes.
@@ -35,15 +35,25 @@ public class NodeAgent implements ResourceAgent {
   /** The setting. */
   private Setting setting;
   
+  /** The number of free time window queries. */
+  private int numOfQueries;
+  
+  /** The number of free time windows that the queries found. */
+  private int numOfFreeTimeWindows;
+  
   /**
    * Instantiates a new node agent.
    *
+   * @param id the id of the node
    * @param node the node
    * @param setting the setting
+   * @param evaporationQueue the evaporation queue of the reservations
    */
-  public NodeAgent(Point node, Setting setting) {
-    reservations = new ArrayList<>();
+  public NodeAgent(int id, Point node, Setting setting,
+      EvaporationQueue evaporationQueue) {
+    reservations = new ReservationIndex(evaporationQueue);
     shortestPathLength = new HashMap<>();
+    this.id = id;
     this.node = node;
     this.setting = setting;
   }
@@ -51,39 +61,30 @@ public class NodeAgent implements ResourceAgent {
   /**
    * Gets the free time windows.
    *
-   * @param possibleEntryWindow the possible entry window
+   * @param entryLowerEndpoint the lower end point of the possible entry window
+   * @param entryUpperEndpoint the upper end point of the possible entry window,
+   *          or {@link FreeTimeWindow#UNBOUNDED}
    * @param agvID the agv id
    * @return the free time windows
    */
-  public List<FreeTimeWindow> getFreeTimeWindows(Range<Long> possibleEntryWindow, int agvID) {
-    
-//    if (agvID == 7 && node.equals(new Point(40d, 32d))) {
-//      System.out.println("hello");
-//    }
+  public List<FreeTimeWindow> getFreeTimeWindows(long entryLowerEndpoint,
+      long entryUpperEndpoint, int agvID) {
+    numOfQueries++;
     
     // actual entry window (take into account the length of vehicles)
-    Range<Long> realPossibleEntryWindow;
-    final long lowerEndPoint = possibleEntryWindow.lowerEndpoint()
+    final long lowerEndWindow = entryLowerEndpoint
         - ((long) (setting.getVehicleLength()*1000 / setting.getVehicleSpeed()));
-    if (possibleEntryWindow.hasUpperBound()) {
-      final long upperEndPoint = possibleEntryWindow.upperEndpoint()
+    final long upperEndWindow;
+    if (entryUpperEndpoint != FreeTimeWindow.UNBOUNDED) {
+      upperEndWindow = entryUpperEndpoint
           - ((long) (setting.getVehicleLength() / setting.getVehicleSpeed()));
-      realPossibleEntryWindow = Range.closed(lowerEndPoint, upperEndPoint);
     } else {
-      realPossibleEntryWindow = Range.atLeast(lowerEndPoint);
+      upperEndWindow = FreeTimeWindow.UNBOUNDED;
     }
     
-    // create the timeline of existing reservations
-    RangeSet<Long> existingReservations = TreeRangeSet.create();
-    for (Reservation reservation : reservations) {
-      if (reservation.getAgvID() != agvID) {
-        existingReservations.add(reservation.getInterval());
-      }
-    }
-    
-    // all possible free range
-    RangeSet<Long> freeRanges = existingReservations.complement()
-        .subRangeSet(Range.atLeast(realPossibleEntryWindow.lowerEndpoint()));
+    // all possible free ranges that are connected to the possible entry window
+    final int numOfFreeRanges = reservations.findFreeRanges(lowerEndWindow,
+        upperEndWindow, agvID, false);
   
     // mininum travel time required for AGVs to traverse a node
     final long minTravelTime = (long) ((setting.getVehicleLength()*2*1000) / setting.getVehicleSpeed());
@@ -92,44 +93,30 @@ public class NodeAgent implements ResourceAgent {
     List<FreeTimeWindow> freeTimeWindows = new ArrayList<>();
     
     // to be a free time window, a range must be equal or longer than the minimum travel time
-    for (Range<Long> range : freeRanges.asRanges()) {
-      // if the free range is not connected to the possible entry window
-      if (!range.isConnected(realPossibleEntryWindow)) {
-        continue;
-      }
+    for (int i = 0; i < numOfFreeRanges; i++) {
+      final long lowerEndRange = reservations.getFreeRangeLower(i);
+      final long upperEndRange = reservations.getFreeRangeUpper(i);
       
-      if (!range.hasUpperBound()) {
+      if (upperEndRange == FreeTimeWindow.UNBOUNDED) {
         // if there is no upper bound
-        final Range<Long> entryWindow = range.intersection(realPossibleEntryWindow);
-        final Range<Long> exitWindow = Range
-            .atLeast(entryWindow.lowerEndpoint() + minTravelTime);
-        final Range<Long> timeWindow = Range
-            .atLeast(entryWindow.lowerEndpoint());
-        freeTimeWindows
-            .add(new FreeTimeWindow(timeWindow, entryWindow, exitWindow));
-      } else
-        if (range.upperEndpoint() - range.lowerEndpoint() >= minTravelTime) {
+        freeTimeWindows.add(new FreeTimeWindow(lowerEndRange, upperEndWindow,
+            lowerEndRange + minTravelTime, FreeTimeWindow.UNBOUNDED));
+      } else if (upperEndRange - lowerEndRange >= minTravelTime) {
         // if there is upper bound but the range is still longer than the
         // minimum travel time
-        final Range<Long> optimisticEntryWindow = Range
-            .closed(range.lowerEndpoint(), range.upperEndpoint() - minTravelTime);
+        final long latestEntryTime = upperEndRange - minTravelTime;
 
-        if (!optimisticEntryWindow.isConnected(realPossibleEntryWindow)) {
+        if (latestEntryTime < lowerEndWindow) {
           continue;
         }
 
-        final Range<Long> entryWindow = optimisticEntryWindow
-            .intersection(realPossibleEntryWindow);
-        final Range<Long> exitWindow = Range.closed(
-            entryWindow.lowerEndpoint() + minTravelTime,
-            range.upperEndpoint());
-        final Range<Long> timeWindow = Range.closed(entryWindow.lowerEndpoint(),
-            exitWindow.upperEndpoint());
-        freeTimeWindows
-            .add(new FreeTimeWindow(timeWindow, entryWindow, exitWindow));
+        freeTimeWindows.add(new FreeTimeWindow(lowerEndRange,
+            Math.min(latestEntryTime, upperEndWindow),
+            lowerEndRange + minTravelTime, upperEndRange));
       }
     }
     
+    numOfFreeTimeWindows += freeTimeWindows.size();
     return freeTimeWindows;
   }
   
@@ -142,18 +129,9 @@ public class NodeAgent implements ResourceAgent {
    */
   public void addReservation(int agvID, long lifeTime, Range<Long> interval) {
     // remove all old reservation of the same AGV
-    Iterator<Reservation> iter = reservations.iterator();
-    while (iter.hasNext()) {
-      Reservation reservation = iter.next();
-      if (reservation.getAgvID() == agvID
-          && reservation.getLifeTime() != lifeTime) {
-        iter.remove();
-      }
-    }
-    
-    final long lowerEndPoint = interval.lowerEndpoint();
-    final long upperEndPoint = interval.upperEndpoint();
-    reservations.add(new Reservation(agvID, lifeTime, Range.open(lowerEndPoint, upperEndPoint)));
+    reservations.removeOldReservations(agvID, lifeTime);
+    reservations.add(agvID, lifeTime, interval.lowerEndpoint(),
+        interval.upperEndpoint());
   }
   
   /**
@@ -162,13 +140,10 @@ public class NodeAgent implements ResourceAgent {
    * @param currentTime the current time
    */
   public void removeOutDatedReservation(long currentTime) {
-    Iterator<Reservation> iter = reservations.iterator();
-    while (iter.hasNext()) {
-      Reservation reservation = iter.next();
-      if (reservation.getLifeTime() < currentTime) {
-        iter.remove();
-      }
+    if (reservations.isEmpty()) {
+      return;
     }
+    reservations.removeOutdatedReservations(currentTime);
   }
   
   /**
@@ -194,6 +169,44 @@ public class NodeAgent implements ResourceAgent {
   public Point getNode() {
     return node;
   }
+
+  /**
+   * Gets the id of the node.
+   *
+   * @return the id
+   */
+  public int getID() {
+    return id;
+  }
+
+  /**
+   * Gets the number of reservations.
+   *
+   * @return the number of reservations
+   */
+  public int getNumOfReservations() {
+    return reservations.size();
+  }
+
+  /**
+   * Gets the number of free time window queries since the agent was created.
+   *
+   * @return the number of queries
+   */
+  public int getNumOfQueries() {
+    return numOfQueries;
+  }
+
+  /**
+   * Gets the number of free time windows that the queries found since the
+   * agent was created. The more windows a query finds, the more fragmented
+   * the free time of the node is.
+   *
+   * @return the number of free time windows
+   */
+  public int getNumOfFreeTimeWindows() {
+    return numOfFreeTimeWindows;
+  }
   
   
 }
@@ -1,12 +1,5 @@
 package resourceagents;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
-import com.github.rinde.rinsim.core.model.road.CollisionGraphRoadModel;
 import com.github.rinde.rinsim.geom.Point;
 
 import setting.Setting;
@@ -18,27 +11,29 @@ import setting.Setting;
  */
 public class NodeAgentList {
   
-  /** The node agent map. */
-  private Map<Point, NodeAgent> nodeAgentMap;
+  /** The resource graph. */
+  private ResourceGraph resourceGraph;
+  
+  /** The node agents, indexed by node id. */
+  private NodeAgent[] nodeAgents;
   
-  /** The node agent list. */
-  private List<NodeAgent> nodeAgentList;
+  /** The evaporation queue of the reservations of all node agents. */
+  private EvaporationQueue evaporationQueue;
   
   /**
    * Instantiates a new node agent list.
    *
-   * @param roadModel the road model
+   * @param resourceGraph the resource graph
    * @param setting the setting
    */
-  public NodeAgentList(CollisionGraphRoadModel roadModel, Setting setting) {
-    nodeAgentMap = new HashMap<>();
-    nodeAgentList = new ArrayList<>();
+  public NodeAgentList(ResourceGraph resourceGraph, Setting setting) {
+    this.resourceGraph = resourceGraph;
+    nodeAgents = new NodeAgent[resourceGraph.getNumOfNodes()];
+    evaporationQueue = new EvaporationQueue();
     
-    Set<Point> allNodes = roadModel.getGraph().getNodes();
-    for (Point node : allNodes) {
-      NodeAgent nodeAgent = new NodeAgent(node, setting);
-      nodeAgentMap.put(node, nodeAgent);
-      nodeAgentList.add(nodeAgent);
+    for (int node = 0; node < nodeAgents.length; node++) {
+      nodeAgents[node] = new NodeAgent(node, resourceGraph.getNode(node),
+          setting, evaporationQueue);
     }
   }
   
@@ -49,17 +44,26 @@ public class NodeAgentList {
    * @return the node agent
    */
   public NodeAgent getNodeAgent(Point node) {
-    return nodeAgentMap.get(node);
+    return nodeAgents[resourceGraph.getNodeID(node)];
+  }
+  
+  /**
+   * Gets the node agent.
+   *
+   * @param nodeID the node id
+   * @return the node agent
+   */
+  public NodeAgent getNodeAgent(int nodeID) {
+    return nodeAgents[nodeID];
   }
   
   /**
-   * Removes the out dated reservation.
+   * Removes the out dated reservation. Only the expired reservations are
+   * visited.
    *
    * @param currentTime the current time
    */
   public void removeOutDatedReservation(long currentTime) {
-    for (NodeAgent nodeAgent : nodeAgentList) {
-      nodeAgent.removeOutDatedReservation(currentTime);
-    }
+    evaporationQueue.removeOutdatedReservations(currentTime);
   }
 }
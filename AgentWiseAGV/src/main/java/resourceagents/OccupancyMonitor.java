@@ -0,0 +1,305 @@
+package resourceagents;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.github.rinde.rinsim.core.model.time.TickListener;
+import com.github.rinde.rinsim.core.model.time.TimeLapse;
+import com.github.rinde.rinsim.geom.Point;
+import com.google.common.base.Preconditions;
+
+/**
+ * The Class OccupancyMonitor.
+ * It samples the reservations of the node agents and the edge agents of a
+ * {@link NodeAgentList} and an {@link EdgeAgentList} periodically, together
+ * with the free time window queries that they answered since the previous
+ * sample. A sample is one row of a few numbers for the whole map, so the time
+ * series stays small; for every resource only the sums over all samples are
+ * kept. The results are written as
+ * <ul>
+ * <li>a time series, one row per sample: the reservations of the nodes and
+ * of the edges (in total and of the busiest resource), the query rates and
+ * the free time windows per query, which grow as the free time of the
+ * resources is fragmented,</li>
+ * <li>a heatmap, one row per resource with its position (the middle of an
+ * edge) and its mean and peak number of reservations, its query rate and its
+ * free time windows per query, which shows the bottlenecks of the map.</li>
+ * </ul>
+ * The monitor is a tick listener of its own, so a simulation that does not
+ * add it does not pay for it.
+ *
+ * @author Tung
+ */
+public class OccupancyMonitor implements TickListener {
+
+  /** The index of the time of a sample. */
+  private static final int TIME = 0;
+
+  /** The index of the reservations of all nodes. */
+  private static final int NODE_RESERVATIONS = 1;
+
+  /** The index of the reservations of the busiest node. */
+  private static final int MAX_NODE_RESERVATIONS = 2;
+
+  /** The index of the reservations of all edges. */
+  private static final int EDGE_RESERVATIONS = 3;
+
+  /** The index of the reservations of the busiest edge. */
+  private static final int MAX_EDGE_RESERVATIONS = 4;
+
+  /** The index of the node queries since the previous sample. */
+  private static final int NODE_QUERIES = 5;
+
+  /** The index of the edge queries since the previous sample. */
+  private static final int EDGE_QUERIES = 6;
+
+  /** The index of the free time windows since the previous sample. */
+  private static final int FREE_TIME_WINDOWS = 7;
+
+  /** The number of values of a sample. */
+  private static final int SAMPLE_SIZE = 8;
+
+  /** The resource graph. */
+  private final ResourceGraph resourceGraph;
+
+  /** The node agent list. */
+  private final NodeAgentList nodeAgentList;
+
+  /** The edge agent list. */
+  private final EdgeAgentList edgeAgentList;
+
+  /** The sampling period, in milliseconds. */
+  private final long samplingPeriod;
+
+  /** The time of the next sample. */
+  private long nextSampleTime;
+
+  /** The values of the samples, one sample after the other. */
+  private long[] samples;
+
+  /** The number of samples. */
+  private int numOfSamples;
+
+  /** The node queries at the previous sample. */
+  private long previousNodeQueries;
+
+  /** The edge queries at the previous sample. */
+  private long previousEdgeQueries;
+
+  /** The free time windows at the previous sample. */
+  private long previousFreeTimeWindows;
+
+  /** The sums of the sampled reservations of each node. */
+  private final long[] nodeReservationSums;
+
+  /** The largest sampled reservations of each node. */
+  private final int[] maxNodeReservations;
+
+  /** The sums of the sampled reservations of each edge. */
+  private final long[] edgeReservationSums;
+
+  /** The largest sampled reservations of each edge. */
+  private final int[] maxEdgeReservations;
+
+  /**
+   * Instantiates a new occupancy monitor. The first sample is taken after one
+   * sampling period.
+   *
+   * @param resourceGraph the resource graph
+   * @param nodeAgentList the node agent list
+   * @param edgeAgentList the edge agent list
+   * @param samplingPeriod the sampling period, in milliseconds
+   */
+  public OccupancyMonitor(ResourceGraph resourceGraph,
+      NodeAgentList nodeAgentList, EdgeAgentList edgeAgentList,
+      long samplingPeriod) {
+    Preconditions.checkArgument(samplingPeriod > 0,
+        "The sampling period must be positive: %s", samplingPeriod);
+    this.resourceGraph = resourceGraph;
+    this.nodeAgentList = nodeAgentList;
+    this.edgeAgentList = edgeAgentList;
+    this.samplingPeriod = samplingPeriod;
+    nextSampleTime = samplingPeriod;
+    samples = new long[SAMPLE_SIZE * 64];
+    numOfSamples = 0;
+    nodeReservationSums = new long[resourceGraph.getNumOfNodes()];
+    maxNodeReservations = new int[resourceGraph.getNumOfNodes()];
+    edgeReservationSums = new long[resourceGraph.getNumOfEdges()];
+    maxEdgeReservations = new int[resourceGraph.getNumOfEdges()];
+  }
+
+  @Override
+  public void tick(TimeLapse timeLapse) {
+
+  }
+
+  @Override
+  public void afterTick(TimeLapse timeLapse) {
+    if (timeLapse.getEndTime() >= nextSampleTime) {
+      sample(timeLapse.getEndTime());
+      while (nextSampleTime <= timeLapse.getEndTime()) {
+        nextSampleTime += samplingPeriod;
+      }
+    }
+  }
+
+  /**
+   * Takes a sample.
+   *
+   * @param time the time of the sample
+   */
+  private void sample(long time) {
+    long nodeReservations = 0;
+    int maxReservationsOfNode = 0;
+    long nodeQueries = 0;
+    long freeTimeWindows = 0;
+    for (int node = 0; node < nodeReservationSums.length; node++) {
+      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(node);
+      final int reservations = nodeAgent.getNumOfReservations();
+      nodeReservations += reservations;
+      maxReservationsOfNode = Math.max(maxReservationsOfNode, reservations);
+      nodeReservationSums[node] += reservations;
+      maxNodeReservations[node] = Math.max(maxNodeReservations[node],
+          reservations);
+      nodeQueries += nodeAgent.getNumOfQueries();
+      freeTimeWindows += nodeAgent.getNumOfFreeTimeWindows();
+    }
+
+    long edgeReservations = 0;
+    int maxReservationsOfEdge = 0;
+    long edgeQueries = 0;
+    for (int edge = 0; edge < edgeReservationSums.length; edge++) {
+      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(edge);
+      final int reservations = edgeAgent.getNumOfReservations();
+      edgeReservations += reservations;
+      maxReservationsOfEdge = Math.max(maxReservationsOfEdge, reservations);
+      edgeReservationSums[edge] += reservations;
+      maxEdgeReservations[edge] = Math.max(maxEdgeReservations[edge],
+          reservations);
+      edgeQueries += edgeAgent.getNumOfQueries();
+      freeTimeWindows += edgeAgent.getNumOfFreeTimeWindows();
+    }
+
+    if ((numOfSamples + 1) * SAMPLE_SIZE > samples.length) {
+      samples = Arrays.copyOf(samples, samples.length * 2);
+    }
+    final int offset = numOfSamples * SAMPLE_SIZE;
+    samples[offset + TIME] = time;
+    samples[offset + NODE_RESERVATIONS] = nodeReservations;
+    samples[offset + MAX_NODE_RESERVATIONS] = maxReservationsOfNode;
+    samples[offset + EDGE_RESERVATIONS] = edgeReservations;
+    samples[offset + MAX_EDGE_RESERVATIONS] = maxReservationsOfEdge;
+    samples[offset + NODE_QUERIES] = nodeQueries - previousNodeQueries;
+    samples[offset + EDGE_QUERIES] = edgeQueries - previousEdgeQueries;
+    samples[offset + FREE_TIME_WINDOWS] = freeTimeWindows
+        - previousFreeTimeWindows;
+    numOfSamples++;
+
+    previousNodeQueries = nodeQueries;
+    previousEdgeQueries = edgeQueries;
+    previousFreeTimeWindows = freeTimeWindows;
+  }
+
+  /**
+   * Gets the number of samples.
+   *
+   * @return the number of samples
+   */
+  public int getNumOfSamples() {
+    return numOfSamples;
+  }
+
+  /**
+   * Writes the time series, one row per sample, separated by tabs.
+   *
+   * @param file the file, which is replaced if it exists
+   * @throws IOException if the file cannot be written
+   */
+  public void writeTimeSeries(File file) throws IOException {
+    final Writer writer = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(file), StandardCharsets.UTF_8));
+    try {
+      writer.write("time\tnodeReservations\tmaxNodeReservations"
+          + "\tedgeReservations\tmaxEdgeReservations\tnodeQueriesPerSecond"
+          + "\tedgeQueriesPerSecond\tfreeWindowsPerQuery\n");
+      long previousTime = 0;
+      for (int sample = 0; sample < numOfSamples; sample++) {
+        final int offset = sample * SAMPLE_SIZE;
+        final long time = samples[offset + TIME];
+        final double seconds = (time - previousTime) / 1000d;
+        final long nodeQueries = samples[offset + NODE_QUERIES];
+        final long edgeQueries = samples[offset + EDGE_QUERIES];
+        writer.write(String.format(Locale.ROOT,
+            "%d\t%d\t%d\t%d\t%d\t%.1f\t%.1f\t%.3f\n", time,
+            samples[offset + NODE_RESERVATIONS],
+            samples[offset + MAX_NODE_RESERVATIONS],
+            samples[offset + EDGE_RESERVATIONS],
+            samples[offset + MAX_EDGE_RESERVATIONS], nodeQueries / seconds,
+            edgeQueries / seconds,
+            getRatio(samples[offset + FREE_TIME_WINDOWS],
+                nodeQueries + edgeQueries)));
+        previousTime = time;
+      }
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Writes the heatmap, one row per node and per edge, separated by tabs. The
+   * rates are over the sampled time.
+   *
+   * @param file the file, which is replaced if it exists
+   * @throws IOException if the file cannot be written
+   */
+  public void writeHeatmap(File file) throws IOException {
+    final double seconds = numOfSamples == 0 ? 0
+        : samples[(numOfSamples - 1) * SAMPLE_SIZE + TIME] / 1000d;
+    final Writer writer = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(file), StandardCharsets.UTF_8));
+    try {
+      writer.write("resource\tid\tx\ty\tmeanReservations\tmaxReservations"
+          + "\tqueriesPerSecond\tfreeWindowsPerQuery\n");
+      for (int node = 0; node < nodeReservationSums.length; node++) {
+        final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(node);
+        writeHeatmapRow(writer, "node", node, resourceGraph.getNode(node),
+            nodeReservationSums[node], maxNodeReservations[node],
+            nodeAgent.getNumOfQueries(), nodeAgent.getNumOfFreeTimeWindows(),
+            seconds);
+      }
+      for (int edge = 0; edge < edgeReservationSums.length; edge++) {
+        final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(edge);
+        final Point node1 = edgeAgent.getNode1();
+        final Point node2 = edgeAgent.getNode2();
+        writeHeatmapRow(writer, "edge", edge,
+            new Point((node1.x + node2.x) / 2, (node1.y + node2.y) / 2),
+            edgeReservationSums[edge], maxEdgeReservations[edge],
+            edgeAgent.getNumOfQueries(), edgeAgent.getNumOfFreeTimeWindows(),
+            seconds);
+      }
+    } finally {
+      writer.close();
+    }
+  }
+
+  private void writeHeatmapRow(Writer writer, String resource, int id,
+      Point position, long reservationSum, int maxReservations,
+      int queries, int freeTimeWindows, double seconds) throws IOException {
+    writer.write(String.format(Locale.ROOT,
+        "%s\t%d\t%s\t%s\t%.3f\t%d\t%.3f\t%.3f\n", resource, id, position.x,
+        position.y, getRatio(reservationSum, numOfSamples), maxReservations,
+        seconds == 0 ? 0 : queries / seconds,
+        getRatio(freeTimeWindows, queries)));
+  }
+
+  private static double getRatio(long dividend, long divisor) {
+    return divisor == 0 ? 0 : (double) dividend / divisor;
+  }
+}
@@ -0,0 +1,698 @@
+package resourceagents;
+
+import java.util.Arrays;
+
+/**
+ * The Class ReservationIndex. An interval tree of the reservations of one
+ * resource (or one direction of an edge). The tree is a treap ordered by the
+ * lower end points of the reservation intervals, and every node keeps the
+ * largest and the smallest upper end point of its subtree, so that the
+ * reservations overlapping a time window can be found in O(log R + k) without
+ * scanning the whole reservation list.
+ * <p>
+ * The reservations are stored column-wise in primitive arrays and are
+ * addressed by their slot. A slot is valid until its reservation is removed,
+ * after that it can be reused by a new reservation. All reservation intervals
+ * are open ranges (lower, upper). The slots of each AGV are also chained in a
+ * list, so that the reservations of one AGV can be replaced without scanning
+ * the other reservations of the resource.
+ */
+public class ReservationIndex {
+
+  /** The slot value that marks an empty child or no reservation. */
+  public static final int NONE = -1;
+
+  /** The initial number of slots. */
+  private static final int INITIAL_CAPACITY = 8;
+
+  /** The lower end points of the reservation intervals. */
+  private long[] lowers;
+
+  /** The upper end points of the reservation intervals. */
+  private long[] uppers;
+
+  /** The life times of the reservations. */
+  private long[] lifeTimes;
+
+  /** The unique ids of the reservations, NONE for free slots. */
+  private long[] reservationIDs;
+
+  /** The ids of the AGVs that made the reservations. */
+  private int[] agvIDs;
+
+  /** The next slot of the same AGV. */
+  private int[] nextOfAgv;
+
+  /** The previous slot of the same AGV. */
+  private int[] previousOfAgv;
+
+  /** The first slot of each AGV, indexed by the agv id. */
+  private int[] firstSlotOfAgv;
+
+  /** The heap priorities of the tree nodes. */
+  private long[] priorities;
+
+  /** The left children. Free slots are chained through this column. */
+  private int[] lefts;
+
+  /** The right children. */
+  private int[] rights;
+
+  /** The largest upper end point in the subtree of each node. */
+  private long[] maxUppers;
+
+  /** The smallest upper end point in the subtree of each node. */
+  private long[] minUppers;
+
+  /** The root of the tree. */
+  private int root;
+
+  /** The head of the free slot list. */
+  private int freeSlot;
+
+  /** The number of slots that have ever been used. */
+  private int usedSlots;
+
+  /** The number of reservations in the tree. */
+  private int size;
+
+  /** The evaporation queue, null if the index is not shared. */
+  private final EvaporationQueue evaporationQueue;
+
+  /** The insertion counter, hashed into the heap priorities. */
+  private long insertions;
+
+  /** The slots found by the last query. */
+  private int[] queryResult;
+
+  /** The number of slots found by the last query. */
+  private int queryResultSize;
+
+  /** The free ranges found by the last free range query. */
+  private long[] freeRanges;
+
+  /** The number of free ranges found by the last free range query. */
+  private int numOfFreeRanges;
+
+  /**
+   * Instantiates a new empty reservation index.
+   */
+  public ReservationIndex() {
+    this(null);
+  }
+
+  /**
+   * Instantiates a new empty reservation index whose reservations evaporate
+   * through the given queue.
+   *
+   * @param evaporationQueue the evaporation queue, or null
+   */
+  public ReservationIndex(EvaporationQueue evaporationQueue) {
+    this.evaporationQueue = evaporationQueue;
+    lowers = new long[INITIAL_CAPACITY];
+    uppers = new long[INITIAL_CAPACITY];
+    lifeTimes = new long[INITIAL_CAPACITY];
+    reservationIDs = new long[INITIAL_CAPACITY];
+    agvIDs = new int[INITIAL_CAPACITY];
+    nextOfAgv = new int[INITIAL_CAPACITY];
+    previousOfAgv = new int[INITIAL_CAPACITY];
+    firstSlotOfAgv = new int[0];
+    priorities = new long[INITIAL_CAPACITY];
+    lefts = new int[INITIAL_CAPACITY];
+    rights = new int[INITIAL_CAPACITY];
+    maxUppers = new long[INITIAL_CAPACITY];
+    minUppers = new long[INITIAL_CAPACITY];
+    queryResult = new int[INITIAL_CAPACITY];
+    freeRanges = new long[INITIAL_CAPACITY];
+    root = NONE;
+    freeSlot = NONE;
+    usedSlots = 0;
+    size = 0;
+    insertions = 0;
+  }
+
+  /**
+   * Adds the reservation of the open interval (lower, upper).
+   *
+   * @param agvID the agv id
+   * @param lifeTime the life time
+   * @param lower the lower end point
+   * @param upper the upper end point
+   * @return the slot of the reservation
+   */
+  public int add(int agvID, long lifeTime, long lower, long upper) {
+    if (lower >= upper) {
+      throw new IllegalArgumentException(
+          "Invalid reservation interval: (" + lower + ", " + upper + ")");
+    }
+    final int slot = allocateSlot();
+    lowers[slot] = lower;
+    uppers[slot] = upper;
+    lifeTimes[slot] = lifeTime;
+    agvIDs[slot] = agvID;
+    linkToAgv(slot, agvID);
+    final long reservationID = insertions++;
+    reservationIDs[slot] = reservationID;
+    // a cheap deterministic hash of the insertion counter as heap priority
+    long h = reservationID * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 32;
+    priorities[slot] = h;
+    lefts[slot] = NONE;
+    rights[slot] = NONE;
+    maxUppers[slot] = upper;
+    minUppers[slot] = upper;
+    root = insert(root, slot);
+    size++;
+    if (evaporationQueue != null) {
+      evaporationQueue.add(this, slot, reservationID, lifeTime);
+    }
+    return slot;
+  }
+
+  /**
+   * Removes the reservation in the given slot.
+   *
+   * @param slot the slot
+   */
+  public void remove(int slot) {
+    root = delete(root, slot);
+    unlinkFromAgv(slot);
+    reservationIDs[slot] = NONE;
+    lefts[slot] = freeSlot;
+    freeSlot = slot;
+    size--;
+  }
+
+  /**
+   * Removes the reservation in the slot if the slot still holds the
+   * reservation with the given id.
+   *
+   * @param slot the slot
+   * @param reservationID the reservation id
+   */
+  void removeIfPresent(int slot, long reservationID) {
+    if (reservationIDs[slot] == reservationID) {
+      remove(slot);
+    }
+  }
+
+  /**
+   * Removes all reservations of the AGV whose life time differs from the given
+   * one. Only the reservations of the AGV are visited.
+   *
+   * @param agvID the agv id
+   * @param lifeTime the life time to keep
+   */
+  public void removeOldReservations(int agvID, long lifeTime) {
+    int slot = getFirstSlotOfAgv(agvID);
+    while (slot != NONE) {
+      final int next = nextOfAgv[slot];
+      if (lifeTimes[slot] != lifeTime) {
+        remove(slot);
+      }
+      slot = next;
+    }
+  }
+
+  /**
+   * Gets the slot of the first reservation of the AGV. The other reservations
+   * of the AGV can be reached with {@link #getNextSlotOfAgv(int)}.
+   *
+   * @param agvID the agv id
+   * @return the slot, {@link #NONE} if the AGV has no reservation
+   */
+  public int getFirstSlotOfAgv(int agvID) {
+    return agvID < firstSlotOfAgv.length ? firstSlotOfAgv[agvID] : NONE;
+  }
+
+  /**
+   * Gets the slot of the next reservation of the same AGV.
+   *
+   * @param slot the slot
+   * @return the next slot, {@link #NONE} if there is none
+   */
+  public int getNextSlotOfAgv(int slot) {
+    return nextOfAgv[slot];
+  }
+
+  /**
+   * Removes the reservations whose life time is before the current time.
+   *
+   * @param currentTime the current time
+   */
+  public void removeOutdatedReservations(long currentTime) {
+    queryResultSize = 0;
+    collectOutdatedReservations(root, currentTime);
+    final int numOfSlots = queryResultSize;
+    for (int i = 0; i < numOfSlots; i++) {
+      remove(queryResult[i]);
+    }
+  }
+
+  /**
+   * Finds the reservations of other AGVs whose intervals overlap the closed
+   * window [from, to], i.e. lower &lt; to and upper &gt; from. With from == to
+   * it finds the reservations that contain the time point. The slots are
+   * found in the ascending order of the lower end points and can be read with
+   * {@link #getResultSlot(int)} until the next query.
+   *
+   * @param from the lower end point of the window
+   * @param to the upper end point of the window
+   * @param excludedAgvID the id of the AGV whose reservations are ignored
+   * @return the number of found reservations
+   */
+  public int findOverlapping(long from, long to, int excludedAgvID) {
+    queryResultSize = 0;
+    collectOverlapping(root, from, to, excludedAgvID);
+    return queryResultSize;
+  }
+
+  /**
+   * Gets a slot found by the last query.
+   *
+   * @param index the index in the query result
+   * @return the slot
+   */
+  public int getResultSlot(int index) {
+    return queryResult[index];
+  }
+
+  /**
+   * Gets the slot of the reservation of another AGV that starts at or after
+   * the given time earliest.
+   *
+   * @param time the time
+   * @param excludedAgvID the id of the AGV whose reservations are ignored
+   * @return the slot, {@link #NONE} if there is none
+   */
+  public int firstStartingFrom(long time, int excludedAgvID) {
+    return firstStartingFrom(root, time, excludedAgvID);
+  }
+
+  /**
+   * Gets the largest upper end point of the reservations of other AGVs that
+   * start strictly before the given time.
+   *
+   * @param time the time
+   * @param excludedAgvID the id of the AGV whose reservations are ignored
+   * @return the largest upper end point, Long.MIN_VALUE if there is none
+   */
+  public long maxUpperStartingBefore(long time, int excludedAgvID) {
+    return maxUpperStartingBefore(root, time, excludedAgvID, Long.MIN_VALUE);
+  }
+
+  /**
+   * Gets the smallest upper end point of the reservations of other AGVs that
+   * start strictly after the given time.
+   *
+   * @param time the time
+   * @param excludedAgvID the id of the AGV whose reservations are ignored
+   * @return the smallest upper end point, Long.MAX_VALUE if there is none
+   */
+  public long minUpperStartingAfter(long time, int excludedAgvID) {
+    return minUpperStartingAfter(root, time, excludedAgvID, Long.MAX_VALUE);
+  }
+
+  /**
+   * Finds the free ranges of the resource that start at or after from and are
+   * connected to the closed window [from, to]. A free range is a closed range
+   * that is not covered by the reservations of other AGVs; the last one has
+   * {@link FreeTimeWindow#UNBOUNDED} as upper end point. The ranges can be read
+   * with {@link #getFreeRangeLower(int)} and {@link #getFreeRangeUpper(int)}
+   * until the next free range query.
+   *
+   * @param from the lower end point of the window
+   * @param to the upper end point of the window, or
+   *          {@link FreeTimeWindow#UNBOUNDED}
+   * @param excludedAgvID the id of the AGV whose reservations are ignored
+   * @param ignoreEnclosed if true, the reservations that totally lie in the
+   *          window are ignored
+   * @return the number of free ranges
+   */
+  public int findFreeRanges(long from, long to, int excludedAgvID,
+      boolean ignoreEnclosed) {
+    numOfFreeRanges = 0;
+    long freeFrom = from;
+    final int numOfOverlapping = findOverlapping(from, to, excludedAgvID);
+    for (int i = 0; i < numOfOverlapping; i++) {
+      final int slot = queryResult[i];
+      if (ignoreEnclosed && lowers[slot] >= from && uppers[slot] <= to) {
+        continue;
+      }
+      freeFrom = cover(freeFrom, to, lowers[slot], uppers[slot]);
+    }
+    if (to != FreeTimeWindow.UNBOUNDED) {
+      // the first reservation after the window closes the last free range
+      final int next = firstStartingFrom(to, excludedAgvID);
+      if (next != NONE) {
+        freeFrom = cover(freeFrom, to, lowers[next], uppers[next]);
+      }
+    }
+    if (freeFrom <= to) {
+      addFreeRange(freeFrom, FreeTimeWindow.UNBOUNDED);
+    }
+    return numOfFreeRanges;
+  }
+
+  /**
+   * Gets the lower end point of a free range found by the last free range
+   * query.
+   *
+   * @param index the index of the free range
+   * @return the lower end point
+   */
+  public long getFreeRangeLower(int index) {
+    return freeRanges[index * 2];
+  }
+
+  /**
+   * Gets the upper end point of a free range found by the last free range
+   * query.
+   *
+   * @param index the index of the free range
+   * @return the upper end point
+   */
+  public long getFreeRangeUpper(int index) {
+    return freeRanges[index * 2 + 1];
+  }
+
+  /**
+   * Gets the lower end point of the reservation in the slot.
+   *
+   * @param slot the slot
+   * @return the lower end point
+   */
+  public long getLower(int slot) {
+    return lowers[slot];
+  }
+
+  /**
+   * Gets the upper end point of the reservation in the slot.
+   *
+   * @param slot the slot
+   * @return the upper end point
+   */
+  public long getUpper(int slot) {
+    return uppers[slot];
+  }
+
+  /**
+   * Gets the life time of the reservation in the slot.
+   *
+   * @param slot the slot
+   * @return the life time
+   */
+  public long getLifeTime(int slot) {
+    return lifeTimes[slot];
+  }
+
+  /**
+   * Gets the id of the AGV that made the reservation in the slot.
+   *
+   * @param slot the slot
+   * @return the agv id
+   */
+  public int getAgvID(int slot) {
+    return agvIDs[slot];
+  }
+
+  /**
+   * Gets the number of reservations.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if there is no reservation.
+   *
+   * @return true, if empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Covers the open interval (lower, upper) on the time line and records the
+   * free range that ends at the start of the interval, if it is connected to
+   * the window.
+   *
+   * @param freeFrom the start of the current free range
+   * @param to the upper end point of the window
+   * @param lower the lower end point of the reservation
+   * @param upper the upper end point of the reservation
+   * @return the start of the next free range
+   */
+  private long cover(long freeFrom, long to, long lower, long upper) {
+    if (lower >= freeFrom && freeFrom <= to) {
+      addFreeRange(freeFrom, lower);
+    }
+    return Math.max(freeFrom, upper);
+  }
+
+  private void addFreeRange(long lower, long upper) {
+    if (numOfFreeRanges * 2 == freeRanges.length) {
+      freeRanges = Arrays.copyOf(freeRanges, freeRanges.length * 2);
+    }
+    freeRanges[numOfFreeRanges * 2] = lower;
+    freeRanges[numOfFreeRanges * 2 + 1] = upper;
+    numOfFreeRanges++;
+  }
+
+  private void addResult(int slot) {
+    if (queryResultSize == queryResult.length) {
+      queryResult = Arrays.copyOf(queryResult, queryResult.length * 2);
+    }
+    queryResult[queryResultSize++] = slot;
+  }
+
+  private int allocateSlot() {
+    if (freeSlot != NONE) {
+      final int slot = freeSlot;
+      freeSlot = lefts[slot];
+      return slot;
+    }
+    if (usedSlots == lowers.length) {
+      final int capacity = lowers.length * 2;
+      lowers = Arrays.copyOf(lowers, capacity);
+      uppers = Arrays.copyOf(uppers, capacity);
+      lifeTimes = Arrays.copyOf(lifeTimes, capacity);
+      reservationIDs = Arrays.copyOf(reservationIDs, capacity);
+      agvIDs = Arrays.copyOf(agvIDs, capacity);
+      nextOfAgv = Arrays.copyOf(nextOfAgv, capacity);
+      previousOfAgv = Arrays.copyOf(previousOfAgv, capacity);
+      priorities = Arrays.copyOf(priorities, capacity);
+      lefts = Arrays.copyOf(lefts, capacity);
+      rights = Arrays.copyOf(rights, capacity);
+      maxUppers = Arrays.copyOf(maxUppers, capacity);
+      minUppers = Arrays.copyOf(minUppers, capacity);
+    }
+    return usedSlots++;
+  }
+
+  private void linkToAgv(int slot, int agvID) {
+    if (agvID < 0) {
+      throw new IllegalArgumentException("Invalid agv id: " + agvID);
+    }
+    if (agvID >= firstSlotOfAgv.length) {
+      final int oldLength = firstSlotOfAgv.length;
+      firstSlotOfAgv = Arrays.copyOf(firstSlotOfAgv,
+          Math.max(agvID + 1, oldLength * 2));
+      Arrays.fill(firstSlotOfAgv, oldLength, firstSlotOfAgv.length, NONE);
+    }
+    final int first = firstSlotOfAgv[agvID];
+    nextOfAgv[slot] = first;
+    previousOfAgv[slot] = NONE;
+    if (first != NONE) {
+      previousOfAgv[first] = slot;
+    }
+    firstSlotOfAgv[agvID] = slot;
+  }
+
+  private void unlinkFromAgv(int slot) {
+    final int next = nextOfAgv[slot];
+    final int previous = previousOfAgv[slot];
+    if (previous != NONE) {
+      nextOfAgv[previous] = next;
+    } else {
+      firstSlotOfAgv[agvIDs[slot]] = next;
+    }
+    if (next != NONE) {
+      previousOfAgv[next] = previous;
+    }
+  }
+
+  private void collectOverlapping(int t, long from, long to,
+      int excludedAgvID) {
+    // no interval in this subtree ends after the start of the window
+    if (t == NONE || maxUppers[t] <= from) {
+      return;
+    }
+    collectOverlapping(lefts[t], from, to, excludedAgvID);
+    // the right subtree only contains intervals starting at or after lowers[t]
+    if (lowers[t] < to) {
+      if (uppers[t] > from && agvIDs[t] != excludedAgvID) {
+        addResult(t);
+      }
+      collectOverlapping(rights[t], from, to, excludedAgvID);
+    }
+  }
+
+  private void collectOutdatedReservations(int t, long currentTime) {
+    if (t == NONE) {
+      return;
+    }
+    collectOutdatedReservations(lefts[t], currentTime);
+    if (lifeTimes[t] < currentTime) {
+      addResult(t);
+    }
+    collectOutdatedReservations(rights[t], currentTime);
+  }
+
+  private int firstStartingFrom(int t, long time, int excludedAgvID) {
+    if (t == NONE) {
+      return NONE;
+    }
+    if (lowers[t] < time) {
+      return firstStartingFrom(rights[t], time, excludedAgvID);
+    }
+    final int first = firstStartingFrom(lefts[t], time, excludedAgvID);
+    if (first != NONE) {
+      return first;
+    }
+    if (agvIDs[t] != excludedAgvID) {
+      return t;
+    }
+    return firstStartingFrom(rights[t], time, excludedAgvID);
+  }
+
+  private long maxUpperStartingBefore(int t, long time, int excludedAgvID,
+      long best) {
+    if (t == NONE || maxUppers[t] <= best) {
+      return best;
+    }
+    if (lowers[t] >= time) {
+      return maxUpperStartingBefore(lefts[t], time, excludedAgvID, best);
+    }
+    long result = maxUpperStartingBefore(lefts[t], time, excludedAgvID, best);
+    if (agvIDs[t] != excludedAgvID && uppers[t] > result) {
+      result = uppers[t];
+    }
+    return maxUpperStartingBefore(rights[t], time, excludedAgvID, result);
+  }
+
+  private long minUpperStartingAfter(int t, long time, int excludedAgvID,
+      long best) {
+    if (t == NONE || minUppers[t] >= best) {
+      return best;
+    }
+    if (lowers[t] <= time) {
+      return minUpperStartingAfter(rights[t], time, excludedAgvID, best);
+    }
+    long result = minUpperStartingAfter(lefts[t], time, excludedAgvID, best);
+    if (agvIDs[t] != excludedAgvID && uppers[t] < result) {
+      result = uppers[t];
+    }
+    return minUpperStartingAfter(rights[t], time, excludedAgvID, result);
+  }
+
+  private int insert(int t, int slot) {
+    if (t == NONE) {
+      return slot;
+    }
+    if (compare(slot, t) < 0) {
+      lefts[t] = insert(lefts[t], slot);
+      if (priorities[lefts[t]] > priorities[t]) {
+        return rotateRight(t);
+      }
+    } else {
+      rights[t] = insert(rights[t], slot);
+      if (priorities[rights[t]] > priorities[t]) {
+        return rotateLeft(t);
+      }
+    }
+    update(t);
+    return t;
+  }
+
+  private int delete(int t, int slot) {
+    if (t == NONE) {
+      throw new IllegalStateException("The reservation is not in the index");
+    }
+    final int c = compare(slot, t);
+    if (c < 0) {
+      lefts[t] = delete(lefts[t], slot);
+    } else if (c > 0) {
+      rights[t] = delete(rights[t], slot);
+    } else {
+      return merge(lefts[t], rights[t]);
+    }
+    update(t);
+    return t;
+  }
+
+  private int merge(int left, int right) {
+    if (left == NONE) {
+      return right;
+    }
+    if (right == NONE) {
+      return left;
+    }
+    if (priorities[left] > priorities[right]) {
+      rights[left] = merge(rights[left], right);
+      update(left);
+      return left;
+    } else {
+      lefts[right] = merge(left, lefts[right]);
+      update(right);
+      return right;
+    }
+  }
+
+  private int rotateRight(int t) {
+    final int left = lefts[t];
+    lefts[t] = rights[left];
+    update(t);
+    rights[left] = t;
+    update(left);
+    return left;
+  }
+
+  private int rotateLeft(int t) {
+    final int right = rights[t];
+    rights[t] = lefts[right];
+    update(t);
+    lefts[right] = t;
+    update(right);
+    return right;
+  }
+
+  private void update(int t) {
+    long max = uppers[t];
+    long min = uppers[t];
+    final int left = lefts[t];
+    if (left != NONE) {
+      max = Math.max(max, maxUppers[left]);
+      min = Math.min(min, minUppers[left]);
+    }
+    final int right = rights[t];
+    if (right != NONE) {
+      max = Math.max(max, maxUppers[right]);
+      min = Math.min(min, minUppers[right]);
+    }
+    maxUppers[t] = max;
+    minUppers[t] = min;
+  }
+
+  /**
+   * Compares two slots by the lower end points, ties broken by the slot.
+   */
+  private int compare(int a, int b) {
+    if (lowers[a] != lowers[b]) {
+      return lowers[a] < lowers[b] ? -1 : 1;
+    }
+    return a < b ? -1 : (a == b ? 0 : 1);
+  }
+}
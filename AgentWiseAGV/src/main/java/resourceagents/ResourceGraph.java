@@ -0,0 +1,402 @@
+package resourceagents;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.rinde.rinsim.geom.ConnectionData;
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.geom.Point;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * The Class ResourceGraph.
+ * It is a compiled copy of the road graph in which every node has an id from 0
+ * to the number of nodes - 1 and every edge (the two directions of a road
+ * together) has an id from 0 to the number of edges - 1. The outgoing
+ * connections are stored in compressed sparse row form: the connections of
+ * node i are the slots from {@link #getFirstOutgoingSlot(int)} to
+ * {@link #getLastOutgoingSlot(int)} (exclusive), in the same order as the
+ * road graph returns them. The incoming connections are stored in the same
+ * form. Points are only needed at the boundary with the simulator.
+ *
+ * @author Tung
+ */
+public class ResourceGraph {
+
+  /** The nodes, indexed by node id. */
+  private final Point[] nodes;
+
+  /** The node ids. */
+  private final Map<Point, Integer> nodeIDs;
+
+  /** The first outgoing slot of each node, with one extra entry at the end. */
+  private final int[] firstOutgoingSlots;
+
+  /** The end node of each outgoing slot. */
+  private final int[] outgoingNodes;
+
+  /** The edge of each outgoing slot. */
+  private final int[] outgoingEdges;
+
+  /** The length of the connection of each outgoing slot. */
+  private final double[] outgoingLengths;
+
+  /** The first incoming slot of each node, with one extra entry at the end. */
+  private final int[] firstIncomingSlots;
+
+  /** The start node of each incoming slot. */
+  private final int[] incomingNodes;
+
+  /** The length of the connection of each incoming slot. */
+  private final double[] incomingLengths;
+
+  /** The first node of each edge. */
+  private final int[] edgeNodes1;
+
+  /** The second node of each edge. */
+  private final int[] edgeNodes2;
+
+  /** The length of each edge. */
+  private final double[] edgeLengths;
+
+  /** The fingerprint of the nodes and connections. */
+  private final HashCode fingerprint;
+
+  /**
+   * Instantiates a new resource graph.
+   *
+   * @param graph the road graph
+   */
+  public ResourceGraph(Graph<? extends ConnectionData> graph) {
+    final Set<Point> allNodes = graph.getNodes();
+    final int numOfNodes = allNodes.size();
+    nodes = new Point[numOfNodes];
+    nodeIDs = new HashMap<>();
+    for (Point node : allNodes) {
+      nodes[nodeIDs.size()] = node;
+      nodeIDs.put(node, nodeIDs.size());
+    }
+
+    firstOutgoingSlots = new int[numOfNodes + 1];
+    outgoingNodes = new int[graph.getNumberOfConnections()];
+    outgoingEdges = new int[outgoingNodes.length];
+    outgoingLengths = new double[outgoingNodes.length];
+    final List<Integer> edgeNodeList1 = new ArrayList<>();
+    final List<Integer> edgeNodeList2 = new ArrayList<>();
+    final List<Double> edgeLengthList = new ArrayList<>();
+
+    int slot = 0;
+    for (int node = 0; node < numOfNodes; node++) {
+      firstOutgoingSlots[node] = slot;
+      final Collection<Point> connectedNodes = graph
+          .getOutgoingConnections(nodes[node]);
+      for (Point outgoingNode : connectedNodes) {
+        final int nextNode = nodeIDs.get(outgoingNode);
+        // the edge is created when one of its directions is found first
+        int edge = findEdge(nextNode, node);
+        if (edge == -1) {
+          edge = edgeLengthList.size();
+          edgeNodeList1.add(node);
+          edgeNodeList2.add(nextNode);
+          edgeLengthList.add(
+              graph.getConnection(nodes[node], outgoingNode).getLength());
+        }
+        outgoingNodes[slot] = nextNode;
+        outgoingEdges[slot] = edge;
+        outgoingLengths[slot] = graph.getConnection(nodes[node], outgoingNode)
+            .getLength();
+        slot++;
+      }
+    }
+    firstOutgoingSlots[numOfNodes] = slot;
+
+    edgeNodes1 = new int[edgeLengthList.size()];
+    edgeNodes2 = new int[edgeLengthList.size()];
+    edgeLengths = new double[edgeLengthList.size()];
+    for (int edge = 0; edge < edgeLengths.length; edge++) {
+      edgeNodes1[edge] = edgeNodeList1.get(edge);
+      edgeNodes2[edge] = edgeNodeList2.get(edge);
+      edgeLengths[edge] = edgeLengthList.get(edge);
+    }
+
+    // the incoming slots are the outgoing slots grouped by their end node
+    firstIncomingSlots = new int[numOfNodes + 1];
+    incomingNodes = new int[outgoingNodes.length];
+    incomingLengths = new double[outgoingNodes.length];
+    for (int outgoingSlot = 0; outgoingSlot < slot; outgoingSlot++) {
+      firstIncomingSlots[outgoingNodes[outgoingSlot] + 1]++;
+    }
+    for (int node = 0; node < numOfNodes; node++) {
+      firstIncomingSlots[node + 1] += firstIncomingSlots[node];
+    }
+    final int[] nextIncomingSlots = Arrays.copyOf(firstIncomingSlots,
+        numOfNodes);
+    for (int node = 0; node < numOfNodes; node++) {
+      for (int outgoingSlot = firstOutgoingSlots[node];
+          outgoingSlot < firstOutgoingSlots[node + 1]; outgoingSlot++) {
+        final int nextNode = outgoingNodes[outgoingSlot];
+        final int incomingSlot = nextIncomingSlots[nextNode]++;
+        incomingNodes[incomingSlot] = node;
+        incomingLengths[incomingSlot] = outgoingLengths[outgoingSlot];
+      }
+    }
+
+    final Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (int node = 0; node < numOfNodes; node++) {
+      hasher.putDouble(nodes[node].x).putDouble(nodes[node].y);
+      hasher.putInt(firstOutgoingSlots[node + 1]);
+    }
+    for (int outgoingSlot = 0; outgoingSlot < slot; outgoingSlot++) {
+      hasher.putInt(outgoingNodes[outgoingSlot])
+          .putDouble(outgoingLengths[outgoingSlot]);
+    }
+    fingerprint = hasher.hash();
+  }
+
+  /**
+   * Finds the edge of a connection while the slots are being filled.
+   *
+   * @param from the start node
+   * @param to the end node
+   * @return the edge id, -1 if the connection is not found
+   */
+  private int findEdge(int from, int to) {
+    if (from >= to) {
+      // the slots of the start node are not filled yet (or it is a self loop)
+      return -1;
+    }
+    return getEdgeID(from, to);
+  }
+
+  /**
+   * Gets the number of nodes.
+   *
+   * @return the number of nodes
+   */
+  public int getNumOfNodes() {
+    return nodes.length;
+  }
+
+  /**
+   * Gets the number of connections, which is the number of outgoing slots.
+   *
+   * @return the number of connections
+   */
+  public int getNumOfConnections() {
+    return outgoingNodes.length;
+  }
+
+  /**
+   * Gets the number of edges.
+   *
+   * @return the number of edges
+   */
+  public int getNumOfEdges() {
+    return edgeLengths.length;
+  }
+
+  /**
+   * Gets the node.
+   *
+   * @param node the node id
+   * @return the node
+   */
+  public Point getNode(int node) {
+    return nodes[node];
+  }
+
+  /**
+   * Gets the nodes of a path.
+   *
+   * @param path the node ids of the path
+   * @return the nodes
+   */
+  public List<Point> getNodes(int[] path) {
+    final List<Point> points = new ArrayList<>(path.length);
+    for (int node : path) {
+      points.add(nodes[node]);
+    }
+    return points;
+  }
+
+  /**
+   * Gets the node id.
+   *
+   * @param node the node
+   * @return the node id
+   */
+  public int getNodeID(Point node) {
+    return nodeIDs.get(node);
+  }
+
+  /**
+   * Gets the node ids of a path.
+   *
+   * @param path the path
+   * @return the node ids
+   */
+  public int[] getNodeIDs(List<Point> path) {
+    final int[] ids = new int[path.size()];
+    int i = 0;
+    for (Point node : path) {
+      ids[i++] = nodeIDs.get(node);
+    }
+    return ids;
+  }
+
+  /**
+   * Gets the first outgoing slot of the node.
+   *
+   * @param node the node id
+   * @return the first outgoing slot
+   */
+  public int getFirstOutgoingSlot(int node) {
+    return firstOutgoingSlots[node];
+  }
+
+  /**
+   * Gets the slot after the last outgoing slot of the node.
+   *
+   * @param node the node id
+   * @return the slot after the last outgoing slot
+   */
+  public int getLastOutgoingSlot(int node) {
+    return firstOutgoingSlots[node + 1];
+  }
+
+  /**
+   * Gets the end node of the outgoing slot.
+   *
+   * @param slot the slot
+   * @return the end node id
+   */
+  public int getOutgoingNode(int slot) {
+    return outgoingNodes[slot];
+  }
+
+  /**
+   * Gets the edge of the outgoing slot.
+   *
+   * @param slot the slot
+   * @return the edge id
+   */
+  public int getOutgoingEdge(int slot) {
+    return outgoingEdges[slot];
+  }
+
+  /**
+   * Gets the length of the connection of the outgoing slot.
+   *
+   * @param slot the slot
+   * @return the length
+   */
+  public double getOutgoingLength(int slot) {
+    return outgoingLengths[slot];
+  }
+
+  /**
+   * Gets the first incoming slot of the node.
+   *
+   * @param node the node id
+   * @return the first incoming slot
+   */
+  public int getFirstIncomingSlot(int node) {
+    return firstIncomingSlots[node];
+  }
+
+  /**
+   * Gets the slot after the last incoming slot of the node.
+   *
+   * @param node the node id
+   * @return the slot after the last incoming slot
+   */
+  public int getLastIncomingSlot(int node) {
+    return firstIncomingSlots[node + 1];
+  }
+
+  /**
+   * Gets the start node of the incoming slot.
+   *
+   * @param slot the slot
+   * @return the start node id
+   */
+  public int getIncomingNode(int slot) {
+    return incomingNodes[slot];
+  }
+
+  /**
+   * Gets the length of the connection of the incoming slot.
+   *
+   * @param slot the slot
+   * @return the length
+   */
+  public double getIncomingLength(int slot) {
+    return incomingLengths[slot];
+  }
+
+  /**
+   * Gets the edge between two nodes.
+   *
+   * @param from the start node id
+   * @param to the end node id
+   * @return the edge id, -1 if there is no connection from the start node to
+   *         the end node
+   */
+  public int getEdgeID(int from, int to) {
+    for (int slot = firstOutgoingSlots[from]; slot < firstOutgoingSlots[from
+        + 1]; slot++) {
+      if (outgoingNodes[slot] == to) {
+        return outgoingEdges[slot];
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the first node of the edge.
+   *
+   * @param edge the edge id
+   * @return the first node id
+   */
+  public int getEdgeNode1(int edge) {
+    return edgeNodes1[edge];
+  }
+
+  /**
+   * Gets the second node of the edge.
+   *
+   * @param edge the edge id
+   * @return the second node id
+   */
+  public int getEdgeNode2(int edge) {
+    return edgeNodes2[edge];
+  }
+
+  /**
+   * Gets the length of the edge.
+   *
+   * @param edge the edge id
+   * @return the length
+   */
+  public double getEdgeLength(int edge) {
+    return edgeLengths[edge];
+  }
+
+  /**
+   * Gets the fingerprint of the graph. Two resource graphs with the same
+   * fingerprint have the same nodes with the same ids and the same
+   * connections, so tables indexed by node id can be shared between them.
+   *
+   * @return the fingerprint
+   */
+  public HashCode getFingerprint() {
+    return fingerprint;
+  }
+}
@@ -0,0 +1,108 @@
+package routeplan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import heuristic.HeuristicCache;
+import heuristic.ShortestPathLengths;
+import resourceagents.ResourceGraph;
+
+/**
+ * The Class AlternativePaths.
+ * It finds alternative paths from an origin through a sequence of
+ * destinations with the penalty method: after a path is found, every
+ * connection on it gets a penalty, so the next shortest path tends to use
+ * other connections. The penalty of the i-th path is 0.5^i times the initial
+ * penalty. The legs between the destinations are searched separately and
+ * joined.
+ *
+ * <p>
+ * The searches share their state: the penalties are kept in one
+ * {@link PenaltyGraph}, whose arrays are reused by all searches, and the
+ * heuristic of the search to a destination is the table of shortest path
+ * lengths to it from the {@link HeuristicCache}, which is computed once per
+ * map and destination instead of once per search. The search trees are not
+ * shared: every path runs a new search per leg, so a call still runs
+ * numOfPaths times the number of destinations searches, like the former
+ * sampling. Only each search is cheaper.
+ *
+ * @author Tung
+ */
+public class AlternativePaths {
+
+  /** The initial penalty. */
+  private static final double INITIAL_PENALTY = 2 * 8;
+
+  /** The resource graph. */
+  private final ResourceGraph resourceGraph;
+
+  /** The penalty graph. */
+  private final PenaltyGraph penaltyGraph;
+
+  /**
+   * Instantiates a new alternative paths.
+   *
+   * @param resourceGraph the resource graph
+   */
+  public AlternativePaths(ResourceGraph resourceGraph) {
+    this.resourceGraph = resourceGraph;
+    penaltyGraph = new PenaltyGraph(resourceGraph);
+  }
+
+  /**
+   * Gets the alternative paths. The same path can be found more than once.
+   *
+   * @param origin the id of the origin
+   * @param destinations the ids of the destinations, in the order in which
+   *          they are visited
+   * @param numOfPaths the number of paths
+   * @param removedNodes the ids of the nodes that the paths do not enter
+   * @return the node ids of the paths, from the origin to the last
+   *         destination
+   */
+  public List<int[]> getAlternativePaths(int origin, int[] destinations,
+      int numOfPaths, int[] removedNodes) {
+    // the penalties of the previous paths are removed
+    penaltyGraph.reset();
+    for (int node : removedNodes) {
+      penaltyGraph.removeNode(node);
+    }
+
+    final ShortestPathLengths[] lengthsToDestinations =
+        new ShortestPathLengths[destinations.length];
+    for (int dest = 0; dest < destinations.length; dest++) {
+      lengthsToDestinations[dest] = HeuristicCache
+          .getShortestPathLengths(resourceGraph, destinations[dest]);
+    }
+
+    final List<int[]> paths = new ArrayList<>(numOfPaths);
+    final int[][] legs = new int[destinations.length][];
+    for (int i = 0; i < numOfPaths; i++) {
+      int pathLength = 1;
+      int from = origin;
+      for (int dest = 0; dest < destinations.length; dest++) {
+        legs[dest] = penaltyGraph.getShortestPath(from, destinations[dest],
+            lengthsToDestinations[dest]);
+        pathLength += legs[dest].length - 1;
+        from = destinations[dest];
+      }
+
+      // the legs are joined, the first node of a leg is the last node of the
+      // previous one
+      final int[] path = new int[pathLength];
+      path[0] = origin;
+      int index = 1;
+      for (int[] leg : legs) {
+        System.arraycopy(leg, 1, path, index, leg.length - 1);
+        index += leg.length - 1;
+      }
+      paths.add(path);
+
+      final double penalty = Math.pow(0.5, i) * INITIAL_PENALTY;
+      for (int node = 0; node < path.length - 1; node++) {
+        penaltyGraph.addPenalty(path[node], path[node + 1], penalty);
+      }
+    }
+    return paths;
+  }
+}
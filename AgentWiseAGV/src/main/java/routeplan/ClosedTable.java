@@ -0,0 +1,193 @@
+package routeplan;
+
+import java.util.Arrays;
+
+import resourceagents.FreeTimeWindow;
+
+/**
+ * The Class ClosedTable. The closed set of the route planners: the free time
+ * windows that have been reached, grouped by stage, resource and candidate
+ * path. The groups are found in an open-addressing hash table with primitive
+ * keys and the windows of a group are chained in primitive arrays, so adding
+ * a window neither boxes nor hashes the window.
+ *
+ * <p>
+ * A window is only added if no window of its group dominates it. A window
+ * dominates another one if the AGV can enter it no later, leave it no later
+ * and leave it until no earlier time: every plan that continues from the
+ * dominated window can continue from the dominating window, and arrives no
+ * later. The planners use the same exit window of a plan to find the next
+ * windows, so dropping a dominated window does not make their plans worse.
+ */
+public class ClosedTable {
+
+  /** The value of an empty hash table slot or the end of a chain. */
+  private static final int NONE = -1;
+
+  /** The initial number of hash table slots, a power of two. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** The stages of the groups of the hash table slots. */
+  private int[] stages;
+
+  /** The resources of the groups of the hash table slots. */
+  private int[] resources;
+
+  /** The candidate paths of the groups of the hash table slots. */
+  private int[] candidates;
+
+  /** The last window of the group of each slot, NONE for empty slots. */
+  private int[] lastWindows;
+
+  /** The number of groups. */
+  private int numOfGroups;
+
+  /** The lower end points of the entry windows of the windows. */
+  private long[] entryLowerEndpoints;
+
+  /** The lower end points of the exit windows of the windows. */
+  private long[] exitLowerEndpoints;
+
+  /** The upper end points of the exit windows of the windows. */
+  private long[] exitUpperEndpoints;
+
+  /** The previous window of the same group, NONE for the first one. */
+  private int[] previousWindows;
+
+  /** The number of windows. */
+  private int numOfWindows;
+
+  /**
+   * Instantiates a new empty closed table.
+   */
+  public ClosedTable() {
+    stages = new int[INITIAL_CAPACITY];
+    resources = new int[INITIAL_CAPACITY];
+    candidates = new int[INITIAL_CAPACITY];
+    lastWindows = new int[INITIAL_CAPACITY];
+    Arrays.fill(lastWindows, NONE);
+    numOfGroups = 0;
+    entryLowerEndpoints = new long[INITIAL_CAPACITY];
+    exitLowerEndpoints = new long[INITIAL_CAPACITY];
+    exitUpperEndpoints = new long[INITIAL_CAPACITY];
+    previousWindows = new int[INITIAL_CAPACITY];
+    numOfWindows = 0;
+  }
+
+  /**
+   * Adds the free time window unless it or a window that dominates it has
+   * been added for the same stage, resource and candidate path.
+   *
+   * @param stage the stage, or 0 if the planner has no stages
+   * @param resource the id of the resource, unique among the resources that
+   *          the planner reserves
+   * @param candidate the trie node of the candidate paths, or 0 if the
+   *          planner has no candidate paths
+   * @param freeTimeWindow the free time window
+   * @return true, if the window is added; false, if it is dominated
+   */
+  public boolean add(int stage, int resource, int candidate,
+      FreeTimeWindow freeTimeWindow) {
+    final long entryLowerEndpoint = freeTimeWindow.getEntryLowerEndpoint();
+    final long exitLowerEndpoint = freeTimeWindow.getExitLowerEndpoint();
+    final long exitUpperEndpoint = freeTimeWindow.getExitUpperEndpoint();
+
+    final int slot = findSlot(stage, resource, candidate);
+    for (int window = lastWindows[slot]; window != NONE;
+        window = previousWindows[window]) {
+      if (entryLowerEndpoints[window] <= entryLowerEndpoint
+          && exitLowerEndpoints[window] <= exitLowerEndpoint
+          && exitUpperEndpoints[window] >= exitUpperEndpoint) {
+        return false;
+      }
+    }
+
+    if (numOfWindows == entryLowerEndpoints.length) {
+      final int capacity = numOfWindows * 2;
+      entryLowerEndpoints = Arrays.copyOf(entryLowerEndpoints, capacity);
+      exitLowerEndpoints = Arrays.copyOf(exitLowerEndpoints, capacity);
+      exitUpperEndpoints = Arrays.copyOf(exitUpperEndpoints, capacity);
+      previousWindows = Arrays.copyOf(previousWindows, capacity);
+    }
+    final int window = numOfWindows++;
+    entryLowerEndpoints[window] = entryLowerEndpoint;
+    exitLowerEndpoints[window] = exitLowerEndpoint;
+    exitUpperEndpoints[window] = exitUpperEndpoint;
+    previousWindows[window] = lastWindows[slot];
+
+    if (lastWindows[slot] == NONE) {
+      // a new group
+      stages[slot] = stage;
+      resources[slot] = resource;
+      candidates[slot] = candidate;
+      numOfGroups++;
+    }
+    lastWindows[slot] = window;
+
+    if (numOfGroups * 2 > lastWindows.length) {
+      rehash(lastWindows.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   * Gets the number of windows in the table.
+   *
+   * @return the number of windows
+   */
+  public int size() {
+    return numOfWindows;
+  }
+
+  /**
+   * Finds the slot of the group, or the empty slot where it belongs.
+   *
+   * @param stage the stage
+   * @param resource the resource
+   * @param candidate the candidate path
+   * @return the slot
+   */
+  private int findSlot(int stage, int resource, int candidate) {
+    final int mask = lastWindows.length - 1;
+    int slot = hash(stage, resource, candidate) & mask;
+    while (lastWindows[slot] != NONE && (stages[slot] != stage
+        || resources[slot] != resource || candidates[slot] != candidate)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Moves the groups to a hash table with more slots.
+   *
+   * @param capacity the number of slots, a power of two
+   */
+  private void rehash(int capacity) {
+    final int[] oldStages = stages;
+    final int[] oldResources = resources;
+    final int[] oldCandidates = candidates;
+    final int[] oldLastWindows = lastWindows;
+    stages = new int[capacity];
+    resources = new int[capacity];
+    candidates = new int[capacity];
+    lastWindows = new int[capacity];
+    Arrays.fill(lastWindows, NONE);
+    for (int oldSlot = 0; oldSlot < oldLastWindows.length; oldSlot++) {
+      if (oldLastWindows[oldSlot] != NONE) {
+        final int slot = findSlot(oldStages[oldSlot], oldResources[oldSlot],
+            oldCandidates[oldSlot]);
+        stages[slot] = oldStages[oldSlot];
+        resources[slot] = oldResources[oldSlot];
+        candidates[slot] = oldCandidates[oldSlot];
+        lastWindows[slot] = oldLastWindows[oldSlot];
+      }
+    }
+  }
+
+  private static int hash(int stage, int resource, int candidate) {
+    int hash = resource * 0x9E3779B9 + stage * 0x85EBCA6B
+        + candidate * 0xC2B2AE35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+}
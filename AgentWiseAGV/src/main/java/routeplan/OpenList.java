@@ -0,0 +1,231 @@
+package routeplan;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The Class OpenList. The open list of the route planners: a binary min-heap
+ * with primitive long keys. Elements with the same key are polled in the order
+ * in which they were added. Every added element gets a handle that can be used
+ * to decrease its key while it is in the list.
+ *
+ * @param <E> the type of the elements
+ */
+public class OpenList<E> {
+
+  /** The handle value of elements that are not in the list anymore. */
+  public static final int NONE = -1;
+
+  /** The initial capacity of the heap. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** The keys of the heap entries. */
+  private long[] keys;
+
+  /** The handles of the heap entries, also used for tie-breaking. */
+  private int[] handles;
+
+  /** The elements of the heap entries. */
+  private Object[] elements;
+
+  /** The position in the heap of each handle, NONE if polled. */
+  private int[] positions;
+
+  /** The number of elements in the heap. */
+  private int size;
+
+  /** The next handle. */
+  private int nextHandle;
+
+  /**
+   * Instantiates a new empty open list.
+   */
+  public OpenList() {
+    keys = new long[INITIAL_CAPACITY];
+    handles = new int[INITIAL_CAPACITY];
+    elements = new Object[INITIAL_CAPACITY];
+    positions = new int[INITIAL_CAPACITY];
+    size = 0;
+    nextHandle = 0;
+  }
+
+  /**
+   * Adds the element with the key.
+   *
+   * @param key the key
+   * @param element the element
+   * @return the handle of the element
+   */
+  public int add(long key, E element) {
+    if (size == keys.length) {
+      final int capacity = size * 2;
+      keys = Arrays.copyOf(keys, capacity);
+      handles = Arrays.copyOf(handles, capacity);
+      elements = Arrays.copyOf(elements, capacity);
+    }
+    if (nextHandle == positions.length) {
+      positions = Arrays.copyOf(positions, nextHandle * 2);
+    }
+    final int handle = nextHandle++;
+    siftUp(size++, key, handle, element);
+    return handle;
+  }
+
+  /**
+   * Decreases the key of the element with the handle. Nothing changes if the
+   * new key is not smaller than the current one.
+   *
+   * @param handle the handle
+   * @param newKey the new key
+   */
+  public void decreaseKey(int handle, long newKey) {
+    final int position = positions[handle];
+    if (position == NONE) {
+      throw new IllegalArgumentException(
+          "The element is not in the open list anymore");
+    }
+    if (newKey < keys[position]) {
+      siftUp(position, newKey, handle, elements[position]);
+    }
+  }
+
+  /**
+   * Checks if the element with the handle is still in the list.
+   *
+   * @param handle the handle
+   * @return true, if the element has not been polled yet
+   */
+  public boolean contains(int handle) {
+    return handle >= 0 && handle < nextHandle && positions[handle] != NONE;
+  }
+
+  /**
+   * Gets the key of the element with the handle.
+   *
+   * @param handle the handle
+   * @return the key
+   */
+  public long getKey(int handle) {
+    return keys[positions[handle]];
+  }
+
+  /**
+   * Gets the smallest key.
+   *
+   * @return the smallest key
+   */
+  public long peekKey() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return keys[0];
+  }
+
+  /**
+   * Gets the element with the smallest key without removing it.
+   *
+   * @return the element
+   */
+  @SuppressWarnings("unchecked")
+  public E peek() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return (E) elements[0];
+  }
+
+  /**
+   * Removes and gets the element with the smallest key. Among the elements
+   * with the smallest key, the one that was added first is returned.
+   *
+   * @return the element
+   */
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    final E first = (E) elements[0];
+    positions[handles[0]] = NONE;
+    size--;
+    if (size > 0) {
+      siftDown(0, keys[size], handles[size], elements[size]);
+    }
+    elements[size] = null;
+    return first;
+  }
+
+  /**
+   * Checks if the list is empty.
+   *
+   * @return true, if empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Gets the number of elements in the list.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes all elements.
+   */
+  public void clear() {
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+    nextHandle = 0;
+  }
+
+  private void siftUp(int position, long key, int handle, Object element) {
+    int i = position;
+    while (i > 0) {
+      final int parent = (i - 1) / 2;
+      if (!less(key, handle, keys[parent], handles[parent])) {
+        break;
+      }
+      set(i, keys[parent], handles[parent], elements[parent]);
+      i = parent;
+    }
+    set(i, key, handle, element);
+  }
+
+  private void siftDown(int position, long key, int handle, Object element) {
+    int i = position;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && less(keys[child + 1], handles[child + 1],
+          keys[child], handles[child])) {
+        child++;
+      }
+      if (!less(keys[child], handles[child], key, handle)) {
+        break;
+      }
+      set(i, keys[child], handles[child], elements[child]);
+      i = child;
+    }
+    set(i, key, handle, element);
+  }
+
+  private void set(int position, long key, int handle, Object element) {
+    keys[position] = key;
+    handles[position] = handle;
+    elements[position] = element;
+    positions[handle] = position;
+  }
+
+  /**
+   * Compares two entries by their keys, ties broken by the insertion order.
+   */
+  private static boolean less(long key1, int handle1, long key2, int handle2) {
+    return key1 < key2 || (key1 == key2 && handle1 < handle2);
+  }
+}
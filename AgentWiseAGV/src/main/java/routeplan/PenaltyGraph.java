@@ -0,0 +1,299 @@
+package routeplan;
+
+import java.util.Arrays;
+
+import heuristic.ShortestPathLengths;
+import resourceagents.ResourceGraph;
+
+/**
+ * The Class PenaltyGraph.
+ * It is a view of a resource graph in which connections can get a penalty on
+ * top of their length and nodes can be removed. The resource graph itself is
+ * never changed. The penalties and removed nodes are stamped with the current
+ * version, so {@link #reset()} discards all of them in constant time, and the
+ * shortest path search reuses its arrays, so a path sampling does not
+ * allocate anything proportional to the size of the map.
+ *
+ * @author Tung
+ */
+public class PenaltyGraph {
+
+  /** The resource graph. */
+  private final ResourceGraph resourceGraph;
+
+  /** The version of the penalties and removed nodes. */
+  private int version;
+
+  /** The penalized length of each outgoing slot. */
+  private final double[] lengths;
+
+  /** The version in which the length of each outgoing slot was penalized. */
+  private final int[] lengthVersions;
+
+  /** The version in which each node was removed. */
+  private final int[] removedVersions;
+
+  /** The number of shortest path searches. */
+  private int search;
+
+  /** The search in which each node was reached. */
+  private final int[] searches;
+
+  /** The length from the start node to each node. */
+  private final double[] pathLengths;
+
+  /** The previous node of each node on the shortest path. */
+  private final int[] previousNodes;
+
+  /** The heap entries: estimated lengths, path lengths, nodes, orders. */
+  private double[] heapEstimates;
+  private double[] heapLengths;
+  private int[] heapNodes;
+  private int[] heapOrders;
+
+  /** The number of heap entries. */
+  private int heapSize;
+
+  /** The number of entries added to the heap in the current search. */
+  private int numOfPushes;
+
+  /**
+   * Instantiates a new penalty graph.
+   *
+   * @param resourceGraph the resource graph
+   */
+  public PenaltyGraph(ResourceGraph resourceGraph) {
+    this.resourceGraph = resourceGraph;
+    final int numOfSlots = resourceGraph.getNumOfConnections();
+    final int numOfNodes = resourceGraph.getNumOfNodes();
+    version = 1;
+    lengths = new double[numOfSlots];
+    lengthVersions = new int[numOfSlots];
+    removedVersions = new int[numOfNodes];
+    searches = new int[numOfNodes];
+    pathLengths = new double[numOfNodes];
+    previousNodes = new int[numOfNodes];
+    heapEstimates = new double[16];
+    heapLengths = new double[16];
+    heapNodes = new int[16];
+    heapOrders = new int[16];
+  }
+
+  /**
+   * Removes all penalties and brings back all removed nodes.
+   */
+  public void reset() {
+    version++;
+  }
+
+  /**
+   * Removes the node, so no shortest path enters it.
+   *
+   * @param node the node id
+   */
+  public void removeNode(int node) {
+    removedVersions[node] = version;
+  }
+
+  /**
+   * Gets the length of the connection of the outgoing slot, with its penalty.
+   *
+   * @param slot the slot
+   * @return the length
+   */
+  public double getLength(int slot) {
+    return lengthVersions[slot] == version ? lengths[slot]
+        : resourceGraph.getOutgoingLength(slot);
+  }
+
+  /**
+   * Adds a penalty to the connection from a node to another node.
+   *
+   * @param from the id of the start node
+   * @param to the id of the end node
+   * @param penalty the penalty
+   */
+  public void addPenalty(int from, int to, double penalty) {
+    for (int slot = resourceGraph.getFirstOutgoingSlot(from);
+        slot < resourceGraph.getLastOutgoingSlot(from); slot++) {
+      if (resourceGraph.getOutgoingNode(slot) == to) {
+        lengths[slot] = getLength(slot) + penalty;
+        lengthVersions[slot] = version;
+        return;
+      }
+    }
+    throw new IllegalArgumentException(
+        "No connection from " + resourceGraph.getNode(from) + " to "
+            + resourceGraph.getNode(to));
+  }
+
+  /**
+   * Finds the shortest path with the penalized lengths. It is an A* search
+   * with the shortest path lengths to the end node without penalties as
+   * heuristic. Penalties and removed nodes only make paths longer, so the
+   * heuristic never overestimates and every node is expanded at most once.
+   *
+   * @param from the id of the start node
+   * @param to the id of the end node
+   * @param lengthsToEnd the shortest path lengths to the end node in the
+   *          resource graph
+   * @return the node ids of the path, from the start node to the end node
+   */
+  public int[] getShortestPath(int from, int to,
+      ShortestPathLengths lengthsToEnd) {
+    search++;
+    heapSize = 0;
+    numOfPushes = 0;
+
+    searches[from] = search;
+    pathLengths[from] = 0d;
+    previousNodes[from] = -1;
+    push(lengthsToEnd.getLength(from), 0d, from);
+
+    while (heapSize > 0) {
+      final double pathLength = heapLengths[0];
+      final int node = heapNodes[0];
+      pop();
+
+      if (pathLength > pathLengths[node]) {
+        // an outdated entry
+        continue;
+      }
+      if (node == to) {
+        return getPath(to);
+      }
+
+      for (int slot = resourceGraph.getFirstOutgoingSlot(node);
+          slot < resourceGraph.getLastOutgoingSlot(node); slot++) {
+        final int nextNode = resourceGraph.getOutgoingNode(slot);
+        final double lengthToEnd = lengthsToEnd.getLength(nextNode);
+        if (removedVersions[nextNode] == version
+            || lengthToEnd == Double.MAX_VALUE) {
+          // the node is removed or the end node cannot be reached from it
+          continue;
+        }
+        final double alt = pathLength + getLength(slot);
+        if (searches[nextNode] != search || alt < pathLengths[nextNode]) {
+          searches[nextNode] = search;
+          pathLengths[nextNode] = alt;
+          previousNodes[nextNode] = node;
+          push(alt + lengthToEnd, alt, nextNode);
+        }
+      }
+    }
+
+    throw new IllegalArgumentException("No path from "
+        + resourceGraph.getNode(from) + " to " + resourceGraph.getNode(to));
+  }
+
+  /**
+   * Gets the path to the node found by the last search.
+   *
+   * @param to the id of the end node
+   * @return the node ids of the path
+   */
+  private int[] getPath(int to) {
+    int length = 0;
+    for (int node = to; node != -1; node = previousNodes[node]) {
+      length++;
+    }
+    final int[] path = new int[length];
+    for (int node = to; node != -1; node = previousNodes[node]) {
+      path[--length] = node;
+    }
+    return path;
+  }
+
+  /**
+   * Adds an entry to the heap. Entries with the same estimate are ordered by
+   * the order in which they are added.
+   *
+   * @param estimate the estimated length of the path through the node
+   * @param pathLength the length of the path to the node
+   * @param node the node id
+   */
+  private void push(double estimate, double pathLength, int node) {
+    if (heapSize == heapNodes.length) {
+      heapEstimates = Arrays.copyOf(heapEstimates, 2 * heapSize);
+      heapLengths = Arrays.copyOf(heapLengths, 2 * heapSize);
+      heapNodes = Arrays.copyOf(heapNodes, 2 * heapSize);
+      heapOrders = Arrays.copyOf(heapOrders, 2 * heapSize);
+    }
+    final int order = numOfPushes++;
+    int hole = heapSize;
+    heapSize++;
+    while (hole > 0) {
+      final int parent = (hole - 1) / 2;
+      if (!isBefore(estimate, order, heapEstimates[parent],
+          heapOrders[parent])) {
+        break;
+      }
+      move(parent, hole);
+      hole = parent;
+    }
+    heapEstimates[hole] = estimate;
+    heapLengths[hole] = pathLength;
+    heapNodes[hole] = node;
+    heapOrders[hole] = order;
+  }
+
+  /**
+   * Removes the first entry of the heap.
+   */
+  private void pop() {
+    heapSize--;
+    final double estimate = heapEstimates[heapSize];
+    final double pathLength = heapLengths[heapSize];
+    final int node = heapNodes[heapSize];
+    final int order = heapOrders[heapSize];
+    int hole = 0;
+    while (true) {
+      int child = 2 * hole + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && isBefore(heapEstimates[child + 1],
+          heapOrders[child + 1], heapEstimates[child], heapOrders[child])) {
+        child++;
+      }
+      if (!isBefore(heapEstimates[child], heapOrders[child], estimate,
+          order)) {
+        break;
+      }
+      move(child, hole);
+      hole = child;
+    }
+    heapEstimates[hole] = estimate;
+    heapLengths[hole] = pathLength;
+    heapNodes[hole] = node;
+    heapOrders[hole] = order;
+  }
+
+  /**
+   * Checks if an entry of the heap comes before another entry.
+   *
+   * @param estimate the estimate of the entry
+   * @param order the order of the entry
+   * @param otherEstimate the estimate of the other entry
+   * @param otherOrder the order of the other entry
+   * @return true, if the entry comes first
+   */
+  private static boolean isBefore(double estimate, int order,
+      double otherEstimate, int otherOrder) {
+    return estimate < otherEstimate
+        || (estimate == otherEstimate && order < otherOrder);
+  }
+
+  /**
+   * Moves an entry of the heap.
+   *
+   * @param from the index of the entry
+   * @param to the new index of the entry
+   */
+  private void move(int from, int to) {
+    heapEstimates[to] = heapEstimates[from];
+    heapLengths[to] = heapLengths[from];
+    heapNodes[to] = heapNodes[from];
+    heapOrders[to] = heapOrders[from];
+  }
+}
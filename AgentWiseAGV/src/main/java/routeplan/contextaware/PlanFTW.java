@@ -1,83 +1,204 @@
 package routeplan.contextaware;
 
 import java.util.LinkedList;
-import java.util.List;
-
-import com.github.rinde.rinsim.geom.Point;
 
 import resourceagents.FreeTimeWindow;
 
 /**
  * The Class PlanFTW.
- * It contains a list of connected free time windows
+ * It contains a list of connected free time windows. A plan is an immutable
+ * search node: it only stores its last free time window and links to the plan
+ * it extends, so extending a plan does not copy the earlier free time windows
+ * or the path. Nodes are identified by their ids in the resource graph.
+ * The nodes visited in the current stage are kept in a bitset that is split
+ * into chunks and shared with the parent plan: a plan that moves to a next
+ * node copies the chunk of the node and the array of chunks, not the whole
+ * bitset, and a loop check reads one word.
  *
  * @author Tung
  */
 public class PlanFTW {
-  
-  /** The free time windows (index as point, edge, point, edge, ...). */
-  private LinkedList<FreeTimeWindow> freeTimeWindows;
-  
-  /** The path. */
-  private List<Point> path;
-  
+
+  /** The number of words in a chunk of the visited nodes. */
+  private static final int CHUNK_SIZE = 8;
+
+  /** The number of nodes in a chunk of the visited nodes. */
+  private static final int NODES_PER_CHUNK = CHUNK_SIZE * 64;
+
+  /** The plan that this plan extends, null for the first plan step. */
+  private final PlanFTW parent;
+
+  /** The last free time window. */
+  private final FreeTimeWindow freeTimeWindow;
+
+  /** The number of free time windows (index as point, edge, point, edge, ...). */
+  private final int numOfFreeTimeWindows;
+
+  /** The id of the last node of the path. */
+  private final int lastNode;
+
+  /** The number of nodes in the path. */
+  private final int pathLength;
+
   /** The stage. */
-  private int stage;
-  
-  /** The destinations. */
-  private List<Point> destinations;
+  private final int stage;
+
+  /** The ids of the destinations. */
+  private final int[] destinations;
+
+  /**
+   * The ids of the nodes visited in the current stage, except the destination
+   * of the previous stage, as a bitset in chunks of {@link #CHUNK_SIZE} words.
+   * A null chunk has no visited nodes. The chunks are never changed once the
+   * plan is created, so they are shared with the plans that extend it.
+   */
+  private final long[][] visitedNodes;
 
   /**
-   * Instantiates a new plan ftw.
+   * Instantiates a new plan ftw that only contains the free time window of the
+   * origin.
    *
-   * @param freeTimeWindows the free time windows
-   * @param path the path
+   * @param freeTimeWindow the free time window of the origin
+   * @param origin the id of the origin
+   * @param numOfNodes the number of nodes
    * @param stage the stage
+   * @param destinations the ids of the destinations
    */
-  public PlanFTW(LinkedList<FreeTimeWindow> freeTimeWindows, List<Point> path,
-      int stage, List<Point> destinations) {
-    this.freeTimeWindows = freeTimeWindows;
-    this.path = path;
+  public PlanFTW(FreeTimeWindow freeTimeWindow, int origin, int numOfNodes,
+      int stage, int[] destinations) {
+    this.parent = null;
+    this.freeTimeWindow = freeTimeWindow;
+    this.numOfFreeTimeWindows = 1;
+    this.lastNode = origin;
+    this.pathLength = 1;
     this.stage = stage;
     this.destinations = destinations;
+    final long[][] noVisitedNodes = new long[(numOfNodes + NODES_PER_CHUNK
+        - 1) / NODES_PER_CHUNK][];
+    this.visitedNodes = origin == getLastDestination() ? noVisitedNodes
+        : visit(noVisitedNodes, origin);
   }
 
   /**
-   * Gets the free time windows.
+   * Instantiates a new plan ftw that extends the parent plan, which stops at a
+   * node, with the free time window of the edge to the next node.
+   *
+   * @param parent the parent plan
+   * @param freeTimeWindow the free time window of the edge
+   * @param nextNode the id of the next node
+   * @param stage the stage after reaching the next node
+   */
+  public PlanFTW(PlanFTW parent, FreeTimeWindow freeTimeWindow, int nextNode,
+      int stage) {
+    this.parent = parent;
+    this.freeTimeWindow = freeTimeWindow;
+    this.numOfFreeTimeWindows = parent.numOfFreeTimeWindows + 1;
+    this.lastNode = nextNode;
+    this.pathLength = parent.pathLength + 1;
+    this.stage = stage;
+    this.destinations = parent.destinations;
+    if (nextNode == getLastDestination()) {
+      // a new stage starts at the destination of the previous stage
+      this.visitedNodes = new long[parent.visitedNodes.length][];
+    } else {
+      this.visitedNodes = visit(parent.visitedNodes, nextNode);
+    }
+  }
+
+  /**
+   * Instantiates a new plan ftw that extends the parent plan, which stops at
+   * an edge, with the free time window of the last node of the path.
+   *
+   * @param parent the parent plan
+   * @param freeTimeWindow the free time window of the node
+   */
+  public PlanFTW(PlanFTW parent, FreeTimeWindow freeTimeWindow) {
+    this.parent = parent;
+    this.freeTimeWindow = freeTimeWindow;
+    this.numOfFreeTimeWindows = parent.numOfFreeTimeWindows + 1;
+    this.lastNode = parent.lastNode;
+    this.pathLength = parent.pathLength;
+    this.stage = parent.stage;
+    this.destinations = parent.destinations;
+    this.visitedNodes = parent.visitedNodes;
+  }
+
+  /**
+   * Gets the free time windows. The list is built from the plan steps on each
+   * call, so it should only be used once the plan is complete.
    *
    * @return the free time windows
    */
   public LinkedList<FreeTimeWindow> getFreeTimeWindows() {
+    final LinkedList<FreeTimeWindow> freeTimeWindows = new LinkedList<>();
+    for (PlanFTW plan = this; plan != null; plan = plan.parent) {
+      freeTimeWindows.addFirst(plan.freeTimeWindow);
+    }
     return freeTimeWindows;
   }
 
   /**
-   * Gets the path.
+   * Gets the last free time window.
+   *
+   * @return the last free time window
+   */
+  public FreeTimeWindow getLastFreeTimeWindow() {
+    return freeTimeWindow;
+  }
+
+  /**
+   * Gets the number of free time windows.
+   *
+   * @return the number of free time windows
+   */
+  public int getNumOfFreeTimeWindows() {
+    return numOfFreeTimeWindows;
+  }
+
+  /**
+   * Gets the node ids of the path. The array is built from the plan steps on
+   * each call, so it should only be used once the plan is complete.
    *
-   * @return the path
+   * @return the node ids of the path
    */
-  public List<Point> getPath() {
+  public int[] getPath() {
+    final int[] path = new int[pathLength];
+    int index = pathLength;
+    for (PlanFTW plan = this; plan != null; plan = plan.parent) {
+      if (plan.addsNode()) {
+        path[--index] = plan.lastNode;
+      }
+    }
     return path;
   }
 
+  /**
+   * Gets the id of the last node of the path.
+   *
+   * @return the id of the last node
+   */
+  public int getLastNode() {
+    return lastNode;
+  }
+
   /**
    * Gets the arrival time.
    *
    * @return the arrival time
    */
   public long getArrivalTime() {
-    return freeTimeWindows.getLast().getEntryWindow().lowerEndpoint();
+    return freeTimeWindow.getEntryLowerEndpoint();
   }
-  
+
   /**
    * Gets the earliest exit time.
    *
    * @return the earliest exit time
    */
   public long getEarliestExitTime() {
-    return freeTimeWindows.getLast().getExitWindow().lowerEndpoint();
+    return freeTimeWindow.getExitLowerEndpoint();
   }
-  
+
   /**
    * Gets the stage.
    *
@@ -86,30 +207,54 @@ public class PlanFTW {
   public int getStage() {
     return stage;
   }
-  
+
   /**
    * Checks if the next node is valid.
    * A next node is valid if it does not create loop in the same stage
    *
-   * @param nextNode the next node
+   * @param nextNode the id of the next node
    * @return true, if is valid
    */
-  public boolean isValid(Point nextNode) {
-    if (stage == 0) {
-      if (path.contains(nextNode)) {
-        return false;
-      } else {
-        return true;
-      }
-    } else {
-      int i = path.size() - 1;
-      while (!path.get(i).equals(destinations.get(stage - 1))) {
-        if (path.get(i).equals(nextNode)) {
-          return false;
-        }
-        i--;
-      }
-      return true;
-    }
+  public boolean isValid(int nextNode) {
+    final long[] chunk = visitedNodes[nextNode / NODES_PER_CHUNK];
+    return chunk == null
+        || (chunk[nextNode % NODES_PER_CHUNK >>> 6] & (1L << nextNode)) == 0;
+  }
+
+  /**
+   * Adds a node to visited nodes. Only the array of chunks and the chunk of
+   * the node are copied, the other chunks are shared.
+   *
+   * @param visitedNodes the visited nodes, which are not changed
+   * @param node the id of the node
+   * @return the visited nodes with the node
+   */
+  private static long[][] visit(long[][] visitedNodes, int node) {
+    final long[][] newVisitedNodes = visitedNodes.clone();
+    final int index = node / NODES_PER_CHUNK;
+    final long[] chunk = visitedNodes[index] == null ? new long[CHUNK_SIZE]
+        : visitedNodes[index].clone();
+    chunk[node % NODES_PER_CHUNK >>> 6] |= 1L << node;
+    newVisitedNodes[index] = chunk;
+    return newVisitedNodes;
+  }
+
+  /**
+   * Gets the destination of the previous stage.
+   *
+   * @return the id of the destination of the previous stage, -1 in the first
+   *         stage
+   */
+  private int getLastDestination() {
+    return stage == 0 ? -1 : destinations[stage - 1];
+  }
+
+  /**
+   * Checks if this plan step added its last node to the path.
+   *
+   * @return true, if the plan step is the origin or an edge
+   */
+  private boolean addsNode() {
+    return parent == null || parent.pathLength != pathLength;
   }
 }
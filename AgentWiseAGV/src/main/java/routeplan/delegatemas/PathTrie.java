@@ -0,0 +1,211 @@
+package routeplan.delegatemas;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The Class PathTrie.
+ * It merges the candidate paths of an exploration, which all start at the
+ * same node, into a prefix trie of the ids of their nodes. A trie node is a
+ * node of the resource graph reached through a prefix that the candidate
+ * paths share, so the planner searches a shared prefix once instead of once
+ * per candidate path. The trie nodes are numbered from the root in the order
+ * in which they are added, and the children of a trie node are kept in the
+ * order of the first candidate path that reaches them.
+ *
+ * @author Tung
+ */
+public class PathTrie {
+
+  /** The value of a missing trie node or candidate path. */
+  public static final int NONE = -1;
+
+  /** The root, the first node of all candidate paths. */
+  public static final int ROOT = 0;
+
+  /** The initial capacity of the arrays. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** The ids of the nodes of the trie nodes in the resource graph. */
+  private int[] nodeIDs;
+
+  /** The first child of each trie node. */
+  private int[] firstChildren;
+
+  /** The last child of each trie node. */
+  private int[] lastChildren;
+
+  /** The next sibling of each trie node. */
+  private int[] nextSiblings;
+
+  /** The shortest candidate path through each trie node. */
+  private int[] shortestCandidates;
+
+  /** The candidate path that ends at each trie node. */
+  private int[] endingCandidates;
+
+  /** The number of trie nodes. */
+  private int numOfTrieNodes;
+
+  /** The lengths of the candidate paths. */
+  private double[] lengths;
+
+  /** The number of candidate paths. */
+  private int numOfCandidates;
+
+  /**
+   * Instantiates a new empty path trie.
+   */
+  public PathTrie() {
+    nodeIDs = new int[INITIAL_CAPACITY];
+    firstChildren = new int[INITIAL_CAPACITY];
+    lastChildren = new int[INITIAL_CAPACITY];
+    nextSiblings = new int[INITIAL_CAPACITY];
+    shortestCandidates = new int[INITIAL_CAPACITY];
+    endingCandidates = new int[INITIAL_CAPACITY];
+    numOfTrieNodes = 0;
+    lengths = new double[INITIAL_CAPACITY];
+    numOfCandidates = 0;
+  }
+
+  /**
+   * Adds the next candidate path. Its index is the number of candidate paths
+   * added before it.
+   *
+   * @param pathNodeIDs the ids of the nodes of the path, starting at the node
+   *          of the root
+   * @param length the length of the path
+   */
+  public void add(int[] pathNodeIDs, double length) {
+    if (numOfCandidates == lengths.length) {
+      lengths = Arrays.copyOf(lengths, numOfCandidates * 2);
+    }
+    final int candidate = numOfCandidates++;
+    lengths[candidate] = length;
+
+    if (numOfTrieNodes == 0) {
+      addTrieNode(pathNodeIDs[0], candidate);
+    } else {
+      Preconditions.checkArgument(pathNodeIDs[0] == nodeIDs[ROOT],
+          "The candidate paths must start at the same node: %s and %s",
+          nodeIDs[ROOT], pathNodeIDs[0]);
+      updateShortestCandidate(ROOT, candidate);
+    }
+
+    int trieNode = ROOT;
+    for (int i = 1; i < pathNodeIDs.length; i++) {
+      int child = firstChildren[trieNode];
+      while (child != NONE && nodeIDs[child] != pathNodeIDs[i]) {
+        child = nextSiblings[child];
+      }
+      if (child == NONE) {
+        child = addTrieNode(pathNodeIDs[i], candidate);
+        if (firstChildren[trieNode] == NONE) {
+          firstChildren[trieNode] = child;
+        } else {
+          nextSiblings[lastChildren[trieNode]] = child;
+        }
+        lastChildren[trieNode] = child;
+      } else {
+        updateShortestCandidate(child, candidate);
+      }
+      trieNode = child;
+    }
+
+    if (endingCandidates[trieNode] == NONE) {
+      endingCandidates[trieNode] = candidate;
+    }
+  }
+
+  /**
+   * Checks if no candidate path has been added.
+   *
+   * @return true, if the trie is empty
+   */
+  public boolean isEmpty() {
+    return numOfTrieNodes == 0;
+  }
+
+  /**
+   * Gets the id of the node of the trie node in the resource graph.
+   *
+   * @param trieNode the trie node
+   * @return the node id
+   */
+  public int getNodeID(int trieNode) {
+    return nodeIDs[trieNode];
+  }
+
+  /**
+   * Gets the first child of the trie node.
+   *
+   * @param trieNode the trie node
+   * @return the first child, or {@link #NONE} if the trie node has no children
+   */
+  public int getFirstChild(int trieNode) {
+    return firstChildren[trieNode];
+  }
+
+  /**
+   * Gets the next sibling of the trie node.
+   *
+   * @param trieNode the trie node
+   * @return the next sibling, or {@link #NONE} if it is the last child
+   */
+  public int getNextSibling(int trieNode) {
+    return nextSiblings[trieNode];
+  }
+
+  /**
+   * Gets the shortest candidate path through the trie node. The remaining
+   * path of a plan that has reached the trie node is at least as long as the
+   * remaining path of this candidate path.
+   *
+   * @param trieNode the trie node
+   * @return the index of the candidate path
+   */
+  public int getShortestCandidate(int trieNode) {
+    return shortestCandidates[trieNode];
+  }
+
+  /**
+   * Gets the candidate path that ends at the trie node, the first one if
+   * several candidate paths are equal.
+   *
+   * @param trieNode the trie node
+   * @return the index of the candidate path, or {@link #NONE} if no candidate
+   *         path ends at the trie node
+   */
+  public int getEndingCandidate(int trieNode) {
+    return endingCandidates[trieNode];
+  }
+
+  private int addTrieNode(int nodeID, int candidate) {
+    if (numOfTrieNodes == nodeIDs.length) {
+      final int capacity = numOfTrieNodes * 2;
+      nodeIDs = Arrays.copyOf(nodeIDs, capacity);
+      firstChildren = Arrays.copyOf(firstChildren, capacity);
+      lastChildren = Arrays.copyOf(lastChildren, capacity);
+      nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+      shortestCandidates = Arrays.copyOf(shortestCandidates, capacity);
+      endingCandidates = Arrays.copyOf(endingCandidates, capacity);
+    }
+    final int trieNode = numOfTrieNodes++;
+    nodeIDs[trieNode] = nodeID;
+    firstChildren[trieNode] = NONE;
+    lastChildren[trieNode] = NONE;
+    nextSiblings[trieNode] = NONE;
+    shortestCandidates[trieNode] = candidate;
+    endingCandidates[trieNode] = NONE;
+    return trieNode;
+  }
+
+  private void updateShortestCandidate(int trieNode, int candidate) {
+    // the candidate paths through a trie node share the path up to it, so the
+    // shortest one also has the shortest remaining path
+    if (lengths[candidate] < lengths[shortestCandidates[trieNode]]) {
+      shortestCandidates[trieNode] = candidate;
+    }
+  }
+}
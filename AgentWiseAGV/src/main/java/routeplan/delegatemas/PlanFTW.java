@@ -1,54 +1,102 @@
 package routeplan.delegatemas;
 
 import java.util.LinkedList;
-import java.util.List;
-
-import com.github.rinde.rinsim.geom.Point;
 
 import resourceagents.FreeTimeWindow;
 
 /**
  * The Class PlanFTW.
- * It contains a list of connected free time windows
+ * It contains a list of connected free time windows. A plan is an immutable
+ * search node: it only stores its last free time window and links to the plan
+ * it extends, so extending a plan does not copy the earlier free time windows.
+ * The plan follows the candidate paths through a {@link PathTrie}: a plan that
+ * ends at a node is at the trie node of that node, and a plan that ends at an
+ * edge is at the trie node that the edge leads to.
  *
  * @author Tung
  */
 public class PlanFTW {
-  
-  /** The free time windows (index as point, edge, point, edge, ...). */
-  private LinkedList<FreeTimeWindow> freeTimeWindows;
-  
-  /** The path. */
-  private List<Point> path;
+
+  /** The plan that this plan extends, null for the first plan step. */
+  private final PlanFTW parent;
+
+  /** The last free time window. */
+  private final FreeTimeWindow freeTimeWindow;
+
+  /** The number of free time windows (index as point, edge, point, edge, ...). */
+  private final int numOfFreeTimeWindows;
+
+  /** The trie node of the candidate paths that the plan has reached. */
+  private final int trieNode;
 
   /**
-   * Instantiates a new plan ftw.
+   * Instantiates a new plan ftw that only contains the free time window of the
+   * first node of the candidate paths, at the root of the path trie.
    *
-   * @param freeTimeWindows the free time windows
-   * @param path the path
-   * @param stage the stage
+   * @param freeTimeWindow the free time window of the first node
    */
-  public PlanFTW(LinkedList<FreeTimeWindow> freeTimeWindows, List<Point> path) {
-    this.freeTimeWindows = freeTimeWindows;
-    this.path = path;
+  public PlanFTW(FreeTimeWindow freeTimeWindow) {
+    this.parent = null;
+    this.freeTimeWindow = freeTimeWindow;
+    this.numOfFreeTimeWindows = 1;
+    this.trieNode = PathTrie.ROOT;
   }
 
   /**
-   * Gets the free time windows.
+   * Instantiates a new plan ftw that extends the parent plan with the free
+   * time window of the next resource.
+   *
+   * @param parent the parent plan
+   * @param freeTimeWindow the free time window of the next resource
+   * @param trieNode the trie node of the next resource
+   */
+  public PlanFTW(PlanFTW parent, FreeTimeWindow freeTimeWindow,
+      int trieNode) {
+    this.parent = parent;
+    this.freeTimeWindow = freeTimeWindow;
+    this.numOfFreeTimeWindows = parent.numOfFreeTimeWindows + 1;
+    this.trieNode = trieNode;
+  }
+
+  /**
+   * Gets the free time windows. The list is built from the plan steps on each
+   * call, so it should only be used once the plan is complete.
    *
    * @return the free time windows
    */
   public LinkedList<FreeTimeWindow> getFreeTimeWindows() {
+    final LinkedList<FreeTimeWindow> freeTimeWindows = new LinkedList<>();
+    for (PlanFTW plan = this; plan != null; plan = plan.parent) {
+      freeTimeWindows.addFirst(plan.freeTimeWindow);
+    }
     return freeTimeWindows;
   }
 
   /**
-   * Gets the path.
+   * Gets the last free time window.
    *
-   * @return the path
+   * @return the last free time window
    */
-  public List<Point> getPath() {
-    return path;
+  public FreeTimeWindow getLastFreeTimeWindow() {
+    return freeTimeWindow;
+  }
+
+  /**
+   * Gets the number of free time windows.
+   *
+   * @return the number of free time windows
+   */
+  public int getNumOfFreeTimeWindows() {
+    return numOfFreeTimeWindows;
+  }
+
+  /**
+   * Gets the trie node of the candidate paths that the plan has reached.
+   *
+   * @return the trie node
+   */
+  public int getTrieNode() {
+    return trieNode;
   }
 
   /**
@@ -57,15 +105,15 @@ public class PlanFTW {
    * @return the arrival time
    */
   public long getArrivalTime() {
-    return freeTimeWindows.getLast().getEntryWindow().lowerEndpoint();
+    return freeTimeWindow.getEntryLowerEndpoint();
   }
-  
+
   /**
    * Gets the earliest exit time.
    *
    * @return the earliest exit time
    */
   public long getEarliestExitTime() {
-    return freeTimeWindows.getLast().getExitWindow().lowerEndpoint();
+    return freeTimeWindow.getExitLowerEndpoint();
   }
 }
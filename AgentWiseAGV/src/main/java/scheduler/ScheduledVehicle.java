@@ -0,0 +1,22 @@
+package scheduler;
+
+import com.github.rinde.rinsim.core.model.time.TickListener;
+
+/**
+ * The interface ScheduledVehicle. A vehicle agent that knows the first tick in
+ * which its state can change, so that a {@link VehicleScheduler} does not tick
+ * it before.
+ *
+ * @author Tung
+ */
+public interface ScheduledVehicle extends TickListener {
+
+  /**
+   * Gets the start time of the first tick in which the state of the vehicle
+   * can change. The vehicle is not ticked again if it is
+   * {@link Long#MAX_VALUE}.
+   *
+   * @return the wake up time
+   */
+  long getWakeUpTime();
+}
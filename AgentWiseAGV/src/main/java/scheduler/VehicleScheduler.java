@@ -0,0 +1,147 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.github.rinde.rinsim.core.Simulator;
+import com.github.rinde.rinsim.core.model.time.TickListener;
+import com.github.rinde.rinsim.core.model.time.TimeLapse;
+
+/**
+ * The Class VehicleScheduler.
+ * It keeps the vehicles that are waiting (at a check point, in a garage or in
+ * the station, or before they start) out of the tick listeners of the
+ * simulator and adds them again for the tick in which they wake up, so the
+ * cost of a tick depends on the number of active vehicles instead of the size
+ * of the fleet. The simulator ticks its listeners in the order in which they
+ * were added; the scheduler keeps the vehicles in the order in which they
+ * were registered, so the vehicles are ticked as if they had never been
+ * removed. It must be added to the simulator before the vehicles, and no
+ * other tick listener may be added after them.
+ *
+ * @author Tung
+ */
+public class VehicleScheduler implements TickListener {
+
+  /** The simulator. */
+  private final Simulator sim;
+
+  /** The registered vehicles, in the order of registration. */
+  private final List<ScheduledVehicle> vehicles;
+
+  /** The indexes of the vehicles that are ticked, in ascending order. */
+  private List<Integer> activeVehicles;
+
+  /** The vehicles that are not ticked, the first one to wake up first. */
+  private final PriorityQueue<SleepingVehicle> sleepingVehicles;
+
+  /**
+   * Instantiates a new vehicle scheduler.
+   *
+   * @param sim the simulator
+   */
+  public VehicleScheduler(Simulator sim) {
+    this.sim = sim;
+    vehicles = new ArrayList<>();
+    activeVehicles = new ArrayList<>();
+    sleepingVehicles = new PriorityQueue<>();
+  }
+
+  /**
+   * Registers a vehicle in the simulator. It is ticked until its wake up time
+   * is after the next tick.
+   *
+   * @param vehicle the vehicle
+   */
+  public void register(ScheduledVehicle vehicle) {
+    sim.register(vehicle);
+    activeVehicles.add(vehicles.size());
+    vehicles.add(vehicle);
+  }
+
+  @Override
+  public void tick(TimeLapse timeLapse) {}
+
+  @Override
+  public void afterTick(TimeLapse timeLapse) {
+    final long nextTickTime = timeLapse.getEndTime();
+
+    final List<Integer> stillActiveVehicles = new ArrayList<>(
+        activeVehicles.size());
+    for (int index : activeVehicles) {
+      final ScheduledVehicle vehicle = vehicles.get(index);
+      final long wakeUpTime = vehicle.getWakeUpTime();
+      if (wakeUpTime <= nextTickTime) {
+        stillActiveVehicles.add(index);
+      } else {
+        // removing a vehicle that has unregistered itself does nothing
+        sim.removeTickListener(vehicle);
+        if (wakeUpTime < Long.MAX_VALUE) {
+          sleepingVehicles.add(new SleepingVehicle(index, wakeUpTime));
+        }
+      }
+    }
+
+    final List<Integer> wokenVehicles = new ArrayList<>();
+    while (!sleepingVehicles.isEmpty()
+        && sleepingVehicles.peek().wakeUpTime <= nextTickTime) {
+      wokenVehicles.add(sleepingVehicles.poll().index);
+    }
+    if (wokenVehicles.isEmpty()) {
+      activeVehicles = stillActiveVehicles;
+      return;
+    }
+    Collections.sort(wokenVehicles);
+
+    // the active vehicles that were registered after the first woken vehicle
+    // are added again after it, so that the order of the listeners is kept
+    final int firstWokenVehicle = wokenVehicles.get(0);
+    activeVehicles = new ArrayList<>(
+        stillActiveVehicles.size() + wokenVehicles.size());
+    int active = 0;
+    int woken = 0;
+    while (active < stillActiveVehicles.size()
+        || woken < wokenVehicles.size()) {
+      final int index;
+      if (woken == wokenVehicles.size() || active < stillActiveVehicles.size()
+          && stillActiveVehicles.get(active) < wokenVehicles.get(woken)) {
+        index = stillActiveVehicles.get(active++);
+        if (index > firstWokenVehicle) {
+          sim.removeTickListener(vehicles.get(index));
+        }
+      } else {
+        index = wokenVehicles.get(woken++);
+      }
+      if (index >= firstWokenVehicle) {
+        sim.addTickListener(vehicles.get(index));
+      }
+      activeVehicles.add(index);
+    }
+  }
+
+  /**
+   * The Class SleepingVehicle. A vehicle that is not ticked until its wake up
+   * time.
+   */
+  private static final class SleepingVehicle
+      implements Comparable<SleepingVehicle> {
+
+    /** The index of the vehicle. */
+    private final int index;
+
+    /** The wake up time. */
+    private final long wakeUpTime;
+
+    SleepingVehicle(int index, long wakeUpTime) {
+      this.index = index;
+      this.wakeUpTime = wakeUpTime;
+    }
+
+    @Override
+    public int compareTo(SleepingVehicle other) {
+      return Long.compare(wakeUpTime, other.wakeUpTime);
+    }
+  }
+}
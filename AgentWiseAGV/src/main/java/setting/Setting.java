@@ -1,5 +1,8 @@
 package setting;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
 public class Setting {
   
   private double vehicleLength;
@@ -16,11 +19,16 @@ public class Setting {
   private long switchingThreshold;
   private int numOfAlterRoutes;
   private int numOfDestsForEachAGV;
+  private long occupancySamplingPeriod;
+  private boolean safeIntervalPlanning;
+  private boolean agvStatistics;
   
   public Setting(double vehicleLength, double vehicleSpeed, int numOfAGVs,
       long endTime, int speedUp, long seed, int numOfDestinations,
       long evaporationDuration, long refreshDuration, long explorationDuration,
-      long switchingThreshold, int numOfAlterRoutes, int numOfDestsForEachAGV) {
+      long switchingThreshold, int numOfAlterRoutes, int numOfDestsForEachAGV,
+      long occupancySamplingPeriod, boolean safeIntervalPlanning,
+      boolean agvStatistics) {
     this.vehicleLength = vehicleLength;
     this.vehicleSpeed = vehicleSpeed;
     this.numOfAGVs = numOfAGVs;
@@ -34,6 +42,9 @@ public class Setting {
     this.switchingThreshold = switchingThreshold;
     this.numOfAlterRoutes = numOfAlterRoutes;
     this.numOfDestsForEachAGV = numOfDestsForEachAGV;
+    this.occupancySamplingPeriod = occupancySamplingPeriod;
+    this.safeIntervalPlanning = safeIntervalPlanning;
+    this.agvStatistics = agvStatistics;
   }
 
   public double getVehicleLength() {
@@ -88,6 +99,63 @@ public class Setting {
     return numOfDestsForEachAGV;
   }
 
+  /**
+   * Gets the period with which the occupancy of the resources is sampled.
+   *
+   * @return the period in milliseconds, 0 if the occupancy is not sampled
+   */
+  public long getOccupancySamplingPeriod() {
+    return occupancySamplingPeriod;
+  }
+
+  /**
+   * Checks if the single stage context-aware planner uses safe interval path
+   * planning.
+   *
+   * @return true, if it uses safe interval path planning
+   */
+  public boolean isSafeIntervalPlanning() {
+    return safeIntervalPlanning;
+  }
+
+  /**
+   * Checks if the statistics of the explorations are also kept for every AGV,
+   * not only for the whole run.
+   *
+   * @return true, if they are kept for every AGV
+   */
+  public boolean isAGVStatistics() {
+    return agvStatistics;
+  }
+
+  /**
+   * Gets the fingerprint of all values of the setting. A new value of the
+   * setting must be added to it, so that runs of different settings are not
+   * mixed up.
+   *
+   * @return the fingerprint
+   */
+  public HashCode getFingerprint() {
+    return Hashing.murmur3_128().newHasher()
+        .putDouble(vehicleLength)
+        .putDouble(vehicleSpeed)
+        .putInt(numOfAGVs)
+        .putLong(endTime)
+        .putInt(speedUp)
+        .putLong(seed)
+        .putInt(numOfDestinations)
+        .putLong(evaporationDuration)
+        .putLong(refreshDuration)
+        .putLong(explorationDuration)
+        .putLong(switchingThreshold)
+        .putInt(numOfAlterRoutes)
+        .putInt(numOfDestsForEachAGV)
+        .putLong(occupancySamplingPeriod)
+        .putBoolean(safeIntervalPlanning)
+        .putBoolean(agvStatistics)
+        .hash();
+  }
+
   public static class SettingBuilder {
     private double vehicleLength = 2d;
     private double vehicleSpeed = 1d;
@@ -103,6 +171,9 @@ public class Setting {
     private long switchingThreshold = 8000;
     private int numOfAlterRoutes = 10;
     private int numOfDestsForEachAGV = 3;
+    private long occupancySamplingPeriod = 0;
+    private boolean safeIntervalPlanning = false;
+    private boolean agvStatistics = false;
     
     public SettingBuilder() {
 
@@ -173,11 +244,29 @@ public class Setting {
       return this;
     }
 
+    public SettingBuilder setOccupancySamplingPeriod(
+        long occupancySamplingPeriod) {
+      this.occupancySamplingPeriod = occupancySamplingPeriod;
+      return this;
+    }
+
+    public SettingBuilder setSafeIntervalPlanning(
+        boolean safeIntervalPlanning) {
+      this.safeIntervalPlanning = safeIntervalPlanning;
+      return this;
+    }
+
+    public SettingBuilder setAGVStatistics(boolean agvStatistics) {
+      this.agvStatistics = agvStatistics;
+      return this;
+    }
+
     public Setting build() {
       return new Setting(vehicleLength, vehicleSpeed, numOfAGVs, endTime,
           speedUp, seed, numOfDestinations, evaporationDuration,
           refreshDuration, explorationDuration, switchingThreshold,
-          numOfAlterRoutes, numOfDestsForEachAGV);
+          numOfAlterRoutes, numOfDestsForEachAGV, occupancySamplingPeriod,
+          safeIntervalPlanning, agvStatistics);
     }
   }
   
@@ -12,6 +12,8 @@ import com.github.rinde.rinsim.ui.View;
 import com.github.rinde.rinsim.ui.renderers.AGVRenderer2;
 import com.github.rinde.rinsim.ui.renderers.WarehouseRenderer;
 
+import resourceagents.OccupancyMonitor;
+import scheduler.VehicleScheduler;
 import setting.Setting;
 import singlestage.GraphCreator;
 import singlestage.destinationgenerator.DestinationGenerator;
@@ -98,6 +100,14 @@ public final class AGVSystem {
         sim.getRandomGenerator(), setting);
     sim.addTickListener(virtualEnvironment);
     
+    // the occupancy of the resources is only sampled if the setting asks
+    OccupancyMonitor occupancyMonitor = null;
+    if (setting.getOccupancySamplingPeriod() > 0) {
+      occupancyMonitor = virtualEnvironment
+          .createOccupancyMonitor(setting.getOccupancySamplingPeriod());
+      sim.addTickListener(occupancyMonitor);
+    }
+    
     // generate destinations for all AGVs
     final DestinationGenerator destinationGenerator = new DestinationGenerator(
         sim.getRandomGenerator(), roadModel, setting.getNumOfAGVs());
@@ -106,13 +116,23 @@ public final class AGVSystem {
     
     Result result = new Result(setting, sim);
 
+    // the AGVs are only ticked when their state can change
+    final VehicleScheduler scheduler = new VehicleScheduler(sim);
+    sim.addTickListener(scheduler);
+
     for (int i = 0; i < setting.getNumOfAGVs(); i++) {
-      sim.register(new VehicleAgent(odList.get(i), virtualEnvironment, i, sim,
+      scheduler.register(new VehicleAgent(odList.get(i), virtualEnvironment, i, sim,
           setting, result));
     }
 
     sim.start();
     
+    result.setPlannerStatistics(
+        virtualEnvironment.getPlannerStatistics());
+    result.setOccupancyMonitor(occupancyMonitor);
+    // the result does not keep the simulator alive after the run
+    result.releaseSimulator();
+    
     return result;
   }
 }
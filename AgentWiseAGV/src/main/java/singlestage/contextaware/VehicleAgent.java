@@ -9,7 +9,6 @@ import com.github.rinde.rinsim.core.Simulator;
 import com.github.rinde.rinsim.core.model.road.CollisionGraphRoadModel;
 import com.github.rinde.rinsim.core.model.road.MovingRoadUser;
 import com.github.rinde.rinsim.core.model.road.RoadModel;
-import com.github.rinde.rinsim.core.model.time.TickListener;
 import com.github.rinde.rinsim.core.model.time.TimeLapse;
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.base.Optional;
@@ -17,11 +16,12 @@ import com.google.common.base.Optional;
 import routeplan.CheckPoint;
 import routeplan.ExecutablePlan;
 import routeplan.Plan;
+import scheduler.ScheduledVehicle;
 import setting.Setting;
 import singlestage.destinationgenerator.OriginDestination;
 import singlestage.result.Result;
 
-public class VehicleAgent implements TickListener, MovingRoadUser {
+public class VehicleAgent implements ScheduledVehicle, MovingRoadUser {
   
   /** The road model. */
   private Optional<CollisionGraphRoadModel> roadModel;
@@ -50,6 +50,12 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
   /** The start time of the plan of this AGV. */
   private long startTime;
   
+  /**
+   * The start time of the first tick in which the state of this AGV can
+   * change. The ticks before it are skipped.
+   */
+  private long wakeUpTime;
+  
   /** The simulator. */
   private Simulator sim;
   
@@ -81,6 +87,8 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     this.setting = setting;
     planRoute();
     startTime = checkPoints.getFirst().getExpectedTime();
+    // the AGV appears in the tick that starts at the start time
+    wakeUpTime = startTime;
     this.result = result;
   }
 
@@ -112,6 +120,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
   @Override
   public void tick(TimeLapse timeLapse) {
     
+    if (timeLapse.getStartTime() < wakeUpTime) {
+      // the AGV is waiting and nothing happens to it in this tick
+      return;
+    }
+    
     if (timeLapse.getStartTime() == startTime) {
       roadModel.get().addObjectAt(this, origin);
     }
@@ -135,6 +148,10 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
         } else {
           // time difference is larger than time left
           timeLapse.consumeAll();
+          // the AGV waits at the check point until the tick in which the
+          // time difference is not larger than the tick length
+          wakeUpTime = checkPoints.getFirst().getExpectedTime()
+              - timeLapse.getTickLength();
         }
       } else {
         checkPoints.removeFirst();
@@ -148,6 +165,8 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     if (roadModel.get().getPosition(this).equals(destination)) {
       result.updateResult(startTime, timeLapse.getTime());
       sim.unregister(this);
+      // the AGV is not ticked again
+      wakeUpTime = Long.MAX_VALUE;
     }
   }
   
@@ -155,6 +174,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     return (Math.round(input * 10) / 10d);
   }
   
+  @Override
+  public long getWakeUpTime() {
+    return wakeUpTime;
+  }
+  
   @Override
   public void afterTick(TimeLapse timeLapse) {}
 
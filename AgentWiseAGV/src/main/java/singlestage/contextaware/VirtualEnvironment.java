@@ -1,15 +1,7 @@
 package singlestage.contextaware;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import org.apache.commons.math3.random.RandomGenerator;
 
@@ -20,16 +12,21 @@ import com.github.rinde.rinsim.geom.Graphs;
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.collect.Range;
 
+import heuristic.HeuristicCache;
 import heuristic.ShortestPathLengths;
 import resourceagents.EdgeAgent;
 import resourceagents.EdgeAgentList;
 import resourceagents.FreeTimeWindow;
 import resourceagents.NodeAgent;
 import resourceagents.NodeAgentList;
+import resourceagents.OccupancyMonitor;
+import resourceagents.ResourceGraph;
+import routeplan.ClosedTable;
+import routeplan.OpenList;
 import routeplan.Plan;
 import routeplan.contextaware.PlanFTW;
-import routeplan.contextaware.PlanStep;
 import setting.Setting;
+import statistics.PlannerStatistics;
 
 /**
  * The Class VirtualEnvironment.
@@ -38,24 +35,24 @@ import setting.Setting;
  */
 public class VirtualEnvironment implements TickListener {
   
+  /** The resource graph. */
+  private ResourceGraph resourceGraph;
+  
   /** The node agent list. */
   private NodeAgentList nodeAgentList;
   
   /** The edge agent list. */
   private EdgeAgentList edgeAgentList;
   
+  /** The statistics of the explorations. */
+  private final PlannerStatistics plannerStatistics;
+  
   /** The road model. */
   private CollisionGraphRoadModel roadModel;
   
   /** The setting. */
   private Setting setting;
   
-  /**
-   * shortest path lengths from all nodes to a destination the keys are
-   * destinations, the values are the map of points and shortest path lengths
-   */
-  final Map<Point, ShortestPathLengths> shortestLengthToDest;
-  
   /**
    * Instantiates a new virtual environment.
    *
@@ -66,14 +63,17 @@ public class VirtualEnvironment implements TickListener {
   public VirtualEnvironment(CollisionGraphRoadModel roadModel,
       RandomGenerator randomGenerator, Setting setting) {
     this.setting = setting;
-    nodeAgentList = new NodeAgentList(roadModel, setting);
-    edgeAgentList = new EdgeAgentList(roadModel, setting);
+    resourceGraph = new ResourceGraph(roadModel.getGraph());
+    nodeAgentList = new NodeAgentList(resourceGraph, setting);
+    edgeAgentList = new EdgeAgentList(resourceGraph, setting);
+    plannerStatistics = new PlannerStatistics(setting.isAGVStatistics());
     this.roadModel = roadModel;
-    this.shortestLengthToDest = new HashMap<>();
   }
   
   /**
-   * Explore route.
+   * Explore route. The route is searched with safe interval path planning if
+   * the setting asks for it. The work of the exploration is added to the
+   * planner statistics.
    *
    * @param agvID the agv id
    * @param origin the origin
@@ -82,59 +82,77 @@ public class VirtualEnvironment implements TickListener {
    */
   public Plan exploreRoute(int agvID, Point origin,
       List<Point> destinations) {
+    plannerStatistics.startExploration();
+    final Plan plan = setting.isSafeIntervalPlanning()
+        ? searchSafeIntervalRoute(agvID, origin, destinations)
+        : searchRoute(agvID, origin, destinations);
+    plannerStatistics.finishExploration(agvID);
+    return plan;
+  }
+  
+  /**
+   * Searches the route.
+   *
+   * @param agvID the agv id
+   * @param origin the origin
+   * @param destinations the destinations
+   * @return the plan
+   */
+  private Plan searchRoute(int agvID, Point origin,
+      List<Point> destinations) {
     // TODO remove startTime, all start at 0 
     
-    // shortest path lengths from all nodes to a destination
-    // the keys are destinations, the values are the map of points and shortest path lengths
-    for (Point node : destinations) {
-      if (!shortestLengthToDest.containsKey(node)) {
-        shortestLengthToDest.put(node,
-            new ShortestPathLengths(shortestPathLengthsTo(node)));
-      }
+    // ids of the destinations in the resource graph
+    final int[] destinationIDs = resourceGraph.getNodeIDs(destinations);
+
+    // shortest path lengths from all nodes to each destination
+    final ShortestPathLengths[] shortestLengthToDest =
+        new ShortestPathLengths[destinationIDs.length];
+    for (int i = 0; i < destinationIDs.length; i++) {
+      shortestLengthToDest[i] = HeuristicCache
+          .getShortestPathLengths(resourceGraph, destinationIDs[i]);
     }
 
     // free time window of the start node
+    plannerStatistics.countNodeQuery();
     final List<FreeTimeWindow> firstFreeTimeWindows = nodeAgentList
         .getNodeAgent(origin)
-        .getFreeTimeWindows(Range.atLeast(0L), agvID);
+        .getFreeTimeWindows(0L, FreeTimeWindow.UNBOUNDED, agvID);
 
     // if no possible free time window then it is an error
     if (firstFreeTimeWindows.isEmpty()) {
       throw new Error("No free time window for the first node!");
     }
 
+    final int originID = resourceGraph.getNodeID(origin);
+
     // the queue
-    final SortedMap<Long, PlanFTW> planQueue = new TreeMap<>();
-    
-    // the first path containing only the origin
-    List<Point> firstPath = new ArrayList<>();
-    firstPath.add(origin);
+    final OpenList<PlanFTW> planQueue = new OpenList<>();
     
     for (FreeTimeWindow startFTW : firstFreeTimeWindows) {
-      final LinkedList<FreeTimeWindow> firstFTW = new LinkedList<>();
-      firstFTW.addLast(startFTW);
-      final PlanFTW firstPlanFTW = new PlanFTW(firstFTW, firstPath, 0,
-          destinations);
-      planQueue.put(
-          computeCost(firstPlanFTW, shortestLengthToDest, destinations),
+      final PlanFTW firstPlanFTW = new PlanFTW(startFTW, originID,
+          resourceGraph.getNumOfNodes(), 0, destinationIDs);
+      planQueue.add(
+          computeCost(firstPlanFTW, shortestLengthToDest, destinationIDs),
           firstPlanFTW);
     }
     
     PlanFTW finalPlan = null;
 
-    final Set<PlanStep> closedSet = new LinkedHashSet<>();
+    final ClosedTable closedTable = new ClosedTable();
 
     while (!planQueue.isEmpty()) {
       // select and remove the first plan in the queue
-      final PlanFTW planFTW = planQueue.remove(planQueue.firstKey());
+      plannerStatistics.countExpansion(planQueue.size());
+      final PlanFTW planFTW = planQueue.poll();
 
-      final List<Point> path = planFTW.getPath();
-      final List<FreeTimeWindow> ftwList = planFTW.getFreeTimeWindows();
+      final int lastNode = planFTW.getLastNode();
+      final FreeTimeWindow lastFTW = planFTW.getLastFreeTimeWindow();
+      final int planLength = planFTW.getNumOfFreeTimeWindows();
 
       if ((planFTW.getStage() == destinations.size())
-          && path.get(path.size() - 1)
-              .equals(destinations.get(destinations.size() - 1))
-          && ftwList.size() % 2 == 1) {
+          && lastNode == destinationIDs[destinationIDs.length - 1]
+          && planLength % 2 == 1) {
         // if it is a complete plan then break
         // The first condition says that the AGV is at the last stage (only one
         // more destination to reach). The second condition says that the AGV
@@ -144,14 +162,14 @@ public class VirtualEnvironment implements TickListener {
         break;
       }
       
-      if (ftwList.size() % 2 == 1) {
+      if (planLength % 2 == 1) {
         // if the last plan step is for a node
         // get all possible next node
-        final List<Point> nextNodes = new ArrayList<>();
-        nextNodes.addAll(roadModel.getGraph()
-            .getOutgoingConnections(path.get(path.size() - 1)));
-        for (Point nextNode : nextNodes) {
+        for (int slot = resourceGraph.getFirstOutgoingSlot(
+            lastNode); slot < resourceGraph.getLastOutgoingSlot(
+                lastNode); slot++) {
           // for each possible next node
+          final int nextNode = resourceGraph.getOutgoingNode(slot);
           if (!planFTW.isValid(nextNode)) {
             // we do not allow cyclic plan and plan contain the entrance of the
             // station
@@ -160,7 +178,7 @@ public class VirtualEnvironment implements TickListener {
           
           // check the new stage
           int newStage = -1;
-          if (nextNode.equals(destinations.get(planFTW.getStage()))) {
+          if (nextNode == destinationIDs[planFTW.getStage()]) {
             newStage = planFTW.getStage() + 1;
           } else {
             newStage = planFTW.getStage();
@@ -169,64 +187,197 @@ public class VirtualEnvironment implements TickListener {
           // now we get the free time window of the edge
           // call the edge agent
           final EdgeAgent edgeAgent = edgeAgentList
-              .getEdgeAgent(path.get(path.size() - 1), nextNode);
+              .getEdgeAgent(resourceGraph.getOutgoingEdge(slot));
+          plannerStatistics.countEdgeQuery();
           List<FreeTimeWindow> nextFTWs = edgeAgent.getFreeTimeWindows(
-              path.get(path.size() - 1), nextNode,
-              ftwList.get(ftwList.size() - 1).getExitWindow(), agvID);
-          final List<Point> newPath = new ArrayList<>(path);
-          newPath.add(nextNode);
+              lastNode, nextNode, lastFTW.getExitLowerEndpoint(),
+              lastFTW.getExitUpperEndpoint(), agvID);
           if (nextFTWs == null) {
             continue;
           }
           for (FreeTimeWindow newFTW : nextFTWs) {
-            final PlanStep planStep = new PlanStep(newStage, edgeAgent, newFTW);
-            if (closedSet.contains(planStep)) {
+            // the connections are numbered after the nodes, an edge has one
+            // connection in each direction
+            if (!closedTable.add(newStage, resourceGraph.getNumOfNodes() + slot,
+                0, newFTW)) {
+              // the window or a window that dominates it is closed
               continue;
-            } else {
-              closedSet.add(planStep);
             }
             
-            LinkedList<FreeTimeWindow> newListOfFTWs = new LinkedList<>(
-                ftwList);
-            newListOfFTWs.addLast(newFTW);
-            PlanFTW newPlanFTW = new PlanFTW(newListOfFTWs, newPath, newStage, destinations);
+            PlanFTW newPlanFTW = new PlanFTW(planFTW, newFTW, nextNode,
+                newStage);
             // add next plan step to the queue
-            // solve problem when have the same cost
-            long estimatedCost = computeCost(newPlanFTW, shortestLengthToDest, destinations);
-            while (planQueue.containsKey(estimatedCost)) {
-              estimatedCost++;
-            }
-            planQueue.put(estimatedCost, newPlanFTW);
+            final long estimatedCost = computeCost(newPlanFTW, shortestLengthToDest, destinationIDs);
+            planQueue.add(estimatedCost, newPlanFTW);
           }
         }
       } else {
         // if the last plan step is for an edge
         // call the node agent
-        final NodeAgent nodeAgent = nodeAgentList
-            .getNodeAgent(path.get(path.size() - 1));
+        final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(lastNode);
+        plannerStatistics.countNodeQuery();
         List<FreeTimeWindow> nextFTWs = nodeAgent.getFreeTimeWindows(
-            ftwList.get(ftwList.size() - 1).getExitWindow(), agvID);
+            lastFTW.getExitLowerEndpoint(), lastFTW.getExitUpperEndpoint(),
+            agvID);
         for (FreeTimeWindow newFTW : nextFTWs) {
-          final PlanStep planStep = new PlanStep(planFTW.getStage(), nodeAgent, newFTW);
-          if (closedSet.contains(planStep)) {
+          if (!closedTable.add(planFTW.getStage(), nodeAgent.getID(), 0,
+              newFTW)) {
+            // the window or a window that dominates it is closed
             continue;
-          } else {
-            closedSet.add(planStep);
           }
           
-          LinkedList<FreeTimeWindow> newListOfFTWs = new LinkedList<>(ftwList);
-          newListOfFTWs.addLast(newFTW);
-          getClass();
-          PlanFTW newPlanFTW = new PlanFTW(newListOfFTWs, path, planFTW.getStage(), destinations);
-          long estimatedCost = computeCost(newPlanFTW, shortestLengthToDest, destinations);
-          while (planQueue.containsKey(estimatedCost)) {
-            estimatedCost++;
+          PlanFTW newPlanFTW = new PlanFTW(planFTW, newFTW);
+          final long estimatedCost = computeCost(newPlanFTW, shortestLengthToDest, destinationIDs);
+          planQueue.add(estimatedCost, newPlanFTW);
+        }
+      }
+    }
+
+    plannerStatistics.setClosedSetSize(closedTable.size());
+    
+    return createPlan(finalPlan);
+  }
+  
+  /**
+   * Searches the route with safe interval path planning. A search node is a
+   * free time window of a node, a safe interval, and one expansion moves the
+   * AGV along an edge into a safe interval of the next node: the edge agent
+   * and then the node agent are asked for their free time windows, with the
+   * same semantics as in {@link #searchRoute(int, Point, List)}, but the free
+   * time windows of the edges are not queued or closed themselves. The plans
+   * are as good, with about half of the expansions, queue insertions and
+   * closed plan steps.
+   *
+   * @param agvID the agv id
+   * @param origin the origin
+   * @param destinations the destinations
+   * @return the plan
+   */
+  private Plan searchSafeIntervalRoute(int agvID, Point origin,
+      List<Point> destinations) {
+    // ids of the destinations in the resource graph
+    final int[] destinationIDs = resourceGraph.getNodeIDs(destinations);
+
+    // shortest path lengths from all nodes to each destination
+    final ShortestPathLengths[] shortestLengthToDest =
+        new ShortestPathLengths[destinationIDs.length];
+    for (int i = 0; i < destinationIDs.length; i++) {
+      shortestLengthToDest[i] = HeuristicCache
+          .getShortestPathLengths(resourceGraph, destinationIDs[i]);
+    }
+
+    // safe intervals of the start node
+    plannerStatistics.countNodeQuery();
+    final List<FreeTimeWindow> firstFreeTimeWindows = nodeAgentList
+        .getNodeAgent(origin)
+        .getFreeTimeWindows(0L, FreeTimeWindow.UNBOUNDED, agvID);
+
+    // if no possible free time window then it is an error
+    if (firstFreeTimeWindows.isEmpty()) {
+      throw new Error("No free time window for the first node!");
+    }
+
+    final int originID = resourceGraph.getNodeID(origin);
+
+    // the queue, which only contains plans that stop at a node
+    final OpenList<PlanFTW> planQueue = new OpenList<>();
+    
+    for (FreeTimeWindow startFTW : firstFreeTimeWindows) {
+      final PlanFTW firstPlanFTW = new PlanFTW(startFTW, originID,
+          resourceGraph.getNumOfNodes(), 0, destinationIDs);
+      planQueue.add(
+          computeCost(firstPlanFTW, shortestLengthToDest, destinationIDs),
+          firstPlanFTW);
+    }
+    
+    PlanFTW finalPlan = null;
+
+    // the closed safe intervals
+    final ClosedTable closedTable = new ClosedTable();
+
+    while (!planQueue.isEmpty()) {
+      // select and remove the first plan in the queue
+      plannerStatistics.countExpansion(planQueue.size());
+      final PlanFTW planFTW = planQueue.poll();
+
+      final int lastNode = planFTW.getLastNode();
+      final FreeTimeWindow lastFTW = planFTW.getLastFreeTimeWindow();
+
+      if (planFTW.getStage() == destinations.size()
+          && lastNode == destinationIDs[destinationIDs.length - 1]) {
+        // if it is a complete plan then break
+        finalPlan = planFTW;
+        break;
+      }
+
+      for (int slot = resourceGraph.getFirstOutgoingSlot(
+          lastNode); slot < resourceGraph.getLastOutgoingSlot(
+              lastNode); slot++) {
+        // for each possible next node
+        final int nextNode = resourceGraph.getOutgoingNode(slot);
+        if (!planFTW.isValid(nextNode)) {
+          continue;
+        }
+        
+        // check the new stage
+        final int newStage;
+        if (nextNode == destinationIDs[planFTW.getStage()]) {
+          newStage = planFTW.getStage() + 1;
+        } else {
+          newStage = planFTW.getStage();
+        }
+        
+        // the free time windows of the edge
+        final EdgeAgent edgeAgent = edgeAgentList
+            .getEdgeAgent(resourceGraph.getOutgoingEdge(slot));
+        plannerStatistics.countEdgeQuery();
+        final List<FreeTimeWindow> edgeFTWs = edgeAgent.getFreeTimeWindows(
+            lastNode, nextNode, lastFTW.getExitLowerEndpoint(),
+            lastFTW.getExitUpperEndpoint(), agvID);
+        if (edgeFTWs == null) {
+          continue;
+        }
+        
+        final NodeAgent nextNodeAgent = nodeAgentList.getNodeAgent(nextNode);
+        for (FreeTimeWindow edgeFTW : edgeFTWs) {
+          final PlanFTW edgePlanFTW = new PlanFTW(planFTW, edgeFTW, nextNode,
+              newStage);
+          
+          // the safe intervals of the next node that can be reached through
+          // the free time window of the edge
+          plannerStatistics.countNodeQuery();
+          final List<FreeTimeWindow> nodeFTWs = nextNodeAgent
+              .getFreeTimeWindows(edgeFTW.getExitLowerEndpoint(),
+                  edgeFTW.getExitUpperEndpoint(), agvID);
+          for (FreeTimeWindow nodeFTW : nodeFTWs) {
+            if (!closedTable.add(newStage, nextNodeAgent.getID(), 0, nodeFTW)) {
+              // the window or a window that dominates it is closed
+              continue;
+            }
+            
+            final PlanFTW newPlanFTW = new PlanFTW(edgePlanFTW, nodeFTW);
+            planQueue.add(
+                computeCost(newPlanFTW, shortestLengthToDest, destinationIDs),
+                newPlanFTW);
           }
-          planQueue.put(estimatedCost, newPlanFTW);
         }
       }
     }
 
+    plannerStatistics.setClosedSetSize(closedTable.size());
+    
+    return createPlan(finalPlan);
+  }
+  
+  /**
+   * Creates the plan of a complete time window plan: the AGV enters each
+   * resource as early as possible and leaves it when it can enter the next
+   * one.
+   *
+   * @param finalPlan the complete time window plan
+   * @return the plan
+   */
+  private Plan createPlan(PlanFTW finalPlan) {
     // generate actual plan from the time window plan
     final LinkedList<Range<Long>> intervals = new LinkedList<>();
     final List<FreeTimeWindow> freeTimeWindows = finalPlan.getFreeTimeWindows();
@@ -234,18 +385,19 @@ public class VirtualEnvironment implements TickListener {
         .get(freeTimeWindows.size() - 1);
 
     intervals.addFirst(
-        Range.closed(lastFreeTimeWindow.getEntryWindow().lowerEndpoint(),
-            lastFreeTimeWindow.getExitWindow().lowerEndpoint()));
+        Range.closed(lastFreeTimeWindow.getEntryLowerEndpoint(),
+            lastFreeTimeWindow.getExitLowerEndpoint()));
 
     for (int i = freeTimeWindows.size() - 2; i >= 0; i--) {
       intervals.addFirst(
-          Range.closed(freeTimeWindows.get(i).getEntryWindow().lowerEndpoint(),
+          Range.closed(freeTimeWindows.get(i).getEntryLowerEndpoint(),
               intervals.getFirst().lowerEndpoint()
                   + ((long) (setting.getVehicleLength() * 1000
                       / setting.getVehicleSpeed()))));
     }
 
-    Plan plan = new Plan(finalPlan.getPath(), intervals);
+    Plan plan = new Plan(resourceGraph.getNodes(finalPlan.getPath()),
+        intervals);
     
     return plan;
   }
@@ -254,32 +406,29 @@ public class VirtualEnvironment implements TickListener {
    * Compute cost.
    *
    * @param planFTW the plan
-   * @param shortestLengths the shortest lengths
-   * @param destinations the destinations
+   * @param shortestLengths the shortest lengths to each destination
+   * @param destinations the ids of the destinations
    * @return the cost
    */
   public long computeCost(PlanFTW planFTW,
-      Map<Point, ShortestPathLengths> shortestLengths, List<Point> destinations) {
-    final List<Point> path = planFTW.getPath();
-    final List<FreeTimeWindow> ftwList = planFTW.getFreeTimeWindows();
-    
+      ShortestPathLengths[] shortestLengths, int[] destinations) {
     long estimatedCost = -1;
     
     // calculate the length of the shortest path
     double lengthShortestPath = 0;
-    for (int i = planFTW.getStage(); i < destinations.size(); i++) {
+    for (int i = planFTW.getStage(); i < destinations.length; i++) {
       if (i == planFTW.getStage()) {
-        lengthShortestPath += shortestLengths.get(destinations.get(i))
-            .getLength(path.get(path.size() - 1));
+        lengthShortestPath += shortestLengths[i]
+            .getLength(planFTW.getLastNode());
       } else {
-        lengthShortestPath += shortestLengths.get(destinations.get(i))
-            .getLength(destinations.get(i - 1));
+        lengthShortestPath += shortestLengths[i]
+            .getLength(destinations[i - 1]);
       }
     }
     
     final long earliestExitTime = planFTW.getEarliestExitTime();
     
-    if (ftwList.size() % 2 == 1) {
+    if (planFTW.getNumOfFreeTimeWindows() % 2 == 1) {
       // if the plan stop at a node (note that the exit time is the time when
       // the vehicle is completely out of the node
       estimatedCost = earliestExitTime
@@ -309,87 +458,46 @@ public class VirtualEnvironment implements TickListener {
    * @param lifeTime the life time
    */
   public void makeReservation(int agvID, Plan plan, long currentTime, long lifeTime) {
-    List<Point> path = plan.getPath();
+    final int[] path = resourceGraph.getNodeIDs(plan.getPath());
     List<Range<Long>> intervals = plan.getIntervals();
-    for (int i = 0; i < path.size() - 1; i++) {
+    for (int i = 0; i < path.length - 1; i++) {
       if (intervals.get(i * 2 + 1).upperEndpoint() < currentTime) {
         continue;
       }
       
-      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(path.get(i));
+      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(path[i]);
       nodeAgent.addReservation(agvID, lifeTime, intervals.get(i * 2));
-      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(path.get(i),
-          path.get(i + 1));
-      edgeAgent.addReservation(path.get(i), intervals.get(i * 2 + 1), lifeTime,
+      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(path[i],
+          path[i + 1]);
+      edgeAgent.addReservation(path[i], intervals.get(i * 2 + 1), lifeTime,
           agvID);
     }
     
     final NodeAgent lastNodeAgent = nodeAgentList
-        .getNodeAgent(path.get(path.size() - 1));
+        .getNodeAgent(path[path.length - 1]);
     lastNodeAgent.addReservation(agvID, lifeTime,
         intervals.get(intervals.size() - 1));
   }
   
   /**
-   * Find the lengths of the shortest paths from all nodes to dest
+   * Creates a monitor of the occupancy of the resources. It samples only
+   * when it is added to the simulator as a tick listener.
    *
-   * @param dest the dest
-   * @return the map
+   * @param samplingPeriod the sampling period, in milliseconds
+   * @return the occupancy monitor
    */
-  public Map<Point, Double> shortestPathLengthsTo(Point dest) {
-    final Map<Point, Double> initialDist = new HashMap<>();
-    final Map<Point, Double> resultDist = new HashMap<>();
-
-    // node set
-    final Set<Point> nodeSet = roadModel.getGraph().getNodes();
-    for (Point node : nodeSet) {
-      if (node.equals(dest)) {
-        initialDist.put(node, 0d);
-      } else {
-        initialDist.put(node, Double.MAX_VALUE);
-      }
-    }
-
-    while (!initialDist.isEmpty()) {
-      final Point node = getKeyOfMinValue(initialDist);
-      final double dist = initialDist.remove(node);
-      resultDist.put(node, dist);
-
-      final List<Point> neighboringNodes = new ArrayList<>();
-      neighboringNodes
-          .addAll(roadModel.getGraph().getIncomingConnections(node));
-
-      for (Point neighbor : neighboringNodes) {
-        final double alt = dist
-            + roadModel.getGraph().getConnection(neighbor, node).getLength();
-        if (initialDist.containsKey(neighbor)
-            && alt < initialDist.get(neighbor)) {
-          initialDist.put(neighbor, alt);
-        }
-      }
-    }
-
-    return resultDist;
+  public OccupancyMonitor createOccupancyMonitor(long samplingPeriod) {
+    return new OccupancyMonitor(resourceGraph, nodeAgentList, edgeAgentList,
+        samplingPeriod);
   }
   
   /**
-   * Gets the key with minimum value.
+   * Gets the statistics of the explorations.
    *
-   * @param map the map
-   * @return the key with minimum value
+   * @return the planner statistics
    */
-  public Point getKeyOfMinValue(Map<Point, Double> map) {
-    double minVal = Double.MAX_VALUE;
-    Point key = null;
-    
-    for (Entry<Point, Double> entry : map.entrySet()) {
-      if (minVal > entry.getValue()) {
-        minVal = entry.getValue();
-        key = entry.getKey();
-      }
-    }
-    
-    return key;
+  public PlannerStatistics getPlannerStatistics() {
+    return plannerStatistics;
   }
   
   @Override
@@ -9,20 +9,21 @@ import com.github.rinde.rinsim.core.Simulator;
 import com.github.rinde.rinsim.core.model.road.CollisionGraphRoadModel;
 import com.github.rinde.rinsim.core.model.road.MovingRoadUser;
 import com.github.rinde.rinsim.core.model.road.RoadModel;
-import com.github.rinde.rinsim.core.model.time.TickListener;
 import com.github.rinde.rinsim.core.model.time.TimeLapse;
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.base.Optional;
 import com.google.common.collect.Range;
 
+import resourceagents.FreeTimeWindow;
 import routeplan.CheckPoint;
 import routeplan.ExecutablePlan;
 import routeplan.Plan;
+import scheduler.ScheduledVehicle;
 import setting.Setting;
 import singlestage.destinationgenerator.OriginDestination;
 import singlestage.result.Result;
 
-public class VehicleAgent implements TickListener, MovingRoadUser {
+public class VehicleAgent implements ScheduledVehicle, MovingRoadUser {
   
   /** The road model. */
   private Optional<CollisionGraphRoadModel> roadModel;
@@ -60,6 +61,12 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
   /** The next exploration time. */
   private long nextExplorationTime;
   
+  /**
+   * The start time of the first tick in which the state of this AGV can
+   * change. The ticks before it are skipped.
+   */
+  private long wakeUpTime;
+  
   /** The start time of the plan of this AGV. */
   private long startTime;
   
@@ -112,7 +119,7 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     dest.add(destination);
 
     Plan plan = virtualEnvironment.exploreRoute(agvID, startTime, origin, dest,
-        setting.getNumOfAlterRoutes(), false);
+        setting.getNumOfAlterRoutes(), false, FreeTimeWindow.UNBOUNDED);
     
     executablePlan = new ExecutablePlan(plan, setting);
     currentPlan = plan;
@@ -129,6 +136,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     
     final long currentTime = timeLapse.getStartTime();
     
+    if (currentTime < wakeUpTime) {
+      // the AGV is waiting and nothing happens to it in this tick
+      return;
+    }
+    
     if (currentPlan != null && currentPlan.getIntervals().size() > 1
         && currentPlan.getIntervals().get(1).upperEndpoint() < currentTime) {
       currentPlan.removeOldSteps();
@@ -153,6 +165,10 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
       if (currentTime == nextRefreshTime) {
         refresh(currentTime);
       }
+      // the AGV appears in the tick that starts at the start time
+      wakeUpTime = getNextEventTime(
+          startTime > currentTime ? startTime : Long.MAX_VALUE, currentTime,
+          timeLapse.getTickLength());
       return;
     }
     
@@ -223,6 +239,12 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
         } else {
           // time difference is larger than time left
           timeLapse.consumeAll();
+          // the AGV waits at the check point until the tick in which the
+          // time difference is not larger than the tick length
+          wakeUpTime = getNextEventTime(
+              checkPoints.getFirst().getExpectedTime()
+                  - timeLapse.getTickLength(),
+              currentTime, timeLapse.getTickLength());
         }
       } else {
         checkPoints.removeFirst();
@@ -236,7 +258,40 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     if (roadModel.get().getPosition(this).equals(destination)) {
       result.updateResult(startTime, timeLapse.getTime());
       sim.unregister(this);
+      // the AGV is not ticked again
+      wakeUpTime = Long.MAX_VALUE;
+    }
+  }
+  
+  /**
+   * Gets the start time of the first tick in which the AGV explores, refreshes
+   * its reservations or removes the first step of its plan, if it is earlier
+   * than the given time.
+   *
+   * @param time the given time
+   * @param currentTime the start time of the current tick
+   * @param tickLength the tick length
+   * @return the wake up time
+   */
+  private long getNextEventTime(long time, long currentTime, long tickLength) {
+    long nextEventTime = time;
+    if (nextExplorationTime > currentTime) {
+      nextEventTime = Math.min(nextEventTime, nextExplorationTime);
     }
+    if (nextRefreshTime > currentTime) {
+      nextEventTime = Math.min(nextEventTime, nextRefreshTime);
+    }
+    if (currentPlan != null && currentPlan.getIntervals().size() > 1) {
+      // the first step is removed in the first tick that starts after the
+      // end of the second interval
+      final long endOfStep = currentPlan.getIntervals().get(1)
+          .upperEndpoint();
+      if (endOfStep < time) {
+        nextEventTime = Math.min(nextEventTime, currentTime
+            + ((endOfStep - currentTime) / tickLength + 1) * tickLength);
+      }
+    }
+    return nextEventTime;
   }
   
   public double round(double input) {
@@ -256,9 +311,13 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     nextExplorationTime = startTime + setting.getEvaporationDuration();
     List<Point> dest = new ArrayList<>();
     dest.add(destination);
-    Plan plan = virtualEnvironment.exploreRoute(agvID, startTime, startNode, dest, numberOfRoutes, started);
+    // only the plans that beat the current plan by the switching threshold
+    // are of interest
+    Plan plan = virtualEnvironment.exploreRoute(agvID, startTime, startNode,
+        dest, numberOfRoutes, started,
+        expectedArrivalTime - setting.getSwitchingThreshold());
     
-    if (started && plan == null) {
+    if (plan == null) {
       return false;
     }
     
@@ -287,6 +346,11 @@ public class VehicleAgent implements TickListener, MovingRoadUser {
     nextRefreshTime = currentTime + setting.getRefreshDuration();
   }
 
+  @Override
+  public long getWakeUpTime() {
+    return wakeUpTime;
+  }
+  
   @Override
   public void afterTick(TimeLapse timeLapse) {}
 
@@ -1,18 +1,14 @@
 package singlestage.delegatemas;
 
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import org.apache.commons.math3.random.RandomGenerator;
 
 import com.github.rinde.rinsim.core.model.road.CollisionGraphRoadModel;
 import com.github.rinde.rinsim.core.model.time.TickListener;
 import com.github.rinde.rinsim.core.model.time.TimeLapse;
-import com.github.rinde.rinsim.geom.Graphs;
 import com.github.rinde.rinsim.geom.Point;
 import com.google.common.collect.Range;
 
@@ -21,10 +17,15 @@ import resourceagents.EdgeAgentList;
 import resourceagents.FreeTimeWindow;
 import resourceagents.NodeAgent;
 import resourceagents.NodeAgentList;
+import resourceagents.OccupancyMonitor;
+import resourceagents.ResourceGraph;
+import routeplan.ClosedTable;
+import routeplan.OpenList;
 import routeplan.Plan;
+import routeplan.delegatemas.PathTrie;
 import routeplan.delegatemas.PlanFTW;
-import routeplan.delegatemas.PlanStep;
 import setting.Setting;
+import statistics.PlannerStatistics;
 
 /**
  * The Class VirtualEnvironment.
@@ -33,12 +34,18 @@ import setting.Setting;
  */
 public class VirtualEnvironment implements TickListener {
   
+  /** The resource graph. */
+  private ResourceGraph resourceGraph;
+  
   /** The node agent list. */
   private NodeAgentList nodeAgentList;
   
   /** The edge agent list. */
   private EdgeAgentList edgeAgentList;
   
+  /** The statistics of the explorations. */
+  private final PlannerStatistics plannerStatistics;
+  
   /** The setting. */
   private Setting setting;
   
@@ -55,281 +62,180 @@ public class VirtualEnvironment implements TickListener {
   public VirtualEnvironment(CollisionGraphRoadModel roadModel,
       RandomGenerator randomGenerator, Setting setting) {
     this.setting = setting;
-    nodeAgentList = new NodeAgentList(roadModel, setting);
-    edgeAgentList = new EdgeAgentList(roadModel, setting);
-    this.pathSampling = new PathSampling(setting);
+    resourceGraph = new ResourceGraph(roadModel.getGraph());
+    nodeAgentList = new NodeAgentList(resourceGraph, setting);
+    edgeAgentList = new EdgeAgentList(resourceGraph, setting);
+    plannerStatistics = new PlannerStatistics(setting.isAGVStatistics());
+    this.pathSampling = new PathSampling(resourceGraph);
   }
   
   /**
-   * Explore route.
+   * Explore route. The work of the exploration is added to the
+   * planner statistics. The plans that cannot arrive before the arrival time
+   * bound are pruned, so an exploration that cannot improve the current plan
+   * of the AGV stops early.
    *
    * @param agvID the agv id
    * @param startTime the start time
    * @param origin the origin
    * @param destinations the destinations
    * @param numOfPaths the num of paths
-   * @param started the started
-   * @return the plan
+   * @param started whether the AGV has started
+   * @param arrivalTimeBound the arrival time that the plan must beat, or
+   *          {@link FreeTimeWindow#UNBOUNDED}
+   * @return the plan that arrives the earliest, or null if no plan arrives
+   *         before the arrival time bound
    */
- /* public Plan exploreRoute(int agvID, long startTime, Point origin,
-      List<Point> destinations, int numOfPaths, boolean started) {
+  public Plan exploreRoute(int agvID, long startTime, Point origin,
+      List<Point> destinations, int numOfPaths, boolean started,
+      long arrivalTimeBound) {
+    plannerStatistics.startExploration();
+    final Plan plan = searchRoute(agvID, startTime, origin, destinations,
+        numOfPaths, started, arrivalTimeBound);
+    plannerStatistics.finishExploration(agvID);
+    return plan;
+  }
+  
+  /**
+   * Searches the route.
+   *
+   * @param agvID the agv id
+   * @param startTime the start time
+   * @param origin the origin
+   * @param destinations the destinations
+   * @param numOfPaths the num of paths
+   * @param started whether the AGV has started
+   * @param arrivalTimeBound the arrival time that the plan must beat, or
+   *          {@link FreeTimeWindow#UNBOUNDED}
+   * @return the plan that arrives the earliest, or null if no plan arrives
+   *         before the arrival time bound
+   */
+  private Plan searchRoute(int agvID, long startTime, Point origin,
+      List<Point> destinations, int numOfPaths, boolean started,
+      long arrivalTimeBound) {
     
     // sampling the environment to get several feasible paths
     final List<Path> feasiblePaths = pathSampling.getFeasiblePaths(origin,
         destinations, numOfPaths);
     
-    final List<PlanFTW> feasiblePlans = new ArrayList<>();
-    
+    // the candidate paths usually share their first hops, so they are merged
+    // into a trie and every shared prefix is searched once
+    final PathTrie pathTrie = new PathTrie();
     for (Path path : feasiblePaths) {
-      final List<Point> candPath = path.getPath();
-
-      // free time window of the start node
-      final List<FreeTimeWindow> firstFreeTimeWindows = nodeAgentList
-          .getNodeAgent(candPath.get(0))
-          .getFreeTimeWindows(Range.atLeast(startTime), agvID);
-      
-      Stack<PlanFTW> planStack = new Stack<>();
-      
-      if (started) {
-        // if the AGV already started
-        FreeTimeWindow startFTW = null;
-        
-        // there should be only one free time window that contains the startTime
-        final long realStartTime = startTime - ((long) (setting.getVehicleLength()*1000 / setting.getVehicleSpeed()));
-        for (FreeTimeWindow ftw : firstFreeTimeWindows) {
-          if (ftw.getEntryWindow().contains(realStartTime)
-              || ftw.getEntryWindow().lowerEndpoint() == realStartTime) {
-            startFTW = ftw;
-            break;
-          }
-        }
-        
-        // if no possible free time window then next candidate path
-        if (startFTW == null) {
-          continue;
-        }
-        
-        LinkedList<FreeTimeWindow> firstFTW = new LinkedList<>();
-        firstFTW.addLast(startFTW);
-        
-        planStack.push(new PlanFTW(firstFTW, candPath));
-      } else {
-        // if the AGV hasn't entered the map yet
-        for (FreeTimeWindow startFTW : firstFreeTimeWindows) {
-          final LinkedList<FreeTimeWindow> firstFTW = new LinkedList<>();
-          firstFTW.addLast(startFTW);
-          final PlanFTW firstPlanFTW = new PlanFTW(firstFTW, candPath);
-          planStack.push(firstPlanFTW);
-        }
-      }
-      
-      while (!planStack.isEmpty()) {
-        final PlanFTW plan = planStack.pop();
-        final LinkedList<FreeTimeWindow> currentFTWs = plan.getFreeTimeWindows();
-        final int planLength = currentFTWs.size();
-        
-        // if all the resources have been planned
-        if (planLength == (2*candPath.size() - 1)) {
-          feasiblePlans.add(plan);
-          continue;
-        }
-
-        // list of next feasible free time windows
-        List<FreeTimeWindow> nextFTWs;
-        // check whether the last plan step is for a node or for an edge
-        if (planLength % 2 == 1) {
-          // the last plan step is for a node. Now we plan for the next edge
-          final int index = planLength / 2;
-          final EdgeAgent edgeAgent = edgeAgentList
-              .getEdgeAgent(candPath.get(index), candPath.get(index + 1));
-          nextFTWs = edgeAgent.getFreeTimeWindows(candPath.get(index),
-              candPath.get(index + 1), currentFTWs.getLast().getExitWindow(),
-              agvID);
-        } else {
-          // the last plan step is for an edge. Now we plan for the next node
-          final int index = planLength / 2;
-          final NodeAgent nodeAgent = nodeAgentList
-              .getNodeAgent(candPath.get(index));
-          nextFTWs = nodeAgent
-              .getFreeTimeWindows(currentFTWs.getLast().getExitWindow(), agvID);
-        }
-        
-        if (nextFTWs == null) {
-          continue;
-        }
-
-        for (FreeTimeWindow ftw : nextFTWs) {
-          final LinkedList<FreeTimeWindow> newFtwList = new LinkedList<>(
-              currentFTWs);
-          newFtwList.addLast(ftw);
-          planStack.push(new PlanFTW(newFtwList, candPath));
-        }
-      }
-    }
-    
-    // find the best plan (the one that the AGV arrives at destination earliest)
-    PlanFTW bestPlan = null;
-    for (PlanFTW planFTW : feasiblePlans) {
-      if (bestPlan == null
-          || bestPlan.getArrivalTime() > planFTW.getArrivalTime()) {
-        bestPlan = planFTW;
-      }
+      pathTrie.add(path.getNodeIDs(), path.getRemainingLength(0));
     }
     
-    if (bestPlan == null) {
+    if (pathTrie.isEmpty()) {
       return null;
     }
     
-    // generate actual plan from the time window plan
-    final LinkedList<Range<Long>> intervals = new LinkedList<>();
-    final List<FreeTimeWindow> freeTimeWindows = bestPlan.getFreeTimeWindows();
-    final FreeTimeWindow lastFreeTimeWindow = freeTimeWindows
-        .get(freeTimeWindows.size() - 1);
-    
-    intervals.addFirst(
-        Range.closed(lastFreeTimeWindow.getEntryWindow().lowerEndpoint(),
-            lastFreeTimeWindow.getExitWindow().lowerEndpoint()));
- 
-    for (int i = freeTimeWindows.size() - 2; i >= 0; i--) {
-      intervals.addFirst(
-          Range.closed(freeTimeWindows.get(i).getEntryWindow().lowerEndpoint(),
-              intervals.getFirst().lowerEndpoint()
-                  + ((long) (setting.getVehicleLength() * 1000
-                      / setting.getVehicleSpeed()))));
-    }
-    
-    Plan plan = new Plan(bestPlan.getPath(), intervals);
-    
-    return plan;
-  }*/
-  
-  public Plan exploreRoute(int agvID, long startTime, Point origin,
-      List<Point> destinations, int numOfPaths, boolean started) {
+    final OpenList<PlanFTW> planQueue = new OpenList<>();
+    final ClosedTable closedTable = new ClosedTable();
     
-    // sampling the environment to get several feasible paths
-    final List<Path> feasiblePaths = pathSampling.getFeasiblePaths(origin,
-        destinations, numOfPaths);
+    // free time window of the start node
+    plannerStatistics.countNodeQuery();
+    final List<FreeTimeWindow> firstFreeTimeWindows = nodeAgentList
+        .getNodeAgent(pathTrie.getNodeID(PathTrie.ROOT))
+        .getFreeTimeWindows(startTime, FreeTimeWindow.UNBOUNDED, agvID);
     
-    final SortedMap<Long, PlanFTW> planQueue = new TreeMap<>();
-    final Set<PlanStep> closedSet = new LinkedHashSet<>();
-    
-    for (Path path : feasiblePaths) {
-      final List<Point> candPath = path.getPath();
-
-      // free time window of the start node
-      final List<FreeTimeWindow> firstFreeTimeWindows = nodeAgentList
-          .getNodeAgent(candPath.get(0))
-          .getFreeTimeWindows(Range.atLeast(startTime), agvID);
+    final List<FreeTimeWindow> startFTWs;
+    if (started) {
+      // if the AGV already started
+      startFTWs = new ArrayList<>();
       
-      if (started) {
-        // if the AGV already started
-        FreeTimeWindow startFTW = null;
-        
-        // there should be only one free time window that contains the startTime
-        final long realStartTime = startTime - ((long) (setting.getVehicleLength()*1000 / setting.getVehicleSpeed()));
-        for (FreeTimeWindow ftw : firstFreeTimeWindows) {
-          if (ftw.getEntryWindow().contains(realStartTime)
-              || ftw.getEntryWindow().lowerEndpoint() == realStartTime) {
-            startFTW = ftw;
-            break;
-          }
-        }
-        
-        // if no possible free time window then next candidate path
-        if (startFTW == null) {
-          continue;
-        }
-        
-        final PlanStep planStep = new PlanStep(candPath, 0, startFTW);
-        closedSet.add(planStep);
-        
-        LinkedList<FreeTimeWindow> firstFTW = new LinkedList<>();
-        firstFTW.addLast(startFTW);
-        
-        final PlanFTW planFTW = new PlanFTW(firstFTW, candPath);
-        long estimatedCost = computeCost(planFTW);
-        while (planQueue.containsKey(estimatedCost)) {
-          estimatedCost++;
-        }
-        planQueue.put(estimatedCost, planFTW);
-      } else {
-        // if the AGV hasn't entered the map yet
-        for (FreeTimeWindow startFTW : firstFreeTimeWindows) {
-          final LinkedList<FreeTimeWindow> firstFTW = new LinkedList<>();
-          firstFTW.addLast(startFTW);
-          
-          final PlanStep planStep = new PlanStep(candPath, 0, startFTW);
-          closedSet.add(planStep);
-
-          final PlanFTW firstPlanFTW = new PlanFTW(firstFTW, candPath);
-          
-          long estimatedCost = computeCost(firstPlanFTW);
-          while (planQueue.containsKey(estimatedCost)) {
-            estimatedCost++;
-          }
-          planQueue.put(estimatedCost, firstPlanFTW);
+      // there should be only one free time window that contains the startTime
+      final long realStartTime = startTime - ((long) (setting.getVehicleLength()
+          * 1000 / setting.getVehicleSpeed()));
+      for (FreeTimeWindow ftw : firstFreeTimeWindows) {
+        if (ftw.entryWindowContains(realStartTime)) {
+          startFTWs.add(ftw);
+          break;
         }
       }
+    } else {
+      // if the AGV hasn't entered the map yet
+      startFTWs = firstFreeTimeWindows;
+    }
+    
+    final Path shortestPath = feasiblePaths
+        .get(pathTrie.getShortestCandidate(PathTrie.ROOT));
+    for (FreeTimeWindow startFTW : startFTWs) {
+      closedTable.add(0, 0, PathTrie.ROOT, startFTW);
+      
+      final PlanFTW firstPlanFTW = new PlanFTW(startFTW);
+      final long cost = computeCost(firstPlanFTW, shortestPath);
+      if (getEarliestArrivalTime(cost) < arrivalTimeBound) {
+        planQueue.add(cost, firstPlanFTW);
+      }
     }
     
     PlanFTW bestPlan = null;
     
     while (!planQueue.isEmpty()) {
-      final PlanFTW plan = planQueue.remove(planQueue.firstKey());
-      final List<Point> candPath = plan.getPath();
-      final LinkedList<FreeTimeWindow> currentFTWs = plan.getFreeTimeWindows();
-      final int planLength = currentFTWs.size();
+      plannerStatistics.countExpansion(planQueue.size());
+      final PlanFTW plan = planQueue.poll();
+      final int trieNode = plan.getTrieNode();
+      final FreeTimeWindow lastFTW = plan.getLastFreeTimeWindow();
+      final int planLength = plan.getNumOfFreeTimeWindows();
+      final boolean atNode = planLength % 2 == 1;
 
-      // if all the resources have been planned
-      if (planLength == (2 * candPath.size() - 1)) {
+      // if all the resources of a candidate path have been planned
+      if (atNode && pathTrie.getEndingCandidate(trieNode) != PathTrie.NONE) {
         bestPlan = plan;
         break;
       }
 
-      // list of next feasible free time windows
-      List<FreeTimeWindow> nextFTWs;
-      // check whether the last plan step is for a node or for an edge
-      if (planLength % 2 == 1) {
-        // the last plan step is for a node. Now we plan for the next edge
-        final int index = planLength / 2;
-        final EdgeAgent edgeAgent = edgeAgentList
-            .getEdgeAgent(candPath.get(index), candPath.get(index + 1));
-        nextFTWs = edgeAgent.getFreeTimeWindows(candPath.get(index),
-            candPath.get(index + 1), currentFTWs.getLast().getExitWindow(),
-            agvID);
-      } else {
-        // the last plan step is for an edge. Now we plan for the next node
-        final int index = planLength / 2;
-        final NodeAgent nodeAgent = nodeAgentList
-            .getNodeAgent(candPath.get(index));
-        nextFTWs = nodeAgent
-            .getFreeTimeWindows(currentFTWs.getLast().getExitWindow(), agvID);
-      }
-
-      if (nextFTWs == null) {
-        continue;
-      }
-
-      for (FreeTimeWindow ftw : nextFTWs) {
-        final PlanStep planStep = new PlanStep(candPath, planLength, ftw);
-        if (closedSet.contains(planStep)) {
-          continue;
+      // the last plan step is for a node: we plan for the edges to the
+      // children of its trie node. The last plan step is for an edge: we plan
+      // for the node that it leads to, which has the same trie node
+      int nextTrieNode = atNode ? pathTrie.getFirstChild(trieNode) : trieNode;
+      while (nextTrieNode != PathTrie.NONE) {
+        final int nextNode = pathTrie.getNodeID(nextTrieNode);
+        
+        // list of next feasible free time windows
+        final List<FreeTimeWindow> nextFTWs;
+        if (atNode) {
+          final int node = pathTrie.getNodeID(trieNode);
+          final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(node,
+              nextNode);
+          plannerStatistics.countEdgeQuery();
+          nextFTWs = edgeAgent.getFreeTimeWindows(node, nextNode,
+              lastFTW.getExitLowerEndpoint(),
+              lastFTW.getExitUpperEndpoint(), agvID);
         } else {
-          closedSet.add(planStep);
+          final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(nextNode);
+          plannerStatistics.countNodeQuery();
+          nextFTWs = nodeAgent
+              .getFreeTimeWindows(lastFTW.getExitLowerEndpoint(),
+                  lastFTW.getExitUpperEndpoint(), agvID);
         }
-        final LinkedList<FreeTimeWindow> newFtwList = new LinkedList<>(
-            currentFTWs);
-        newFtwList.addLast(ftw);
-        final PlanFTW newPlanFTW = new PlanFTW(newFtwList, candPath);
-        long estimatedCost = computeCost(newPlanFTW);
-        while (planQueue.containsKey(estimatedCost)) {
-          estimatedCost++;
+
+        if (nextFTWs != null) {
+          final Path nextShortestPath = feasiblePaths
+              .get(pathTrie.getShortestCandidate(nextTrieNode));
+          for (FreeTimeWindow ftw : nextFTWs) {
+            if (!closedTable.add(0, planLength, nextTrieNode, ftw)) {
+              // the window or a window that dominates it is closed
+              continue;
+            }
+            final PlanFTW newPlanFTW = new PlanFTW(plan, ftw, nextTrieNode);
+            final long cost = computeCost(newPlanFTW, nextShortestPath);
+            if (getEarliestArrivalTime(cost) >= arrivalTimeBound) {
+              // the plan cannot beat the arrival time bound
+              continue;
+            }
+            planQueue.add(cost, newPlanFTW);
+          }
         }
-        planQueue.put(estimatedCost, newPlanFTW);
+        
+        nextTrieNode = atNode ? pathTrie.getNextSibling(nextTrieNode)
+            : PathTrie.NONE;
       }
     }
     
-    if (bestPlan == null) {
+    plannerStatistics.setClosedSetSize(closedTable.size());
+    
+    if (bestPlan == null || bestPlan.getArrivalTime() >= arrivalTimeBound) {
       return null;
     }
     
@@ -340,18 +246,20 @@ public class VirtualEnvironment implements TickListener {
         .get(freeTimeWindows.size() - 1);
     
     intervals.addFirst(
-        Range.closed(lastFreeTimeWindow.getEntryWindow().lowerEndpoint(),
-            lastFreeTimeWindow.getExitWindow().lowerEndpoint()));
+        Range.closed(lastFreeTimeWindow.getEntryLowerEndpoint(),
+            lastFreeTimeWindow.getExitLowerEndpoint()));
  
     for (int i = freeTimeWindows.size() - 2; i >= 0; i--) {
       intervals.addFirst(
-          Range.closed(freeTimeWindows.get(i).getEntryWindow().lowerEndpoint(),
+          Range.closed(freeTimeWindows.get(i).getEntryLowerEndpoint(),
               intervals.getFirst().lowerEndpoint()
                   + ((long) (setting.getVehicleLength() * 1000
                       / setting.getVehicleSpeed()))));
     }
     
-    Plan plan = new Plan(bestPlan.getPath(), intervals);
+    Plan plan = new Plan(feasiblePaths
+        .get(pathTrie.getEndingCandidate(bestPlan.getTrieNode())).getPath(),
+        intervals);
     
     return plan;
   }
@@ -364,42 +272,47 @@ public class VirtualEnvironment implements TickListener {
    * @param lifeTime the life time
    */
   public void makeReservation(int agvID, Plan plan, long currentTime, long lifeTime) {
-    List<Point> path = plan.getPath();
+    final int[] path = resourceGraph.getNodeIDs(plan.getPath());
     List<Range<Long>> intervals = plan.getIntervals();
-    for (int i = 0; i < path.size() - 1; i++) {
+    for (int i = 0; i < path.length - 1; i++) {
       if (intervals.get(i * 2 + 1).upperEndpoint() < currentTime) {
         continue;
       }
       
-      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(path.get(i));
+      final NodeAgent nodeAgent = nodeAgentList.getNodeAgent(path[i]);
       nodeAgent.addReservation(agvID, lifeTime, intervals.get(i * 2));
-      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(path.get(i),
-          path.get(i + 1));
-      edgeAgent.addReservation(path.get(i), intervals.get(i * 2 + 1), lifeTime,
+      final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(path[i],
+          path[i + 1]);
+      edgeAgent.addReservation(path[i], intervals.get(i * 2 + 1), lifeTime,
           agvID);
     }
     
     final NodeAgent lastNodeAgent = nodeAgentList
-        .getNodeAgent(path.get(path.size() - 1));
+        .getNodeAgent(path[path.length - 1]);
     lastNodeAgent.addReservation(agvID, lifeTime,
         intervals.get(intervals.size() - 1));
   }
   
-  public long computeCost(PlanFTW plan) {
-    final LinkedList<FreeTimeWindow> currentFTWs = plan.getFreeTimeWindows();
-    final List<Point> path = plan.getPath();
-    final int planLength = currentFTWs.size();
+  /**
+   * Computes the cost of the plan, a lower bound of the costs of the complete
+   * plans that extend it.
+   *
+   * @param plan the plan
+   * @param shortestPath the shortest candidate path through the trie node of
+   *          the plan
+   * @return the cost
+   */
+  public long computeCost(PlanFTW plan, Path shortestPath) {
+    final int planLength = plan.getNumOfFreeTimeWindows();
     final long earliestExitTime = plan.getEarliestExitTime();
     final int index = planLength / 2;
     
-    final List<Point> remainingPath;
     final double remainingPathLength;
     final long estimatedCost;
     
     if (planLength % 2 == 1) {
       // the last plan step is for a node.
-      remainingPath = path.subList(index, path.size());
-      remainingPathLength = Graphs.pathLength(remainingPath);
+      remainingPathLength = shortestPath.getRemainingLength(index);
       // if the plan stop at a node (note that the exit time is the time when
       // the vehicle is completely out of the node
       estimatedCost = earliestExitTime
@@ -409,8 +322,7 @@ public class VirtualEnvironment implements TickListener {
     } else {
       // the last plan step is for an edge. Now we plan for the next node
       // example: plan at edge with planLength = 2, then index = 1
-      remainingPath = path.subList(index, path.size());
-      remainingPathLength = Graphs.pathLength(remainingPath);
+      remainingPathLength = shortestPath.getRemainingLength(index);
       // if the plan stop at an edge, the exit time is the time when the vehicle
       // is exactly at the central of the next node
       estimatedCost = earliestExitTime
@@ -420,6 +332,43 @@ public class VirtualEnvironment implements TickListener {
     return estimatedCost;
   }
   
+  /**
+   * Gets the earliest time at which the AGV can arrive at the destination
+   * with a complete plan that extends a plan of the given cost. The cost of a
+   * complete plan is the time at which the AGV is half a node past its
+   * arrival, and the cost of a plan is at most the cost of its extensions.
+   *
+   * @param cost the cost of the plan
+   * @return the earliest arrival time
+   */
+  private long getEarliestArrivalTime(long cost) {
+    return cost + ((long) (setting.getVehicleLength() * 1000
+        / setting.getVehicleSpeed()))
+        - ((long) (setting.getVehicleLength() * 2 * 1000
+            / setting.getVehicleSpeed()));
+  }
+  
+  /**
+   * Creates a monitor of the occupancy of the resources. It samples only
+   * when it is added to the simulator as a tick listener.
+   *
+   * @param samplingPeriod the sampling period, in milliseconds
+   * @return the occupancy monitor
+   */
+  public OccupancyMonitor createOccupancyMonitor(long samplingPeriod) {
+    return new OccupancyMonitor(resourceGraph, nodeAgentList, edgeAgentList,
+        samplingPeriod);
+  }
+  
+  /**
+   * Gets the statistics of the explorations.
+   *
+   * @return the planner statistics
+   */
+  public PlannerStatistics getPlannerStatistics() {
+    return plannerStatistics;
+  }
+  
   @Override
   public void tick(TimeLapse timeLapse) {
     
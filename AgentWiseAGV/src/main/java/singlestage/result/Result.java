@@ -1,8 +1,13 @@
 package singlestage.result;
 
+import javax.annotation.Nullable;
+
 import com.github.rinde.rinsim.core.Simulator;
+import com.google.common.base.Optional;
 
+import resourceagents.OccupancyMonitor;
 import setting.Setting;
+import statistics.PlannerStatistics;
 
 public class Result {
   
@@ -20,6 +25,11 @@ public class Result {
   
   private Simulator sim;
   
+  private PlannerStatistics plannerStatistics;
+  
+  @Nullable
+  private OccupancyMonitor occupancyMonitor;
+  
   public Result(Setting setting, Simulator sim) {
     jointPlanCost = 0;
     earliestStartingTime = Long.MAX_VALUE;
@@ -27,9 +37,18 @@ public class Result {
     makeSpan = -1;
     numOfAGVs = 0;
     this.setting = setting;
+    plannerStatistics = new PlannerStatistics(false);
     this.sim = sim;
   }
   
+  public Result(Setting setting, long jointPlanCost, long makeSpan) {
+    this.jointPlanCost = jointPlanCost;
+    this.makeSpan = makeSpan;
+    numOfAGVs = setting.getNumOfAGVs();
+    this.setting = setting;
+    plannerStatistics = new PlannerStatistics(false);
+  }
+  
   public void updateResult(long startTime, long finishTime) {
     numOfAGVs++;
     
@@ -49,6 +68,18 @@ public class Result {
     }
   }
   
+  public void releaseSimulator() {
+    sim = null;
+  }
+  
+  public void setPlannerStatistics(PlannerStatistics plannerStatistics) {
+    this.plannerStatistics = plannerStatistics;
+  }
+  
+  public void setOccupancyMonitor(@Nullable OccupancyMonitor occupancyMonitor) {
+    this.occupancyMonitor = occupancyMonitor;
+  }
+  
   public Setting getSetting() {
     return setting;
   }
@@ -60,4 +91,36 @@ public class Result {
   public long getMakeSpan() {
     return makeSpan;
   }
+
+  /**
+   * Gets the time at which the last AGV finished. It is not journaled, so it
+   * is 0 for a result that is restored from a journal.
+   *
+   * @return the latest finish time
+   */
+  public long getLatestFinishTime() {
+    return latestFinishTime;
+  }
+
+  /**
+   * Gets the statistics of the explorations of the run, for the whole run and,
+   * if the setting asks for it, for every AGV. They are empty for a result
+   * that is restored from a journal.
+   *
+   * @return the planner statistics
+   */
+  public PlannerStatistics getPlannerStatistics() {
+    return plannerStatistics;
+  }
+
+  /**
+   * Gets the monitor of the occupancy of the resources during the run. It is
+   * absent if the setting did not ask for it or the result is restored from a
+   * journal.
+   *
+   * @return the occupancy monitor
+   */
+  public Optional<OccupancyMonitor> getOccupancyMonitor() {
+    return Optional.fromNullable(occupancyMonitor);
+  }
 }
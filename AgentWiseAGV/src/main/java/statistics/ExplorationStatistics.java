@@ -0,0 +1,142 @@
+package statistics;
+
+/**
+ * The Class ExplorationStatistics.
+ * It is the distribution of the work of a number of explorations (calls of
+ * exploreRoute of a virtual environment): for every exploration its wall
+ * time, the number of plans that were expanded, the peak size of the open
+ * list, the size of the closed set at the end and the number of queries of
+ * the node agents and of the edge agents.
+ *
+ * @author Tung
+ */
+public class ExplorationStatistics {
+
+  /** The wall times, in nanoseconds. */
+  private final Histogram planningTimes;
+
+  /** The numbers of expanded plans. */
+  private final Histogram expansions;
+
+  /** The peak sizes of the open list. */
+  private final Histogram peakOpenListSizes;
+
+  /** The sizes of the closed set. */
+  private final Histogram closedSetSizes;
+
+  /** The numbers of queries of the node agents. */
+  private final Histogram nodeQueries;
+
+  /** The numbers of queries of the edge agents. */
+  private final Histogram edgeQueries;
+
+  /**
+   * Instantiates new statistics without explorations.
+   */
+  public ExplorationStatistics() {
+    planningTimes = new Histogram();
+    expansions = new Histogram();
+    peakOpenListSizes = new Histogram();
+    closedSetSizes = new Histogram();
+    nodeQueries = new Histogram();
+    edgeQueries = new Histogram();
+  }
+
+  /**
+   * Records an exploration.
+   *
+   * @param planningTime the wall time, in nanoseconds
+   * @param numOfExpansions the number of expanded plans
+   * @param peakOpenListSize the peak size of the open list
+   * @param closedSetSize the size of the closed set
+   * @param numOfNodeQueries the number of queries of the node agents
+   * @param numOfEdgeQueries the number of queries of the edge agents
+   */
+  public void record(long planningTime, int numOfExpansions,
+      int peakOpenListSize, int closedSetSize, int numOfNodeQueries,
+      int numOfEdgeQueries) {
+    planningTimes.record(planningTime);
+    expansions.record(numOfExpansions);
+    peakOpenListSizes.record(peakOpenListSize);
+    closedSetSizes.record(closedSetSize);
+    nodeQueries.record(numOfNodeQueries);
+    edgeQueries.record(numOfEdgeQueries);
+  }
+
+  /**
+   * Adds the explorations of other statistics to these.
+   *
+   * @param other the other statistics
+   */
+  public void add(ExplorationStatistics other) {
+    planningTimes.add(other.planningTimes);
+    expansions.add(other.expansions);
+    peakOpenListSizes.add(other.peakOpenListSizes);
+    closedSetSizes.add(other.closedSetSizes);
+    nodeQueries.add(other.nodeQueries);
+    edgeQueries.add(other.edgeQueries);
+  }
+
+  /**
+   * Gets the number of explorations.
+   *
+   * @return the number of explorations
+   */
+  public long getNumOfExplorations() {
+    return planningTimes.getCount();
+  }
+
+  /**
+   * Gets the wall times, in nanoseconds.
+   *
+   * @return the planning times
+   */
+  public Histogram getPlanningTimes() {
+    return planningTimes;
+  }
+
+  /**
+   * Gets the numbers of expanded plans.
+   *
+   * @return the expansions
+   */
+  public Histogram getExpansions() {
+    return expansions;
+  }
+
+  /**
+   * Gets the peak sizes of the open list.
+   *
+   * @return the peak open list sizes
+   */
+  public Histogram getPeakOpenListSizes() {
+    return peakOpenListSizes;
+  }
+
+  /**
+   * Gets the sizes of the closed set.
+   *
+   * @return the closed set sizes
+   */
+  public Histogram getClosedSetSizes() {
+    return closedSetSizes;
+  }
+
+  /**
+   * Gets the numbers of queries of the node agents.
+   *
+   * @return the node queries
+   */
+  public Histogram getNodeQueries() {
+    return nodeQueries;
+  }
+
+  /**
+   * Gets the numbers of queries of the edge agents.
+   *
+   * @return the edge queries
+   */
+  public Histogram getEdgeQueries() {
+    return edgeQueries;
+  }
+}
@@ -0,0 +1,174 @@
+package statistics;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The Class Histogram.
+ * It counts non-negative values in buckets whose width grows with the value,
+ * like an HDR histogram: the values below {@value #SUB_BUCKETS} have a bucket
+ * each, and every larger power of two is split into
+ * {@value #SUB_BUCKETS} / 2 buckets. A value is therefore known up to about
+ * 2 / {@value #SUB_BUCKETS} of itself, which is about 3%, and recording a
+ * value costs a few shifts and an array increment. The buckets are only
+ * allocated up to the largest value, so a histogram of small values is
+ * small.
+ *
+ * @author Tung
+ */
+public class Histogram {
+
+  /** The number of bits of the position of a value in its power of two. */
+  private static final int SUB_BUCKET_BITS = 6;
+
+  /** The number of values below which every value has its own bucket. */
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /** The number of buckets of a power of two. */
+  private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+  /** The counts of the values in each bucket. */
+  private long[] counts;
+
+  /** The number of values. */
+  private long count;
+
+  /** The sum of the values. */
+  private long sum;
+
+  /** The largest value. */
+  private long max;
+
+  /**
+   * Instantiates a new empty histogram.
+   */
+  public Histogram() {
+    counts = new long[SUB_BUCKETS];
+  }
+
+  /**
+   * Gets the index of the bucket of a value.
+   *
+   * @param value the value
+   * @return the index
+   */
+  private static int getIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    // the value is shifted until its SUB_BUCKET_BITS highest bits are left
+    final int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  /**
+   * Gets the largest value of a bucket.
+   *
+   * @param index the index of the bucket
+   * @return the value
+   */
+  private static long getHighestValue(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int shift = index / HALF_SUB_BUCKETS - 1;
+    final long subBucket = index - shift * HALF_SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  /**
+   * Records a value.
+   *
+   * @param value the value, not negative
+   */
+  public void record(long value) {
+    Preconditions.checkArgument(value >= 0,
+        "The value must not be negative: %s", value);
+    final int index = getIndex(value);
+    if (index >= counts.length) {
+      counts = Arrays.copyOf(counts, index + 1);
+    }
+    counts[index]++;
+    count++;
+    sum += value;
+    if (value > max) {
+      max = value;
+    }
+  }
+
+  /**
+   * Adds the values of another histogram to this one.
+   *
+   * @param other the other histogram
+   */
+  public void add(Histogram other) {
+    if (other.counts.length > counts.length) {
+      counts = Arrays.copyOf(counts, other.counts.length);
+    }
+    for (int index = 0; index < other.counts.length; index++) {
+      counts[index] += other.counts[index];
+    }
+    count += other.count;
+    sum += other.sum;
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Gets the number of values.
+   *
+   * @return the number of values
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the sum of the values.
+   *
+   * @return the sum
+   */
+  public long getSum() {
+    return sum;
+  }
+
+  /**
+   * Gets the largest value.
+   *
+   * @return the largest value, 0 if there are no values
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Gets the mean of the values.
+   *
+   * @return the mean, 0 if there are no values
+   */
+  public double getMean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * Gets the value below which the given percentage of the values are. It is
+   * the largest value of the bucket of that value, but not larger than the
+   * largest value.
+   *
+   * @param percentile the percentage, from 0 to 100
+   * @return the value, 0 if there are no values
+   */
+  public long getValueAtPercentile(double percentile) {
+    Preconditions.checkArgument(percentile >= 0 && percentile <= 100,
+        "The percentile must be between 0 and 100: %s", percentile);
+    final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int index = 0; index < counts.length; index++) {
+      seen += counts[index];
+      if (seen >= rank) {
+        return Math.min(getHighestValue(index), max);
+      }
+    }
+    return 0;
+  }
+}
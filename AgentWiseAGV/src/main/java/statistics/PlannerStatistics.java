@@ -0,0 +1,166 @@
+package statistics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * The Class PlannerStatistics.
+ * It collects the work of the explorations of a virtual environment during a
+ * run, for the whole run and, if asked, for every AGV. The planner calls
+ * {@link #startExploration()}, counts its work while it searches and calls
+ * {@link #finishExploration(int)} when it is done. Counting is a field
+ * increment and every exploration is recorded in a set of {@link Histogram}s,
+ * so the statistics are always collected. The statistics of every AGV take a
+ * set of histograms per AGV, which adds up over the runs of an experiment, so
+ * they are only kept if the setting asks for them (see
+ * {@link setting.Setting#isAGVStatistics()}). A run is simulated by one
+ * thread, so the statistics are not thread safe.
+ *
+ * @author Tung
+ */
+public class PlannerStatistics {
+
+  /** The statistics of all explorations of the run. */
+  private final ExplorationStatistics runStatistics;
+
+  /**
+   * The statistics of the explorations of each AGV, by AGV id, or null if
+   * they are not kept.
+   */
+  @Nullable
+  private final Map<Integer, ExplorationStatistics> agvStatistics;
+
+  /** The start of the current exploration, in nanoseconds. */
+  private long start;
+
+  /** The number of expanded plans of the current exploration. */
+  private int expansions;
+
+  /** The peak size of the open list of the current exploration. */
+  private int peakOpenListSize;
+
+  /** The size of the closed set of the current exploration. */
+  private int closedSetSize;
+
+  /** The number of queries of the node agents of the current exploration. */
+  private int nodeQueries;
+
+  /** The number of queries of the edge agents of the current exploration. */
+  private int edgeQueries;
+
+  /**
+   * Instantiates new statistics without explorations.
+   *
+   * @param perAGV whether the statistics of every AGV are kept
+   */
+  public PlannerStatistics(boolean perAGV) {
+    runStatistics = new ExplorationStatistics();
+    agvStatistics = perAGV ? new HashMap<Integer, ExplorationStatistics>()
+        : null;
+  }
+
+  /**
+   * Starts counting a new exploration.
+   */
+  public void startExploration() {
+    expansions = 0;
+    peakOpenListSize = 0;
+    closedSetSize = 0;
+    nodeQueries = 0;
+    edgeQueries = 0;
+    start = System.nanoTime();
+  }
+
+  /**
+   * Counts the expansion of a plan.
+   *
+   * @param openListSize the size of the open list before the plan was taken
+   *          from it
+   */
+  public void countExpansion(int openListSize) {
+    expansions++;
+    if (openListSize > peakOpenListSize) {
+      peakOpenListSize = openListSize;
+    }
+  }
+
+  /**
+   * Counts a query of a node agent.
+   */
+  public void countNodeQuery() {
+    nodeQueries++;
+  }
+
+  /**
+   * Counts a query of an edge agent.
+   */
+  public void countEdgeQuery() {
+    edgeQueries++;
+  }
+
+  /**
+   * Sets the size of the closed set of the current exploration.
+   *
+   * @param closedSetSize the size of the closed set
+   */
+  public void setClosedSetSize(int closedSetSize) {
+    this.closedSetSize = closedSetSize;
+  }
+
+  /**
+   * Records the current exploration for the run and, if they are kept, for
+   * the AGV.
+   *
+   * @param agvID the id of the AGV that explored
+   */
+  public void finishExploration(int agvID) {
+    final long planningTime = System.nanoTime() - start;
+    if (agvStatistics != null) {
+      ExplorationStatistics statistics = agvStatistics.get(agvID);
+      if (statistics == null) {
+        statistics = new ExplorationStatistics();
+        agvStatistics.put(agvID, statistics);
+      }
+      statistics.record(planningTime, expansions, peakOpenListSize,
+          closedSetSize, nodeQueries, edgeQueries);
+    }
+    runStatistics.record(planningTime, expansions, peakOpenListSize,
+        closedSetSize, nodeQueries, edgeQueries);
+  }
+
+  /**
+   * Gets the statistics of all explorations of the run.
+   *
+   * @return the statistics
+   */
+  public ExplorationStatistics getRunStatistics() {
+    return runStatistics;
+  }
+
+  /**
+   * Gets the ids of the AGVs that explored.
+   *
+   * @return the ids, empty if the statistics of every AGV are not kept
+   */
+  public Set<Integer> getAGVIDs() {
+    return agvStatistics == null ? Collections.<Integer> emptySet()
+        : Collections.unmodifiableSet(agvStatistics.keySet());
+  }
+
+  /**
+   * Gets the statistics of the explorations of an AGV.
+   *
+   * @param agvID the id of the AGV
+   * @return the statistics, empty if the AGV did not explore or the
+   *         statistics of every AGV are not kept
+   */
+  public ExplorationStatistics getAGVStatistics(int agvID) {
+    final ExplorationStatistics statistics = agvStatistics == null ? null
+        : agvStatistics.get(agvID);
+    return statistics == null ? new ExplorationStatistics() : statistics;
+  }
+}
@@ -6,10 +6,16 @@ pd <- position_dodge(1)
 
 ####################################
 
-caMakeSpan = read.table("ResultsCA_makespan.txt", header=TRUE)
+# the rows are written as the runs finish, so the runs of both approaches are
+# matched by the number of AGVs and the seed, and unfinished sweeps can be read
+caResults = read.table("ResultsCA.txt", header=TRUE)
+dMasResults = read.table("ResultsDMAS.txt", header=TRUE)
+singleStage = merge(caResults, dMasResults, by=c("numAGVs", "seed"), suffixes=c(".ca", ".dmas"))
+
+caMakeSpan = caResults[,c("numAGVs", "makespan")]
 caMakeSpan[,"approach"] = "ContextAware"
 
-dMasMakeSpan = read.table("ResultsDMAS_makespan.txt", header=TRUE)
+dMasMakeSpan = dMasResults[,c("numAGVs", "makespan")]
 dMasMakeSpan[,"approach"] = "DelegateMAS"
 
 makespan_dat = rbind(caMakeSpan, dMasMakeSpan)
@@ -27,10 +33,10 @@ ggplot(makespan_datC, aes(x=numAGVs, y=makespan, color=approach, group=approach)
 
 ####################################
 
-caPlanCost = read.table("ResultsCA_plancost.txt", header=TRUE)
+caPlanCost = caResults[,c("numAGVs", "PlanCost")]
 caPlanCost[,"approach"] = "ContextAware"
 
-dMasPlanCost = read.table("ResultsDMAS_plancost.txt", header=TRUE)
+dMasPlanCost = dMasResults[,c("numAGVs", "PlanCost")]
 dMasPlanCost[,"approach"] = "DelegateMAS"
 
 planCost_dat = rbind(caPlanCost, dMasPlanCost)
@@ -48,13 +54,8 @@ ggplot(planCost_datC, aes(x=numAGVs, y=PlanCost, color=approach, group=approach)
 
 ####################################
 
-numAGVs = c()
-percentageOfMakeSpan = c()
-
-for (i in 1:1000) {
-  numAGVs[i] = caMakeSpan[i,1]
-  percentageOfMakeSpan[i] = (dMasMakeSpan[i,2] / caMakeSpan[i,2])*100
-}
+numAGVs = singleStage$numAGVs
+percentageOfMakeSpan = (singleStage$makespan.dmas / singleStage$makespan.ca)*100
 
 percentageMS = data.frame(numAGVs, percentageOfMakeSpan)
 
@@ -71,13 +72,8 @@ ggplot(percentageMSC, aes(x=numAGVs, y=percentageOfMakeSpan)) +
 
 ####################################
 
-numAGVs = c()
-percentageOfPlanCost = c()
-
-for (i in 1:1000) {
-  numAGVs[i] = caMakeSpan[i,1]
-  percentageOfPlanCost[i] = (dMasPlanCost[i,2] / caPlanCost[i,2])*100
-}
+numAGVs = singleStage$numAGVs
+percentageOfPlanCost = (singleStage$PlanCost.dmas / singleStage$PlanCost.ca)*100
 
 percentageMS = data.frame(numAGVs, percentageOfPlanCost)
 
@@ -114,13 +110,9 @@ ggplot(throughput_datC, aes(x=numAGVs, y=FinishedTask, color=approach, group=app
 
 ################################################
 
-numAGVs = c()
-percentageOfThroughPut = c()
-
-for (i in 1:nrow(caMultiStage)) {
-  numAGVs[i] = caMultiStage[i,1]
-  percentageOfThroughPut[i] = (dMasMultiStage[i,2] / caMultiStage[i,2])*100
-}
+multiStage = merge(caMultiStage, dMasMultiStage, by=c("numAGVs", "seed"), suffixes=c(".ca", ".dmas"))
+numAGVs = multiStage$numAGVs
+percentageOfThroughPut = (multiStage$FinishedTask.dmas / multiStage$FinishedTask.ca)*100
 
 percentageThroughPut = data.frame(numAGVs, percentageOfThroughPut)
 
@@ -0,0 +1,229 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.rinde.rinsim.geom.ListenableGraph;
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+
+import experiment.AGVSystems;
+import experiment.ExperimentEngine;
+import resourceagents.OccupancyMonitor;
+import resourceagents.ResourceGraph;
+import setting.Setting;
+
+/**
+ * The Class OccupancyReport. Runs every AGV system without visualization with
+ * an occupancy monitor for the first seed of seeds.txt, and writes the time
+ * series and the heatmap of every run to the output directory, as
+ * [system]-timeseries.txt and [system]-heatmap.txt. It checks that the time
+ * series has a row per sample and that the heatmap has a row per node and
+ * per edge of the resource graph of the map.
+ *
+ * <p>
+ * Usage: OccupancyReport [output directory] [sampling period in milliseconds]
+ *
+ * @author Tung
+ */
+public class OccupancyReport {
+
+  /** The number of AGVs of the runs. */
+  private static final int NUM_OF_AGVS = 50;
+
+  /** The default output directory. */
+  private static final String DEFAULT_DIRECTORY = "occupancy";
+
+  /** The default sampling period, in milliseconds. */
+  private static final long DEFAULT_SAMPLING_PERIOD = 1000;
+
+  public static void main(String[] args) throws IOException {
+    final File directory = new File(
+        args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+    final long samplingPeriod = args.length > 1 ? Long.parseLong(args[1])
+        : DEFAULT_SAMPLING_PERIOD;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create the directory " + directory);
+    }
+    final long seed = ExperimentEngine
+        .readSeeds(new File("src/main/resources/seeds.txt")).get(0);
+    final Setting setting = new Setting.SettingBuilder()
+        .setNumOfAGVs(NUM_OF_AGVS).setSeed(seed)
+        .setOccupancySamplingPeriod(samplingPeriod).build();
+
+    final List<ReportedSystem<?>> systems = Arrays
+        .<ReportedSystem<?>> asList(
+        new SingleStageSystem("SINGLE_STAGE_CA", AGVSystems.SINGLE_STAGE_CA),
+        new SingleStageSystem("SINGLE_STAGE_DMAS",
+            AGVSystems.SINGLE_STAGE_DMAS),
+        new GarageSystem("GARAGE_CA", AGVSystems.GARAGE_CA),
+        new GarageSystem("GARAGE_DMAS", AGVSystems.GARAGE_DMAS),
+        new CentralStationSystem("CENTRAL_STATION_CA",
+            AGVSystems.CENTRAL_STATION_CA),
+        new CentralStationSystem("CENTRAL_STATION_DMAS",
+            AGVSystems.CENTRAL_STATION_DMAS));
+
+    System.out.println(NUM_OF_AGVS + " AGVs, seed " + seed
+        + ", sampling period " + samplingPeriod + " ms");
+    for (ReportedSystem<?> system : systems) {
+      final OccupancyMonitor occupancyMonitor = system.run(setting);
+      final File timeSeries = new File(directory,
+          system.getName() + "-timeseries.txt");
+      final File heatmap = new File(directory,
+          system.getName() + "-heatmap.txt");
+      occupancyMonitor.writeTimeSeries(timeSeries);
+      occupancyMonitor.writeHeatmap(heatmap);
+
+      final ResourceGraph resourceGraph = new ResourceGraph(
+          system.createGraph(setting));
+      checkNumOfRows(timeSeries, occupancyMonitor.getNumOfSamples());
+      checkNumOfRows(heatmap,
+          resourceGraph.getNumOfNodes() + resourceGraph.getNumOfEdges());
+      System.out.println("  " + system.getName() + ": "
+          + occupancyMonitor.getNumOfSamples() + " samples, "
+          + resourceGraph.getNumOfNodes() + " nodes and "
+          + resourceGraph.getNumOfEdges() + " edges");
+    }
+  }
+
+  /**
+   * Checks the number of rows of a file with a header.
+   *
+   * @param file the file
+   * @param numOfRows the number of rows after the header
+   * @throws IOException if the file cannot be read
+   */
+  private static void checkNumOfRows(File file, int numOfRows)
+      throws IOException {
+    int numOfLines = 0;
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new FileInputStream(file), StandardCharsets.UTF_8))) {
+      while (reader.readLine() != null) {
+        numOfLines++;
+      }
+    }
+    if (numOfLines != numOfRows + 1) {
+      throw new IllegalStateException(file + " has " + (numOfLines - 1)
+          + " rows instead of " + numOfRows);
+    }
+  }
+
+  /**
+   * The Class ReportedSystem. An AGV system, the map it runs on and the way
+   * to read the occupancy monitor from its results.
+   *
+   * @param <R> the type of the results
+   */
+  private abstract static class ReportedSystem<R> {
+
+    /** The name. */
+    private final String name;
+
+    /** The AGV system. */
+    private final Function<Setting, R> system;
+
+    ReportedSystem(String name, Function<Setting, R> system) {
+      this.name = name;
+      this.system = system;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    abstract ListenableGraph<?> createGraph(Setting setting);
+
+    abstract Optional<OccupancyMonitor> getOccupancyMonitor(R result);
+
+    /**
+     * Runs the system on this thread.
+     *
+     * @param setting the setting, with a sampling period
+     * @return the occupancy monitor of the run
+     */
+    OccupancyMonitor run(Setting setting) {
+      final Optional<OccupancyMonitor> occupancyMonitor = getOccupancyMonitor(
+          system.apply(setting));
+      if (!occupancyMonitor.isPresent()) {
+        throw new IllegalStateException(name + " has no occupancy monitor");
+      }
+      return occupancyMonitor.get();
+    }
+  }
+
+  /**
+   * The Class SingleStageSystem. A system of the single stage model.
+   */
+  private static final class SingleStageSystem
+      extends ReportedSystem<singlestage.result.Result> {
+
+    SingleStageSystem(String name,
+        Function<Setting, singlestage.result.Result> system) {
+      super(name, system);
+    }
+
+    @Override
+    ListenableGraph<?> createGraph(Setting setting) {
+      return new singlestage.GraphCreator(setting).createGraph();
+    }
+
+    @Override
+    Optional<OccupancyMonitor> getOccupancyMonitor(
+        singlestage.result.Result result) {
+      return result.getOccupancyMonitor();
+    }
+  }
+
+  /**
+   * The Class GarageSystem. A system of the garage model.
+   */
+  private static final class GarageSystem
+      extends ReportedSystem<multistage.result.Result> {
+
+    GarageSystem(String name,
+        Function<Setting, multistage.result.Result> system) {
+      super(name, system);
+    }
+
+    @Override
+    ListenableGraph<?> createGraph(Setting setting) {
+      return new multistage.garagemodel.GraphCreator(setting).createGraph();
+    }
+
+    @Override
+    Optional<OccupancyMonitor> getOccupancyMonitor(
+        multistage.result.Result result) {
+      return result.getOccupancyMonitor();
+    }
+  }
+
+  /**
+   * The Class CentralStationSystem. A system of the central station model.
+   */
+  private static final class CentralStationSystem
+      extends ReportedSystem<multistage.result.Result> {
+
+    CentralStationSystem(String name,
+        Function<Setting, multistage.result.Result> system) {
+      super(name, system);
+    }
+
+    @Override
+    ListenableGraph<?> createGraph(Setting setting) {
+      return new multistage.centralstationmodel.GraphCreator(setting)
+          .createGraph();
+    }
+
+    @Override
+    Optional<OccupancyMonitor> getOccupancyMonitor(
+        multistage.result.Result result) {
+      return result.getOccupancyMonitor();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package test;
+
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import routeplan.OpenList;
+
+/**
+ * The Class OpenListBenchmark. Compares the open list of the route planners
+ * with the former TreeMap-based open list, which resolved equal costs by
+ * incrementing the key until it was free. The workload imitates an A* search
+ * on a congested map: every expansion polls the best plan and adds a few
+ * successors whose estimated costs are often equal. When the costs in the
+ * queue get denser than about one per time unit, the probing of the TreeMap
+ * grows with the queue size and a single run takes minutes, so such spreads
+ * are left out.
+ *
+ * @author Tung
+ */
+public class OpenListBenchmark {
+
+  /** The number of expansions per run. */
+  private static final int EXPANSIONS = 50000;
+
+  /** The number of successors per expansion. */
+  private static final int BRANCHING = 2;
+
+  /** The number of runs, the first ones are for warming up. */
+  private static final int RUNS = 6;
+
+  public static void main(String[] args) {
+    for (int costSpread : new int[] {1000000, 100000}) {
+      long treeMapTime = 0;
+      long openListTime = 0;
+      for (int run = 0; run < RUNS; run++) {
+        final long start = System.nanoTime();
+        runTreeMap(new Random(run), costSpread);
+        final long middle = System.nanoTime();
+        runOpenList(new Random(run), costSpread);
+        final long end = System.nanoTime();
+        if (run >= RUNS / 2) {
+          treeMapTime += middle - start;
+          openListTime += end - middle;
+        }
+      }
+      final int measuredRuns = RUNS - RUNS / 2;
+      System.out.println("cost spread " + costSpread + " (smaller means more ties)");
+      System.out.println("  TreeMap with cost bumping: "
+          + expansionsPerSecond(treeMapTime, measuredRuns) + " expansions/s");
+      System.out.println("  OpenList:                  "
+          + expansionsPerSecond(openListTime, measuredRuns) + " expansions/s");
+    }
+  }
+
+  private static long expansionsPerSecond(long nanos, int runs) {
+    return (long) (EXPANSIONS * (double) runs / (nanos / 1e9));
+  }
+
+  private static long runTreeMap(Random random, int costSpread) {
+    final SortedMap<Long, Object> planQueue = new TreeMap<>();
+    planQueue.put(0L, random);
+    long checksum = 0;
+    for (int i = 0; i < EXPANSIONS && !planQueue.isEmpty(); i++) {
+      final long cost = planQueue.firstKey();
+      planQueue.remove(cost);
+      checksum += cost;
+      for (int j = 0; j < BRANCHING; j++) {
+        long estimatedCost = cost + random.nextInt(costSpread);
+        while (planQueue.containsKey(estimatedCost)) {
+          estimatedCost++;
+        }
+        planQueue.put(estimatedCost, random);
+      }
+    }
+    return checksum;
+  }
+
+  private static long runOpenList(Random random, int costSpread) {
+    final OpenList<Object> planQueue = new OpenList<>();
+    planQueue.add(0L, random);
+    long checksum = 0;
+    for (int i = 0; i < EXPANSIONS && !planQueue.isEmpty(); i++) {
+      final long cost = planQueue.peekKey();
+      planQueue.poll();
+      checksum += cost;
+      for (int j = 0; j < BRANCHING; j++) {
+        planQueue.add(cost + random.nextInt(costSpread), random);
+      }
+    }
+    return checksum;
+  }
+}
@@ -0,0 +1,171 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.github.rinde.rinsim.geom.Graph;
+import com.github.rinde.rinsim.geom.Graphs;
+import com.github.rinde.rinsim.geom.LengthData;
+import com.github.rinde.rinsim.geom.ListenableGraph;
+import com.github.rinde.rinsim.geom.Point;
+
+import multistage.garagemodel.GraphCreator;
+import resourceagents.ResourceGraph;
+import routeplan.AlternativePaths;
+import setting.Setting;
+
+/**
+ * The Class PathSamplingBenchmark. Compares the alternative paths engine with
+ * the former path sampling of the garage model, which created a new graph for
+ * every sampling, changed the lengths of its connections to add the penalties
+ * and ran a new euclidean A* search for every leg of every path. The queries
+ * imitate the garage model: from a random node to a pickup node, a drop off
+ * node and a garage, where the other garages cannot be entered. The engine
+ * breaks ties between paths of the same length differently, so the sampled
+ * paths are not always the same.
+ *
+ * @author Tung
+ */
+public class PathSamplingBenchmark {
+
+  /** The number of queries per run. */
+  private static final int QUERIES = 200;
+
+  /** The number of paths per query, as many as the default setting. */
+  private static final int NUM_OF_PATHS = 10;
+
+  /** The number of runs, the first ones are for warming up. */
+  private static final int RUNS = 6;
+
+  public static void main(String[] args) {
+    final Setting setting = new Setting.SettingBuilder().build();
+    final GraphCreator graphCreator = new GraphCreator(setting);
+    final ResourceGraph resourceGraph = new ResourceGraph(
+        graphCreator.createGraph());
+    // the graph creator adds the garages of every graph it creates
+    final List<Point> garages = new ArrayList<>(graphCreator.getGarages());
+    final List<Point> otherNodes = new ArrayList<>();
+    for (int node = 0; node < resourceGraph.getNumOfNodes(); node++) {
+      if (!garages.contains(resourceGraph.getNode(node))) {
+        otherNodes.add(resourceGraph.getNode(node));
+      }
+    }
+
+    long graphTime = 0;
+    long engineTime = 0;
+    for (int run = 0; run < RUNS; run++) {
+      final long start = System.nanoTime();
+      final long graphLength = runGraph(new Random(run), setting,
+          garages, otherNodes);
+      final long middle = System.nanoTime();
+      final long engineLength = runEngine(new Random(run), resourceGraph,
+          garages, otherNodes);
+      final long end = System.nanoTime();
+      if (run == RUNS - 1) {
+        // the paths can differ where paths have the same length, so the
+        // totals are only close
+        System.out.println("total path length of the last run: "
+            + graphLength + " and " + engineLength);
+      }
+      if (run >= RUNS / 2) {
+        graphTime += middle - start;
+        engineTime += end - middle;
+      }
+    }
+    final int measuredRuns = RUNS - RUNS / 2;
+    System.out.println("garage map, " + NUM_OF_PATHS + " paths per query");
+    System.out.println("  new graph and euclidean A*: "
+        + queriesPerSecond(graphTime, measuredRuns) + " queries/s");
+    System.out.println("  AlternativePaths:           "
+        + queriesPerSecond(engineTime, measuredRuns) + " queries/s");
+  }
+
+  private static long queriesPerSecond(long nanos, int runs) {
+    return (long) (QUERIES * (double) runs / (nanos / 1e9));
+  }
+
+  private static List<Point> getDestinations(Random random,
+      List<Point> garages, List<Point> otherNodes) {
+    final List<Point> destinations = new ArrayList<>();
+    destinations.add(otherNodes.get(random.nextInt(otherNodes.size())));
+    destinations.add(otherNodes.get(random.nextInt(otherNodes.size())));
+    destinations.add(garages.get(random.nextInt(garages.size())));
+    return destinations;
+  }
+
+  /**
+   * Runs the queries with the former path sampling.
+   *
+   * @return the total length of the paths, rounded
+   */
+  @SuppressWarnings("unchecked")
+  private static long runGraph(Random random, Setting setting,
+      List<Point> garages, List<Point> otherNodes) {
+    double totalLength = 0;
+    for (int query = 0; query < QUERIES; query++) {
+      final Point origin = otherNodes.get(random.nextInt(otherNodes.size()));
+      final List<Point> destinations = getDestinations(random, garages,
+          otherNodes);
+
+      final ListenableGraph<?> graph = new GraphCreator(setting)
+          .createGraph();
+      for (Point garage : garages) {
+        if (!garage.equals(destinations.get(destinations.size() - 1))) {
+          graph.removeNode(garage);
+        }
+      }
+
+      for (int i = 0; i < NUM_OF_PATHS; i++) {
+        final List<Point> path = new ArrayList<>();
+        Point from = origin;
+        for (Point destination : destinations) {
+          final List<Point> leg = Graphs.shortestPathEuclideanDistance(graph,
+              from, destination);
+          if (!path.isEmpty()) {
+            leg.remove(0);
+          }
+          path.addAll(leg);
+          from = destination;
+        }
+        totalLength += Graphs.pathLength(path);
+
+        final double penalty = Math.pow(0.5, i) * 2 * 8;
+        for (int node = 0; node < path.size() - 1; node++) {
+          final double currentLength = graph
+              .getConnection(path.get(node), path.get(node + 1)).getLength();
+          ((Graph<LengthData>) graph).setConnectionData(path.get(node),
+              path.get(node + 1), LengthData.create(currentLength + penalty));
+        }
+      }
+    }
+    return Math.round(totalLength);
+  }
+
+  /**
+   * Runs the queries with the alternative paths engine.
+   *
+   * @return the total length of the paths, rounded
+   */
+  private static long runEngine(Random random, ResourceGraph resourceGraph,
+      List<Point> garages, List<Point> otherNodes) {
+    final AlternativePaths alternativePaths = new AlternativePaths(
+        resourceGraph);
+    double totalLength = 0;
+    for (int query = 0; query < QUERIES; query++) {
+      final Point origin = otherNodes.get(random.nextInt(otherNodes.size()));
+      final List<Point> destinations = getDestinations(random, garages,
+          otherNodes);
+
+      final List<Point> otherGarages = new ArrayList<>(garages);
+      otherGarages.remove(destinations.get(destinations.size() - 1));
+      for (int[] path : alternativePaths.getAlternativePaths(
+          resourceGraph.getNodeID(origin),
+          resourceGraph.getNodeIDs(destinations), NUM_OF_PATHS,
+          resourceGraph.getNodeIDs(otherGarages))) {
+        totalLength += Graphs.pathLength(resourceGraph.getNodes(path));
+      }
+    }
+    return Math.round(totalLength);
+  }
+}
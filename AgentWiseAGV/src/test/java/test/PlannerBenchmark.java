@@ -0,0 +1,686 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.measure.unit.SI;
+
+import com.github.rinde.rinsim.core.Simulator;
+import com.github.rinde.rinsim.core.model.road.CollisionGraphRoadModel;
+import com.github.rinde.rinsim.core.model.road.RoadModel;
+import com.github.rinde.rinsim.core.model.road.RoadModelBuilders;
+import com.github.rinde.rinsim.geom.ListenableGraph;
+import com.github.rinde.rinsim.geom.Point;
+import com.google.common.collect.Range;
+
+import multistage.Destinations;
+import resourceagents.EdgeAgent;
+import resourceagents.EdgeAgentList;
+import resourceagents.FreeTimeWindow;
+import resourceagents.NodeAgentList;
+import resourceagents.ResourceGraph;
+import routeplan.Plan;
+import setting.Setting;
+import singlestage.destinationgenerator.DestinationGenerator;
+import singlestage.destinationgenerator.OriginDestination;
+
+/**
+ * The Class PlannerBenchmark. Measures the route planners and the queries of
+ * the resource agents on the reservation loads of seeded runs of the garage
+ * model and the central station model. The load of a model is the first
+ * mission of every AGV of a run: the destinations are generated with the
+ * random generator of the simulator, as in the AGV system, and the plans are
+ * made by the context-aware planner one AGV after the other. The same seed
+ * gives the same load, so the printed checksum is the same for every run
+ * of the benchmark, and the numbers of two versions of the code can be
+ * compared.
+ *
+ * <p>
+ * For every model it measures
+ * <ul>
+ * <li>exploreRoute and makeReservation of the context-aware and the delegate
+ * MAS virtual environment, for the missions of the load,</li>
+ * <li>the reservations of the load added to new node and edge agents,</li>
+ * <li>NodeAgent.getFreeTimeWindows and EdgeAgent.getFreeTimeWindows for
+ * random entry windows on the loaded agents,</li>
+ * <li>the evaporation sweep of the loaded agents, one tick after the other
+ * until all reservations are removed.</li>
+ * </ul>
+ * On the missions of a seeded run of the single stage model, it measures
+ * exploreRoute of the context-aware virtual environment with and without
+ * safe interval path planning. It also plans every mission with both
+ * planners under the same reservations, checks that they arrive at the same
+ * time and prints the expansions of both.
+ *
+ * @author Tung
+ */
+public class PlannerBenchmark {
+
+  /** The seed of the runs of which the loads are taken. */
+  private static final long SEED = 8496955;
+
+  /** The number of AGVs of the runs. */
+  private static final int NUM_OF_AGVS = 50;
+
+  /** The number of queries per run of a query benchmark. */
+  private static final int QUERIES = 100000;
+
+  /** The number of runs, the first ones are for warming up. */
+  private static final int RUNS = 6;
+
+  /** The tick length of the AGV systems. */
+  private static final long TICK_LENGTH = 100;
+
+  /** The checksum of the results, which depends only on the loads. */
+  private static long checksum;
+
+  public static void main(String[] args) {
+    final Setting.SettingBuilder settingBuilder = new Setting.SettingBuilder()
+        .setNumOfAGVs(NUM_OF_AGVS).setSeed(SEED);
+    final Setting setting = settingBuilder.build();
+    benchmark(new GarageLoad(setting));
+    benchmark(new CentralStationLoad(setting));
+    benchmarkSafeIntervalPlanning(new SingleStageLoad(setting,
+        settingBuilder.setSafeIntervalPlanning(true).build()));
+    System.out.println("checksum: " + checksum);
+  }
+
+  private static void benchmark(final Load load) {
+    System.out.println(load.getName() + ", " + NUM_OF_AGVS + " AGVs, seed "
+        + SEED);
+
+    measure("exploreRoute, context-aware", "plans", new Benchmark() {
+      @Override
+      int run() {
+        return planAll(load.createContextAwarePlanner());
+      }
+    });
+    measure("exploreRoute, delegate MAS", "plans", new Benchmark() {
+      @Override
+      int run() {
+        return planAll(load.createDelegateMASPlanner());
+      }
+    });
+
+    // the load
+    final List<Plan> plans = new ArrayList<>();
+    final Planner planner = load.createContextAwarePlanner();
+    for (int agvID = 0; agvID < NUM_OF_AGVS; agvID++) {
+      plans.add(planner.plan(agvID));
+    }
+    long horizon = 0;
+    for (Plan plan : plans) {
+      horizon = Math.max(horizon, plan.getArrivalTime());
+    }
+    final ResourceGraph resourceGraph = load.getResourceGraph();
+    final Setting setting = load.getSetting();
+
+    measure("addReservation", "reservations", new Benchmark() {
+      @Override
+      int run() {
+        return reserve(plans, resourceGraph,
+            new NodeAgentList(resourceGraph, setting),
+            new EdgeAgentList(resourceGraph, setting));
+      }
+    });
+
+    final NodeAgentList nodeAgentList = new NodeAgentList(resourceGraph,
+        setting);
+    final EdgeAgentList edgeAgentList = new EdgeAgentList(resourceGraph,
+        setting);
+    reserve(plans, resourceGraph, nodeAgentList, edgeAgentList);
+    final Random random = new Random(SEED);
+    final int[] resources = new int[QUERIES];
+    final long[] entryLowerEndpoints = new long[QUERIES];
+    final long[] entryUpperEndpoints = new long[QUERIES];
+    final int[] agvIDs = new int[QUERIES];
+    final boolean[] fromNode1 = new boolean[QUERIES];
+    for (int query = 0; query < QUERIES; query++) {
+      resources[query] = random.nextInt(Integer.MAX_VALUE);
+      entryLowerEndpoints[query] = (long) (random.nextDouble() * horizon);
+      // half of the entry windows are unbounded, as the first steps of the
+      // planners
+      entryUpperEndpoints[query] = random.nextBoolean()
+          ? FreeTimeWindow.UNBOUNDED
+          : entryLowerEndpoints[query]
+              + (long) (random.nextDouble() * horizon / 10);
+      agvIDs[query] = random.nextInt(NUM_OF_AGVS);
+      fromNode1[query] = random.nextBoolean();
+    }
+
+    measure("NodeAgent.getFreeTimeWindows", "queries", new Benchmark() {
+      @Override
+      int run() {
+        for (int query = 0; query < QUERIES; query++) {
+          checksum += nodeAgentList
+              .getNodeAgent(resources[query] % resourceGraph.getNumOfNodes())
+              .getFreeTimeWindows(entryLowerEndpoints[query],
+                  entryUpperEndpoints[query], agvIDs[query])
+              .size();
+        }
+        return QUERIES;
+      }
+    });
+    measure("EdgeAgent.getFreeTimeWindows", "queries", new Benchmark() {
+      @Override
+      int run() {
+        for (int query = 0; query < QUERIES; query++) {
+          final int edge = resources[query] % resourceGraph.getNumOfEdges();
+          final EdgeAgent edgeAgent = edgeAgentList.getEdgeAgent(edge);
+          final int node1 = resourceGraph.getEdgeNode1(edge);
+          final int node2 = resourceGraph.getEdgeNode2(edge);
+          final List<FreeTimeWindow> freeTimeWindows = fromNode1[query]
+              ? edgeAgent.getFreeTimeWindows(node1, node2,
+                  entryLowerEndpoints[query], entryUpperEndpoints[query],
+                  agvIDs[query])
+              : edgeAgent.getFreeTimeWindows(node2, node1,
+                  entryLowerEndpoints[query], entryUpperEndpoints[query],
+                  agvIDs[query]);
+          if (freeTimeWindows != null) {
+            checksum += freeTimeWindows.size();
+          }
+        }
+        return QUERIES;
+      }
+    });
+
+    final long lastTick = horizon + TICK_LENGTH;
+    measure("evaporation sweep", "ticks", new Benchmark() {
+      private NodeAgentList sweptNodeAgentList;
+      private EdgeAgentList sweptEdgeAgentList;
+
+      @Override
+      void setUp() {
+        sweptNodeAgentList = new NodeAgentList(resourceGraph, setting);
+        sweptEdgeAgentList = new EdgeAgentList(resourceGraph, setting);
+        reserve(plans, resourceGraph, sweptNodeAgentList, sweptEdgeAgentList);
+      }
+
+      @Override
+      int run() {
+        int ticks = 0;
+        for (long time = TICK_LENGTH; time <= lastTick; time += TICK_LENGTH) {
+          sweptNodeAgentList.removeOutDatedReservation(time);
+          sweptEdgeAgentList.removeOutdatedReservations(time);
+          ticks++;
+        }
+        return ticks;
+      }
+    });
+  }
+
+  private static void benchmarkSafeIntervalPlanning(
+      final SingleStageLoad load) {
+    System.out.println("single stage model, " + NUM_OF_AGVS + " AGVs, seed "
+        + SEED);
+
+    measure("exploreRoute, context-aware", "plans", new Benchmark() {
+      @Override
+      int run() {
+        return planAll(load.createPlanner(load.createVirtualEnvironment(
+            false)));
+      }
+    });
+    measure("exploreRoute, safe interval", "plans", new Benchmark() {
+      @Override
+      int run() {
+        return planAll(load.createPlanner(load.createVirtualEnvironment(
+            true)));
+      }
+    });
+
+    // both planners plan every mission under the reservations of the plans
+    // of searchRoute, so they must find the same arrival times
+    final singlestage.contextaware.VirtualEnvironment virtualEnvironment =
+        load.createVirtualEnvironment(false);
+    final singlestage.contextaware.VirtualEnvironment
+        safeIntervalVirtualEnvironment = load.createVirtualEnvironment(true);
+    for (int agvID = 0; agvID < NUM_OF_AGVS; agvID++) {
+      final Plan plan = virtualEnvironment.exploreRoute(agvID,
+          load.getOrigin(agvID), load.getDestinations(agvID));
+      final Plan safeIntervalPlan = safeIntervalVirtualEnvironment
+          .exploreRoute(agvID, load.getOrigin(agvID),
+              load.getDestinations(agvID));
+      if (plan.getArrivalTime() != safeIntervalPlan.getArrivalTime()) {
+        throw new IllegalStateException("AGV " + agvID + " arrives at "
+            + plan.getArrivalTime() + " with searchRoute but at "
+            + safeIntervalPlan.getArrivalTime() + " with safe intervals");
+      }
+      virtualEnvironment.makeReservation(agvID, plan, 0,
+          plan.getArrivalTime());
+      safeIntervalVirtualEnvironment.makeReservation(agvID, plan, 0,
+          plan.getArrivalTime());
+    }
+    System.out.println("  same arrival times, expansions: "
+        + virtualEnvironment.getPlannerStatistics().getRunStatistics()
+            .getExpansions().getSum()
+        + " with searchRoute, "
+        + safeIntervalVirtualEnvironment.getPlannerStatistics()
+            .getRunStatistics().getExpansions().getSum()
+        + " with safe intervals");
+  }
+
+  /**
+   * Plans the missions of all AGVs of the load.
+   *
+   * @return the number of plans
+   */
+  private static int planAll(Planner planner) {
+    for (int agvID = 0; agvID < NUM_OF_AGVS; agvID++) {
+      final Plan plan = planner.plan(agvID);
+      if (plan != null) {
+        checksum += plan.getArrivalTime();
+      }
+    }
+    return NUM_OF_AGVS;
+  }
+
+  /**
+   * Adds the reservations of the plans in the same way as the virtual
+   * environments: the i-th node for the (2i)-th interval and the edge after
+   * it for the (2i+1)-th interval. The reservations of a plan live until its
+   * arrival time.
+   *
+   * @return the number of reservations
+   */
+  private static int reserve(List<Plan> plans, ResourceGraph resourceGraph,
+      NodeAgentList nodeAgentList, EdgeAgentList edgeAgentList) {
+    int numOfReservations = 0;
+    for (int agvID = 0; agvID < plans.size(); agvID++) {
+      final Plan plan = plans.get(agvID);
+      final int[] path = resourceGraph.getNodeIDs(plan.getPath());
+      final List<Range<Long>> intervals = plan.getIntervals();
+      for (int i = 0; i < path.length - 1; i++) {
+        nodeAgentList.getNodeAgent(path[i]).addReservation(agvID,
+            plan.getArrivalTime(), intervals.get(i * 2));
+        edgeAgentList.getEdgeAgent(path[i], path[i + 1]).addReservation(
+            path[i], intervals.get(i * 2 + 1), plan.getArrivalTime(), agvID);
+      }
+      nodeAgentList.getNodeAgent(path[path.length - 1]).addReservation(agvID,
+          plan.getArrivalTime(), intervals.get(intervals.size() - 1));
+      numOfReservations += path.length * 2 - 1;
+    }
+    return numOfReservations;
+  }
+
+  private static void measure(String name, String unit,
+      Benchmark benchmark) {
+    long time = 0;
+    long operations = 0;
+    for (int run = 0; run < RUNS; run++) {
+      benchmark.setUp();
+      final long start = System.nanoTime();
+      final int runOperations = benchmark.run();
+      final long end = System.nanoTime();
+      if (run >= RUNS / 2) {
+        time += end - start;
+        operations += runOperations;
+      }
+    }
+    System.out.println("  " + name + ": "
+        + (long) (operations / (time / 1e9)) + " " + unit + "/s");
+  }
+
+  /**
+   * The Class Benchmark. A run of a benchmark.
+   */
+  private abstract static class Benchmark {
+
+    /**
+     * Prepares a run. It is not measured.
+     */
+    void setUp() {}
+
+    /**
+     * Runs the benchmark once.
+     *
+     * @return the number of operations
+     */
+    abstract int run();
+  }
+
+  /**
+   * The interface Planner. A virtual environment that plans the missions of
+   * a load and reserves the plans.
+   */
+  private interface Planner {
+
+    /**
+     * Plans and reserves the mission of the AGV.
+     *
+     * @param agvID the agv id
+     * @return the plan, or null if the planner does not find one
+     */
+    Plan plan(int agvID);
+  }
+
+  /**
+   * Creates the simulator of a run. It is not started, it only provides the
+   * road model and the random generator as in the AGV system.
+   *
+   * @return the simulator
+   */
+  private static Simulator createSimulator(Setting setting,
+      ListenableGraph<?> graph) {
+    return Simulator.builder()
+        .addModel(RoadModelBuilders.dynamicGraph(graph)
+            .withCollisionAvoidance()
+            .withDistanceUnit(SI.METER)
+            .withVehicleLength(setting.getVehicleLength())
+            .withSpeedUnit(SI.METERS_PER_SECOND)
+            .withMinDistance(0d))
+        .setTimeUnit(SI.MILLI(SI.SECOND))
+        .setTickLength(TICK_LENGTH)
+        .setRandomSeed(setting.getSeed())
+        .build();
+  }
+
+  private static CollisionGraphRoadModel getRoadModel(Simulator sim) {
+    return (CollisionGraphRoadModel) sim.getModelProvider()
+        .tryGetModel(RoadModel.class);
+  }
+
+  /**
+   * The Class SingleStageLoad. The missions of the AGVs of a seeded run of
+   * the single stage model, which all start at time 0.
+   */
+  private static final class SingleStageLoad {
+
+    /** The setting. */
+    private final Setting setting;
+
+    /** The setting with safe interval path planning. */
+    private final Setting safeIntervalSetting;
+
+    /** The road model of the simulator of the run. */
+    private final CollisionGraphRoadModel roadModel;
+
+    /** The origins and destinations of the AGVs. */
+    private final List<OriginDestination> originDestinations;
+
+    SingleStageLoad(Setting setting, Setting safeIntervalSetting) {
+      this.setting = setting;
+      this.safeIntervalSetting = safeIntervalSetting;
+      final Simulator sim = createSimulator(setting,
+          new singlestage.GraphCreator(setting).createGraph());
+      roadModel = getRoadModel(sim);
+      originDestinations = new DestinationGenerator(sim.getRandomGenerator(),
+          roadModel, setting.getNumOfAGVs()).run();
+    }
+
+    Point getOrigin(int agvID) {
+      return originDestinations.get(agvID).getOrigin();
+    }
+
+    List<Point> getDestinations(int agvID) {
+      return Collections.singletonList(
+          originDestinations.get(agvID).getDestination());
+    }
+
+    singlestage.contextaware.VirtualEnvironment createVirtualEnvironment(
+        boolean safeIntervalPlanning) {
+      return new singlestage.contextaware.VirtualEnvironment(roadModel, null,
+          safeIntervalPlanning ? safeIntervalSetting : setting);
+    }
+
+    Planner createPlanner(
+        final singlestage.contextaware.VirtualEnvironment virtualEnvironment) {
+      return new Planner() {
+        @Override
+        public Plan plan(int agvID) {
+          final Plan plan = virtualEnvironment.exploreRoute(agvID,
+              getOrigin(agvID), getDestinations(agvID));
+          virtualEnvironment.makeReservation(agvID, plan, 0,
+              plan.getArrivalTime());
+          return plan;
+        }
+      };
+    }
+  }
+
+  /**
+   * The Class Load. The missions of the AGVs of a seeded run.
+   */
+  private abstract static class Load {
+
+    /** The setting. */
+    final Setting setting;
+
+    /** The road model of the simulator of the run. */
+    final CollisionGraphRoadModel roadModel;
+
+    /** The resource graph. */
+    final ResourceGraph resourceGraph;
+
+    /** The garages or the nodes of the central station. */
+    final List<Point> homeNodes;
+
+    /** The destinations of the AGVs, in the order in which they visit them. */
+    final List<List<Point>> destinations;
+
+    Load(Setting setting, ListenableGraph<?> graph, List<Point> homeNodes) {
+      this.setting = setting;
+      this.homeNodes = new ArrayList<>(homeNodes);
+      final Simulator sim = createSimulator(setting, graph);
+      roadModel = getRoadModel(sim);
+      resourceGraph = new ResourceGraph(roadModel.getGraph());
+
+      final Destinations destinationList = generateDestinations(sim);
+      destinations = new ArrayList<>();
+      for (int agvID = 0; agvID < setting.getNumOfAGVs(); agvID++) {
+        final List<Point> agvDestinations = new ArrayList<>();
+        for (int i = 0; i < setting.getNumOfDestsForEachAGV(); i++) {
+          agvDestinations.add(destinationList.getDestination());
+        }
+        agvDestinations.add(getLastDestination(agvID));
+        destinations.add(agvDestinations);
+      }
+    }
+
+    Setting getSetting() {
+      return setting;
+    }
+
+    ResourceGraph getResourceGraph() {
+      return resourceGraph;
+    }
+
+    abstract String getName();
+
+    abstract Destinations generateDestinations(Simulator sim);
+
+    abstract Point getLastDestination(int agvID);
+
+    abstract Planner createContextAwarePlanner();
+
+    abstract Planner createDelegateMASPlanner();
+  }
+
+  /**
+   * The Class GarageLoad. Every AGV leaves its garage at the end of the first
+   * tick and returns to it.
+   */
+  private static final class GarageLoad extends Load {
+
+    /** The start time of the missions. */
+    private static final long START_TIME = TICK_LENGTH;
+
+    GarageLoad(Setting setting) {
+      this(setting, new multistage.garagemodel.GraphCreator(setting));
+    }
+
+    private GarageLoad(Setting setting,
+        multistage.garagemodel.GraphCreator graphCreator) {
+      // the garages are known when the graph is created
+      super(setting, graphCreator.createGraph(), graphCreator.getGarages());
+    }
+
+    @Override
+    String getName() {
+      return "garage model";
+    }
+
+    @Override
+    Destinations generateDestinations(Simulator sim) {
+      return new multistage.garagemodel.destinationgenerator
+          .DestinationGenerator(sim.getRandomGenerator(), roadModel,
+              setting.getNumOfAGVs(), setting.getNumOfDestinations(),
+              homeNodes).run();
+    }
+
+    @Override
+    Point getLastDestination(int agvID) {
+      return homeNodes.get(agvID);
+    }
+
+    @Override
+    Planner createContextAwarePlanner() {
+      final multistage.garagemodel.contextaware.VirtualEnvironment
+          virtualEnvironment =
+              new multistage.garagemodel.contextaware.VirtualEnvironment(
+                  roadModel, null, setting);
+      return new Planner() {
+        @Override
+        public Plan plan(int agvID) {
+          final Plan plan = virtualEnvironment.exploreRoute(agvID,
+              START_TIME, homeNodes.get(agvID), destinations.get(agvID),
+              homeNodes);
+          virtualEnvironment.makeReservation(agvID, plan, START_TIME,
+              plan.getArrivalTime());
+          return plan;
+        }
+      };
+    }
+
+    @Override
+    Planner createDelegateMASPlanner() {
+      final multistage.garagemodel.delegatemas.VirtualEnvironment
+          virtualEnvironment =
+              new multistage.garagemodel.delegatemas.VirtualEnvironment(
+                  roadModel, null, setting);
+      return new Planner() {
+        @Override
+        public Plan plan(int agvID) {
+          final Plan plan = virtualEnvironment.exploreRoute(agvID,
+              START_TIME, homeNodes.get(agvID), destinations.get(agvID),
+              setting.getNumOfAlterRoutes(), homeNodes,
+              FreeTimeWindow.UNBOUNDED);
+          if (plan != null) {
+            virtualEnvironment.makeReservation(agvID, plan, START_TIME,
+                START_TIME + setting.getEvaporationDuration());
+          }
+          return plan;
+        }
+      };
+    }
+  }
+
+  /**
+   * The Class CentralStationLoad. The AGVs leave the central station at its
+   * exit one after the other and return to its entrance. An AGV starts in the
+   * first tick after the previous one has left the exit.
+   */
+  private static final class CentralStationLoad extends Load {
+
+    /** The nodes of the central station that the plans do not enter. */
+    private final List<Point> stationNodes;
+
+    CentralStationLoad(Setting setting) {
+      this(setting, new multistage.centralstationmodel.GraphCreator(setting));
+    }
+
+    private CentralStationLoad(Setting setting,
+        multistage.centralstationmodel.GraphCreator graphCreator) {
+      // the central station is known when the graph is created
+      super(setting, graphCreator.createGraph(),
+          graphCreator.getCentralStation());
+      // only the entrance can be entered, as in the vehicle agents
+      stationNodes = new ArrayList<>(homeNodes);
+      stationNodes.remove(homeNodes.get(0));
+    }
+
+    @Override
+    String getName() {
+      return "central station model";
+    }
+
+    @Override
+    Destinations generateDestinations(Simulator sim) {
+      return new multistage.centralstationmodel.destinationgenerator
+          .DestinationGenerator(sim.getRandomGenerator(), roadModel,
+              setting.getNumOfAGVs(), setting.getNumOfDestinations(),
+              homeNodes).run();
+    }
+
+    @Override
+    Point getLastDestination(int agvID) {
+      return homeNodes.get(0);
+    }
+
+    private Point getExit() {
+      return homeNodes.get(homeNodes.size() - 1);
+    }
+
+    /**
+     * Gets the start time of the next AGV, which reaches the exit when the
+     * AGV of the plan has left it.
+     *
+     * @param plan the plan of the previous AGV
+     * @return the start time
+     */
+    private long getNextStartTime(Plan plan) {
+      final long exitTime = plan.getIntervals().get(0).upperEndpoint()
+          + (long) (setting.getVehicleLength() * 1000
+              / setting.getVehicleSpeed());
+      return (exitTime / TICK_LENGTH + 1) * TICK_LENGTH;
+    }
+
+    @Override
+    Planner createContextAwarePlanner() {
+      final multistage.centralstationmodel.contextaware.VirtualEnvironment
+          virtualEnvironment =
+              new multistage.centralstationmodel.contextaware
+                  .VirtualEnvironment(roadModel, null, setting);
+      return new Planner() {
+        private long startTime = TICK_LENGTH;
+
+        @Override
+        public Plan plan(int agvID) {
+          final Plan plan = virtualEnvironment.exploreRoute(agvID, startTime,
+              getExit(), destinations.get(agvID), stationNodes);
+          virtualEnvironment.makeReservation(agvID, plan, startTime,
+              plan.getArrivalTime());
+          startTime = getNextStartTime(plan);
+          return plan;
+        }
+      };
+    }
+
+    @Override
+    Planner createDelegateMASPlanner() {
+      final multistage.centralstationmodel.delegatemas.VirtualEnvironment
+          virtualEnvironment =
+              new multistage.centralstationmodel.delegatemas
+                  .VirtualEnvironment(roadModel, null, setting);
+      return new Planner() {
+        private long startTime = TICK_LENGTH;
+
+        @Override
+        public Plan plan(int agvID) {
+          final Plan plan = virtualEnvironment.exploreRoute(agvID, startTime,
+              getExit(), destinations.get(agvID),
+              setting.getNumOfAlterRoutes(), stationNodes,
+              FreeTimeWindow.UNBOUNDED);
+          if (plan != null) {
+            virtualEnvironment.makeReservation(agvID, plan, startTime,
+                startTime + setting.getEvaporationDuration());
+            startTime = getNextStartTime(plan);
+          }
+          return plan;
+        }
+      };
+    }
+  }
+}
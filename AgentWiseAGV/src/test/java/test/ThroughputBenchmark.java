@@ -0,0 +1,326 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.common.base.Function;
+
+import experiment.AGVSystems;
+import experiment.ExperimentEngine;
+import setting.Setting;
+import statistics.Histogram;
+
+/**
+ * The Class ThroughputBenchmark. Runs every AGV system without visualization
+ * for the first seeds of seeds.txt and fleets of 10 to 200 AGVs, one run
+ * after the other on the main thread, and reports for every system and fleet
+ * size
+ * <ul>
+ * <li>the simulated seconds per wall second,</li>
+ * <li>the explorations (calls of exploreRoute) per wall second,</li>
+ * <li>the 50th and the 99th percentile of the wall time of an exploration,
+ * </li>
+ * <li>the allocated megabytes per wall second.</li>
+ * </ul>
+ * The results are written to a baseline file, a table with a header and tab
+ * separated values. When the baseline file of an earlier version is given,
+ * the speed-up of the simulation is printed for every row. The garage model
+ * needs a garage per AGV, so the fleets that are larger than the number of
+ * garages are left out.
+ *
+ * <p>
+ * Usage: ThroughputBenchmark [baseline file] [earlier baseline file]
+ *
+ * @author Tung
+ */
+public class ThroughputBenchmark {
+
+  /** The numbers of AGVs. */
+  private static final List<Integer> NUMS_OF_AGVS = Arrays.asList(10, 50,
+      100, 200);
+
+  /** The number of seeds of every system and number of AGVs. */
+  private static final int NUM_OF_SEEDS = 3;
+
+  /** The default baseline file. */
+  private static final String DEFAULT_BASELINE = "throughput.txt";
+
+  /** The header of the baseline file. */
+  private static final String HEADER = "system\tnumAGVs\truns"
+      + "\tsimSecondsPerWallSecond\texplorationsPerSecond"
+      + "\tp50ExplorationMicros\tp99ExplorationMicros\tallocatedMBPerSecond";
+
+  public static void main(String[] args) throws IOException {
+    final File baseline = new File(
+        args.length > 0 ? args[0] : DEFAULT_BASELINE);
+    final Map<String, Double> earlierSpeeds = args.length > 1
+        ? readSpeeds(new File(args[1])) : new HashMap<String, Double>();
+    final List<Long> seeds = ExperimentEngine
+        .readSeeds(new File("src/main/resources/seeds.txt"))
+        .subList(0, NUM_OF_SEEDS);
+
+    final List<BenchmarkedSystem<?>> systems = Arrays
+        .<BenchmarkedSystem<?>> asList(
+        new SingleStageSystem("SINGLE_STAGE_CA", AGVSystems.SINGLE_STAGE_CA),
+        new SingleStageSystem("SINGLE_STAGE_DMAS",
+            AGVSystems.SINGLE_STAGE_DMAS),
+        new MultiStageSystem("GARAGE_CA", AGVSystems.GARAGE_CA,
+            getNumOfGarages()),
+        new MultiStageSystem("GARAGE_DMAS", AGVSystems.GARAGE_DMAS,
+            getNumOfGarages()),
+        new MultiStageSystem("CENTRAL_STATION_CA",
+            AGVSystems.CENTRAL_STATION_CA, Integer.MAX_VALUE),
+        new MultiStageSystem("CENTRAL_STATION_DMAS",
+            AGVSystems.CENTRAL_STATION_DMAS, Integer.MAX_VALUE));
+
+    try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+        new FileOutputStream(baseline), StandardCharsets.UTF_8))) {
+      writer.println(HEADER);
+      writer.flush();
+      System.out.println(HEADER);
+      for (BenchmarkedSystem<?> system : systems) {
+        // the first run warms up the code of the system
+        system.measure(new Setting.SettingBuilder()
+            .setNumOfAGVs(NUMS_OF_AGVS.get(0)).setSeed(seeds.get(0)).build());
+        for (int numOfAGVs : NUMS_OF_AGVS) {
+          if (numOfAGVs > system.getMaxNumOfAGVs()) {
+            continue;
+          }
+          final Measurement measurement = new Measurement();
+          for (long seed : seeds) {
+            measurement.add(system.measure(new Setting.SettingBuilder()
+                .setNumOfAGVs(numOfAGVs).setSeed(seed).build()));
+          }
+          final String row = system.getName() + "\t" + numOfAGVs + "\t"
+              + seeds.size() + "\t" + measurement.format();
+          writer.println(row);
+          writer.flush();
+
+          final Double earlierSpeed = earlierSpeeds
+              .get(system.getName() + "\t" + numOfAGVs);
+          if (earlierSpeed == null) {
+            System.out.println(row);
+          } else {
+            System.out.println(row + "\tspeed-up " + String.format(
+                Locale.ROOT, "%.2f",
+                measurement.getSimSecondsPerWallSecond() / earlierSpeed));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the number of garages of the garage model.
+   *
+   * @return the number of garages
+   */
+  private static int getNumOfGarages() {
+    final multistage.garagemodel.GraphCreator graphCreator =
+        new multistage.garagemodel.GraphCreator(
+            new Setting.SettingBuilder().build());
+    graphCreator.createGraph();
+    return graphCreator.getGarages().size();
+  }
+
+  /**
+   * Reads the simulated seconds per wall second of a baseline file.
+   *
+   * @param file the baseline file
+   * @return the speeds, by system and number of AGVs separated by a tab
+   * @throws IOException if the file cannot be read
+   */
+  private static Map<String, Double> readSpeeds(File file)
+      throws IOException {
+    final Map<String, Double> speeds = new HashMap<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new FileInputStream(file), StandardCharsets.UTF_8))) {
+      // the header
+      String line = reader.readLine();
+      line = reader.readLine();
+      while (line != null) {
+        final String[] values = line.split("\t");
+        speeds.put(values[0] + "\t" + values[1], Double.valueOf(values[3]));
+        line = reader.readLine();
+      }
+    }
+    return speeds;
+  }
+
+  /**
+   * The Class Measurement. The totals of the runs of a system and a number of
+   * AGVs.
+   */
+  private static final class Measurement {
+
+    /** The wall time, in nanoseconds. */
+    private long wallTime;
+
+    /** The simulated time, in milliseconds. */
+    private long simulatedTime;
+
+    /** The allocated bytes, negative if they are not known. */
+    private long allocatedBytes;
+
+    /** The wall times of the explorations, in nanoseconds. */
+    private final Histogram planningTimes = new Histogram();
+
+    void add(Measurement run) {
+      wallTime += run.wallTime;
+      simulatedTime += run.simulatedTime;
+      allocatedBytes = allocatedBytes < 0 || run.allocatedBytes < 0 ? -1
+          : allocatedBytes + run.allocatedBytes;
+      planningTimes.add(run.planningTimes);
+    }
+
+    double getSimSecondsPerWallSecond() {
+      return simulatedTime / 1e3 / (wallTime / 1e9);
+    }
+
+    String format() {
+      final double wallSeconds = wallTime / 1e9;
+      return String.format(Locale.ROOT, "%.1f\t%.1f\t%d\t%d\t%.1f",
+          getSimSecondsPerWallSecond(),
+          planningTimes.getCount() / wallSeconds,
+          planningTimes.getValueAtPercentile(50) / 1000,
+          planningTimes.getValueAtPercentile(99) / 1000,
+          allocatedBytes < 0 ? -1 : allocatedBytes / 1e6 / wallSeconds);
+    }
+  }
+
+  /**
+   * The Class BenchmarkedSystem. An AGV system and the way to read the
+   * simulated time and the planning times from its results.
+   *
+   * @param <R> the type of the results
+   */
+  private abstract static class BenchmarkedSystem<R> {
+
+    /** The name. */
+    private final String name;
+
+    /** The AGV system. */
+    private final Function<Setting, R> system;
+
+    BenchmarkedSystem(String name, Function<Setting, R> system) {
+      this.name = name;
+      this.system = system;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    int getMaxNumOfAGVs() {
+      return Integer.MAX_VALUE;
+    }
+
+    abstract long getSimulatedTime(Setting setting, R result);
+
+    abstract Histogram getPlanningTimes(R result);
+
+    /**
+     * Runs the system on this thread.
+     *
+     * @param setting the setting
+     * @return the measurement of the run
+     */
+    Measurement measure(Setting setting) {
+      final long threadID = Thread.currentThread().getId();
+      final java.lang.management.ThreadMXBean threadBean = ManagementFactory
+          .getThreadMXBean();
+      // the allocated bytes of a thread are only known on HotSpot
+      final com.sun.management.ThreadMXBean allocationBean =
+          threadBean instanceof com.sun.management.ThreadMXBean
+              && ((com.sun.management.ThreadMXBean) threadBean)
+                  .isThreadAllocatedMemoryEnabled()
+              ? (com.sun.management.ThreadMXBean) threadBean : null;
+
+      final long allocatedBefore = allocationBean == null ? 0
+          : allocationBean.getThreadAllocatedBytes(threadID);
+      final long start = System.nanoTime();
+      final R result = system.apply(setting);
+      final long end = System.nanoTime();
+
+      final Measurement measurement = new Measurement();
+      measurement.wallTime = end - start;
+      measurement.simulatedTime = getSimulatedTime(setting, result);
+      measurement.allocatedBytes = allocationBean == null ? -1
+          : allocationBean.getThreadAllocatedBytes(threadID) - allocatedBefore;
+      measurement.planningTimes.add(getPlanningTimes(result));
+      return measurement;
+    }
+  }
+
+  /**
+   * The Class SingleStageSystem. The simulation of the single stage model
+   * stops when the last AGV has reached its destination.
+   */
+  private static final class SingleStageSystem
+      extends BenchmarkedSystem<singlestage.result.Result> {
+
+    SingleStageSystem(String name,
+        Function<Setting, singlestage.result.Result> system) {
+      super(name, system);
+    }
+
+    @Override
+    long getSimulatedTime(Setting setting,
+        singlestage.result.Result result) {
+      return result.getLatestFinishTime();
+    }
+
+    @Override
+    Histogram getPlanningTimes(singlestage.result.Result result) {
+      return result.getPlannerStatistics().getRunStatistics()
+          .getPlanningTimes();
+    }
+  }
+
+  /**
+   * The Class MultiStageSystem. The simulation of a multi stage model stops
+   * at the end time of the setting.
+   */
+  private static final class MultiStageSystem
+      extends BenchmarkedSystem<multistage.result.Result> {
+
+    /** The largest number of AGVs of the model. */
+    private final int maxNumOfAGVs;
+
+    MultiStageSystem(String name,
+        Function<Setting, multistage.result.Result> system,
+        int maxNumOfAGVs) {
+      super(name, system);
+      this.maxNumOfAGVs = maxNumOfAGVs;
+    }
+
+    @Override
+    int getMaxNumOfAGVs() {
+      return maxNumOfAGVs;
+    }
+
+    @Override
+    long getSimulatedTime(Setting setting, multistage.result.Result result) {
+      return setting.getEndTime();
+    }
+
+    @Override
+    Histogram getPlanningTimes(multistage.result.Result result) {
+      return result.getPlannerStatistics().getRunStatistics()
+          .getPlanningTimes();
+    }
+  }
+}